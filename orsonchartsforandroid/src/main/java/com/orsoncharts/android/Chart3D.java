@@ -32,36 +32,43 @@
 
 package com.orsoncharts.android;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import android.graphics.Canvas;
+import android.graphics.Canvas.VertexMode;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Paint.Style;
 import android.graphics.Path;
 import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.os.Build;
 
 import com.orsoncharts.android.ChartBox3D.CBFace;
 import com.orsoncharts.android.axis.Axis3D;
 import com.orsoncharts.android.axis.TickData;
 import com.orsoncharts.android.axis.ValueAxis3D;
+import com.orsoncharts.android.data.ItemKey;
 import com.orsoncharts.android.graphics3d.Dimension2D;
 import com.orsoncharts.android.graphics3d.Dimension3D;
 import com.orsoncharts.android.graphics3d.DoubleSidedFace;
 import com.orsoncharts.android.graphics3d.Drawable3D;
 import com.orsoncharts.android.graphics3d.Face;
-import com.orsoncharts.android.graphics3d.Object3D;
+import com.orsoncharts.android.graphics3d.FaceSorter;
+import com.orsoncharts.android.graphics3d.GlyphFace;
 import com.orsoncharts.android.graphics3d.Offset2D;
 import com.orsoncharts.android.graphics3d.Point2D;
-import com.orsoncharts.android.graphics3d.Point3D;
+import com.orsoncharts.android.graphics3d.ScreenBins;
+import com.orsoncharts.android.graphics3d.ScreenFaceIndex;
 import com.orsoncharts.android.graphics3d.Utils2D;
 import com.orsoncharts.android.graphics3d.ViewPoint3D;
 import com.orsoncharts.android.graphics3d.World;
-import com.orsoncharts.android.graphics3d.ZOrderComparator;
 import com.orsoncharts.android.legend.LegendAnchor;
 import com.orsoncharts.android.legend.LegendBuilder;
 import com.orsoncharts.android.legend.StandardLegendBuilder;
@@ -71,6 +78,7 @@ import com.orsoncharts.android.plot.Plot3D;
 import com.orsoncharts.android.plot.Plot3DChangeEvent;
 import com.orsoncharts.android.plot.Plot3DChangeListener;
 import com.orsoncharts.android.plot.XYZPlot;
+import com.orsoncharts.android.renderer.ColorScale;
 import com.orsoncharts.android.table.GridElement;
 import com.orsoncharts.android.table.HAlign;
 import com.orsoncharts.android.table.TableElement;
@@ -121,6 +129,13 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
      */
     public static final float DEFAULT_PROJ_DIST = 1500f;
 
+    /** 
+     * The default level of detail for draft rendering.
+     * 
+     * @since 1.2
+     */
+    public static final double DEFAULT_DRAFT_LEVEL_OF_DETAIL = 0.25;
+
     /** A background rectangle painter, if any. */
     private RectanglePainter background;
     
@@ -167,6 +182,112 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
      * to disable this).
      */
     private boolean notify;
+
+    /** 
+     * The world (3D model) composed for the last frame, retained so that
+     * frames that only change the view point do not need to recompose the 
+     * plot (can be {@code null}).
+     */
+    private transient World world;
+
+    /** The chart box contained in the cached world ({@code null} for pies). */
+    private transient ChartBox3D chartBox;
+
+    /** The axis tick units used to compose the cached world. */
+    private transient double[] worldTickUnits;
+
+    /** 
+     * A flag that is set when a plot change event is received, indicating 
+     * that the cached world must be recomposed before the next frame.
+     */
+    private transient volatile boolean worldStale;
+
+    /** Sorts the faces of the world into paint order for each frame. */
+    private transient FaceSorter faceSorter;
+
+    /** 
+     * A flag that controls whether the chart is rendered in draft mode (with
+     * reduced detail, for fast rendering during user interaction).
+     */
+    private transient boolean draftMode;
+
+    /** The level of detail for the world composed in draft mode. */
+    private double draftLevelOfDetail;
+
+    /** 
+     * The reduced-detail world used in draft mode ({@code null} until it is
+     * first required).
+     */
+    private transient World draftWorld;
+
+    /** A flag indicating that the draft world must be recomposed. */
+    private transient volatile boolean draftWorldStale;
+
+    /** The indices of the faces that survive culling in the current frame. */
+    private transient int[] visibleFaces;
+
+    /** The number of faces culled in the most recent frame. */
+    private transient int culledFaceCount;
+
+    /** A path that is reused for each face that is drawn individually. */
+    private transient Path facePath;
+
+    /** 
+     * The vertex coordinates (packed as (x, y) pairs) for the triangles in
+     * the current batch of face fills. 
+     */
+    private transient float[] batchVertices;
+
+    /** The color for each vertex in the current batch of face fills. */
+    private transient int[] batchColors;
+
+    /** The number of values used in the <code>batchVertices</code> array. */
+    private transient int batchSize;
+
+    /** 
+     * The screen-space bins used to aggregate glyphs when the plot requests
+     * density binning.
+     */
+    private transient ScreenBins screenBins;
+
+    /** 
+     * The world containing the label anchors for a pie chart (rebuilt when 
+     * the plot changes rather than for every frame).
+     */
+    private transient World pieLabelWorld;
+
+    /** A flag that indicates that the pie label world needs rebuilding. */
+    private transient volatile boolean pieLabelWorldStale;
+
+    /** 
+     * Guards the projected frame state below, which is written by the 
+     * rendering thread and read by {@link #findItemAt(float, float)}.
+     */
+    private transient Object frameLock;
+
+    /** The faces painted in the most recent frame. */
+    private transient List<Face> frameFaces;
+
+    /** The paint order (back to front) for the most recent frame. */
+    private transient int[] framePaintOrder;
+
+    /** The number of faces painted in the most recent frame. */
+    private transient int framePaintCount;
+
+    /** The projected screen coordinates for the most recent frame. */
+    private transient float[] frameScreenCoords;
+
+    /** The eye coordinates for the most recent frame. */
+    private transient double[] frameEyeCoords;
+
+    /** The x-coordinate of the projection origin in the most recent frame. */
+    private transient float frameOriginX;
+
+    /** The y-coordinate of the projection origin in the most recent frame. */
+    private transient float frameOriginY;
+
+    /** A hit-testing index for the most recent frame (built on demand). */
+    private transient ScreenFaceIndex frameIndex;
   
     /**
      * Creates a 3D chart for the specified plot.
@@ -193,10 +314,18 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
         float distance = (float) dim.getDiagonalLength() * 3.0f;
         this.viewPoint = ViewPoint3D.createAboveViewPoint(distance);
         this.projDist = DEFAULT_PROJ_DIST;
+        this.draftLevelOfDetail = DEFAULT_DRAFT_LEVEL_OF_DETAIL;
         this.chartBoxColor = Color.WHITE;
         this.translate2D = new Offset2D();
         this.notify = true;
         this.listenerList = new ArrayList<Chart3DChangeListener>();
+        this.faceSorter = new FaceSorter();
+        this.visibleFaces = new int[0];
+        this.facePath = new Path();
+        this.batchVertices = new float[0];
+        this.batchColors = new int[0];
+        this.screenBins = new ScreenBins();
+        this.frameLock = new Object();
     }
 
     /**
@@ -351,6 +480,8 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
      */
     public void setChartBoxColor(int color) {
         this.chartBoxColor = color;
+        this.worldStale = true;
+        this.draftWorldStale = true;
         fireChangeEvent();
     }
     
@@ -412,6 +543,139 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
         this.projDist = dist;
     }
 
+    /**
+     * Returns the number of faces that were culled (because they were facing
+     * away from the viewer or were fully transparent, or were glyphs 
+     * aggregated into screen-space bins) before depth sorting in the most 
+     * recent call to {@link #draw(Canvas, Paint, RectF)}.  This is intended 
+     * for performance tuning.
+     * 
+     * @return The number of culled faces.
+     * 
+     * @since 1.2
+     */
+    public int getCulledFaceCount() {
+        return this.culledFaceCount;
+    }
+
+    /**
+     * Returns the key for the data item that is drawn at the specified 
+     * location in the most recent call to {@link #draw(Canvas, Paint, RectF)},
+     * or {@code null} if there is no data item at that location.  The 
+     * projected frame is reused, so this is cheap enough to call on every 
+     * touch event.  Faces that do not belong to a single data item (the chart
+     * box, surfaces) are ignored, as are glyphs that were aggregated into 
+     * screen-space bins.
+     * 
+     * @param x  the x-coordinate (in the coordinate space of the canvas that
+     *     the chart was last drawn to).
+     * @param y  the y-coordinate.
+     * 
+     * @return The item key (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public ItemKey findItemAt(float x, float y) {
+        synchronized (this.frameLock) {
+            if (this.frameFaces == null) {
+                return null;
+            }
+            if (this.frameIndex == null) {
+                this.frameIndex = new ScreenFaceIndex(this.frameFaces, 
+                        this.framePaintOrder, this.framePaintCount, 
+                        this.frameScreenCoords, this.frameEyeCoords, 
+                        this.projDist);
+            }
+            int faceIndex = this.frameIndex.findFaceAt(x - this.frameOriginX, 
+                    y - this.frameOriginY);
+            if (faceIndex < 0) {
+                return null;
+            }
+            Face f = this.frameFaces.get(faceIndex);
+            if (f.getItemKey() == null && this.plot instanceof XYZPlot) {
+                // xyz items are tagged with indices, the key is created here
+                return ((XYZPlot) this.plot).createItemKey(
+                        f.getItemSeries(), f.getItemIndex());
+            }
+            return f.getItemKey();
+        }
+    }
+
+    /**
+     * Returns the flag that controls whether or not the chart is rendered in
+     * draft mode.  The default value is {@code false}.
+     * 
+     * @return A boolean.
+     * 
+     * @see #setDraftMode(boolean) 
+     * 
+     * @since 1.2
+     */
+    public boolean isDraftMode() {
+        return this.draftMode;
+    }
+
+    /**
+     * Sets the flag that controls whether or not the chart is rendered in 
+     * draft mode, and sends a {@link Chart3DChangeEvent} to all registered
+     * listeners.  In draft mode, the gridlines, axes and pie section labels
+     * are not drawn and, if the plot's renderer supports it (see 
+     * {@link XYZPlot#isLevelOfDetailSupported()}), the chart is composed 
+     * with a reduced level of detail (see {@link #getDraftLevelOfDetail()}).
+     * Otherwise the full-detail world is drawn as it is.  This is intended 
+     * to be used while the user is rotating or zooming the chart, with full 
+     * detail restored when the gesture ends.  The full-detail world is 
+     * retained while in draft mode, so returning to full detail does not 
+     * require it to be recomposed (unless the chart has changed in the 
+     * meantime).
+     * 
+     * @param draft  the new flag value.
+     * 
+     * @since 1.2
+     */
+    public void setDraftMode(boolean draft) {
+        if (this.draftMode != draft) {
+            this.draftMode = draft;
+            if (!draft) {
+                this.draftWorld = null;
+            }
+            fireChangeEvent();
+        }
+    }
+
+    /**
+     * Returns the level of detail used to compose the chart in draft mode,
+     * for plots with a renderer that supports it.  The default value is 
+     * {@link #DEFAULT_DRAFT_LEVEL_OF_DETAIL}.
+     * 
+     * @return The level of detail (in the range 0 to 1).
+     * 
+     * @see World#setLevelOfDetail(double) 
+     * 
+     * @since 1.2
+     */
+    public double getDraftLevelOfDetail() {
+        return this.draftLevelOfDetail;
+    }
+
+    /**
+     * Sets the level of detail used to compose the chart in draft mode, and
+     * sends a {@link Chart3DChangeEvent} to all registered listeners.
+     * 
+     * @param lod  the level of detail (greater than 0 and not more than 1).
+     * 
+     * @since 1.2
+     */
+    public void setDraftLevelOfDetail(double lod) {
+        if (lod <= 0.0 || lod > 1.0) {
+            throw new IllegalArgumentException(
+                    "Requires 'lod' in the range (0, 1].");
+        }
+        this.draftLevelOfDetail = lod;
+        this.draftWorldStale = true;
+        fireChangeEvent();
+    }
+
     /**
      * Sets the offset in 2D-space for the rendering of the chart.  The 
      * default value is <code>(0, 0)</code> but the user can modify it via
@@ -542,9 +806,11 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
      * Creates a world containing the chart and the supplied chart box.
      * 
      * @param chartBox  the chart box ({@code null} permitted).
+     * @param lod  the level of detail for the world.
      */
-    private World createWorld(ChartBox3D chartBox) {
+    private World createWorld(ChartBox3D chartBox, double lod) {
         World world = new World();      
+        world.setLevelOfDetail(lod);
         Dimension3D dim = this.plot.getDimensions();
         double w = dim.getWidth();
         double h = dim.getHeight();
@@ -557,7 +823,11 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
     }
     
     /**
-     * Draws the chart to the specified output target.
+     * Draws the chart to the specified output target.  If the paint is not
+     * anti-aliased, or the chart is in draft mode (see 
+     * {@link #setDraftMode(boolean)}), the fills for faces without outlines
+     * are batched into a small number of <code>Canvas.drawVertices()</code>
+     * calls, which is faster for charts with many faces.
      * 
      * @param canvas  the output target. 
      * @param paint  the paint.
@@ -570,85 +840,163 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
         double w = dim3D.getWidth();
         double h = dim3D.getHeight();
         double depth = dim3D.getDepth();
-        ChartBox3D chartBox = null;
-        if (this.plot instanceof XYZPlot 
-                || this.plot instanceof CategoryPlot3D) {
-            double[] tickUnits = findAxisTickUnits(paint, w, h, depth);
-            List<TickData> xTicks = fetchXTickData(this.plot, tickUnits[0]);
-            List<TickData> yTicks = fetchYTickData(this.plot, tickUnits[1]);
-            List<TickData> zTicks = fetchZTickData(this.plot, tickUnits[2]);
-            chartBox = new ChartBox3D(w, h, depth, -w / 2, -h / 2, -depth / 2, 
-                    this.chartBoxColor, xTicks, yTicks, zTicks);
-        }
-        World world = createWorld(chartBox);
+        boolean draft = this.draftMode;
+        boolean hasAxes = this.plot instanceof XYZPlot 
+                || this.plot instanceof CategoryPlot3D;
+        World world;
+        ChartBox3D chartBox;
+        if (draft && this.plot instanceof XYZPlot 
+                && ((XYZPlot) this.plot).isLevelOfDetailSupported()) {
+            // the draft world has a chart box without ticks, since the 
+            // gridlines and axes are not drawn in draft mode
+            world = this.draftWorld;
+            chartBox = null;
+            if (world == null || this.draftWorldStale) {
+                this.draftWorldStale = false;
+                if (hasAxes) {
+                    chartBox = new ChartBox3D(w, h, depth, -w / 2, -h / 2, 
+                            -depth / 2, this.chartBoxColor);
+                }
+                world = createWorld(chartBox, this.draftLevelOfDetail);
+                this.draftWorld = world;
+            }
+        } else {
+            // a renderer that doesn't reduce its detail would compose the 
+            // same world again, so in draft mode the retained world is drawn
+            // without checking its tick units (the axes are not drawn)
+            this.draftWorld = null;
+            world = this.world;
+            chartBox = this.chartBox;
+            double[] tickUnits = this.worldTickUnits;
+            if (hasAxes && (!draft || world == null || this.worldStale)) {
+                tickUnits = findAxisTickUnits(paint, w, h, depth);
+            }
+            if (world == null || this.worldStale 
+                    || !Arrays.equals(tickUnits, this.worldTickUnits)) {
+                // clear the flag before composing, so that a change arriving 
+                // while we compose will trigger another recompose next frame
+                this.worldStale = false;
+                chartBox = null;
+                if (tickUnits != null) {
+                    List<TickData> xTicks = fetchXTickData(this.plot, 
+                            tickUnits[0]);
+                    List<TickData> yTicks = fetchYTickData(this.plot, 
+                            tickUnits[1]);
+                    List<TickData> zTicks = fetchZTickData(this.plot, 
+                            tickUnits[2]);
+                    chartBox = new ChartBox3D(w, h, depth, -w / 2, -h / 2, 
+                            -depth / 2, this.chartBoxColor, xTicks, yTicks, 
+                            zTicks);
+                }
+                world = createWorld(chartBox, 1.0);
+                this.world = world;
+                this.chartBox = chartBox;
+                this.worldTickUnits = tickUnits;
+            }
+        }
         if (this.background != null) {
             this.background.fill(canvas, paint, bounds);
         }
-        canvas.translate(bounds.width() / 2.0f + this.translate2D.getDX(), 
-                bounds.height() / 2.0f + this.translate2D.getDY());
-        Point3D[] eyePts = world.calculateEyeCoordinates(this.viewPoint);
-        Point2D[] pts = world.calculateProjectedPoints(this.viewPoint, 
-                this.projDist);
-        List<Face> facesInPaintOrder = new ArrayList<Face>(world.getFaces());
-
-        // sort faces by z-order
-        Collections.sort(facesInPaintOrder, new ZOrderComparator(eyePts));
-        for (Face f : facesInPaintOrder) {
-            boolean drawOutline = f.getOutline();
-            double[] plane = f.calculateNormal(eyePts);
-            double inprod = plane[0] * world.getSunX() + plane[1]
-                    * world.getSunY() + plane[2] * world.getSunZ();
-            double shade = (inprod + 1) / 2.0;
-            if (f instanceof DoubleSidedFace 
-                    || Utils2D.area2(pts[f.getVertexIndex(0)],
-                    pts[f.getVertexIndex(1)], pts[f.getVertexIndex(2)]) > 0) {
-                int c = f.getColor();
-                if (c != 0) {
-                    Path p = new Path();
-                    for (int v = 0; v < f.getVertexCount(); v++) {
-                        if (v == 0) {
-                            p.moveTo(pts[f.getVertexIndex(v)].getX(),
-                                    pts[f.getVertexIndex(v)].getY());
+        float originX = bounds.width() / 2.0f + this.translate2D.getDX();
+        float originY = bounds.height() / 2.0f + this.translate2D.getDY();
+        canvas.translate(originX, originY);
+        ScreenBins bins = prepareScreenBins(bounds);
+        float[] pts;
+        synchronized (this.frameLock) {
+            world.project(this.viewPoint, this.projDist);
+            double[] eyePts = world.getEyeCoordinates();
+            pts = world.getScreenCoordinates();
+            List<Face> faces = world.getFaces();
+
+            // cull faces that cannot be seen (aggregating glyphs into bins if 
+            // the plot requires it), then sort the rest by z-order
+            int visibleCount = cullFaces(faces, pts, bins);
+            int[] paintOrder = this.faceSorter.sort(faces, this.visibleFaces, 
+                    visibleCount, eyePts);
+
+            // keep the projected frame for hit-testing
+            this.frameFaces = faces;
+            this.framePaintOrder = paintOrder;
+            this.framePaintCount = visibleCount;
+            this.frameScreenCoords = pts;
+            this.frameEyeCoords = eyePts;
+            this.frameOriginX = originX;
+            this.frameOriginY = originY;
+            this.frameIndex = null;
+
+            int[] shadedColors = world.getShadedColors(this.viewPoint);
+            boolean batchFills = canBatchFills(canvas, paint, draft);
+            for (int k = 0; k < visibleCount; k++) {
+                int faceIndex = paintOrder[k];
+                Face f = faces.get(faceIndex);
+                if (f instanceof GlyphFace) {
+                    flushFillBatch(canvas, paint);
+                    GlyphFace gf = (GlyphFace) f;
+                    int v = gf.getVertexIndex(0);
+                    gf.draw(canvas, paint, pts[v * 2], pts[v * 2 + 1], 
+                            gf.getScreenSize(eyePts[v * 3 + 2], this.projDist), 
+                            gf.getColor());
+                    continue;
+                }
+                boolean drawOutline = f.getOutline();
+                int sc = shadedColors[faceIndex];
+                if (Color.alpha(sc) != 0) {
+                    if (batchFills && !drawOutline) {
+                        addToFillBatch(f, pts, sc);
+                    } else {
+                        flushFillBatch(canvas, paint);
+                        Path p = this.facePath;
+                        p.rewind();
+                        for (int v = 0; v < f.getVertexCount(); v++) {
+                            int i = f.getVertexIndex(v) * 2;
+                            if (v == 0) {
+                                p.moveTo(pts[i], pts[i + 1]);
+                            }
+                            else {
+                                p.lineTo(pts[i], pts[i + 1]);
+                            }
                         }
-                        else {
-                            p.lineTo(pts[f.getVertexIndex(v)].getX(),
-                                    pts[f.getVertexIndex(v)].getY());
+                        p.close();
+                        paint.setColor(sc);
+                        if (drawOutline) {
+                            paint.setStyle(Style.FILL_AND_STROKE);
+                        } else {
+                            paint.setStyle(Style.FILL);
                         }
+                        canvas.drawPath(p, paint);
                     }
-                    p.close();
-                    int sc = Color.argb(
-                            Color.alpha(c),
-                            (int) (Color.red(c) * shade), 
-                            (int) (Color.green(c) * shade), 
-                            (int) (Color.blue(c) * shade));
-                    paint.setColor(sc);
-                    if (drawOutline) {
-                        paint.setStyle(Style.FILL_AND_STROKE);
-                    } else {
-                        paint.setStyle(Style.FILL);
-                    }
-                    canvas.drawPath(p, paint);
                 }
-                
-                if (f instanceof CBFace && (this.plot instanceof CategoryPlot3D 
-                        || this.plot instanceof XYZPlot)) {
+                    
+                if (!draft && f instanceof CBFace && hasAxes) {
+                    flushFillBatch(canvas, paint);
                     //Stroke savedStroke = g2.getStroke();
                     CBFace cbf = (CBFace) f;
                     drawGridlines(canvas, paint, cbf, pts);
                     //g2.setStroke(savedStroke);
                 }
-            } 
+            }
+            flushFillBatch(canvas, paint);
+        }
+        if (bins != null) {
+            drawScreenBins(canvas, paint, bins, 
+                    ((XYZPlot) this.plot).getDensityColorScale());
         }
    
         // handle labels on pie plots...
-        if (this.plot instanceof PiePlot3D) {
+        if (!draft && this.plot instanceof PiePlot3D) {
             drawPieLabels(canvas, paint, w, h, depth);
         }
 
         // handle axis labelling on non-pie plots...
-        if (this.plot instanceof XYZPlot || this.plot instanceof 
-                CategoryPlot3D) {
-            drawAxes(canvas, paint, chartBox, pts);
+        if (!draft && hasAxes) {
+            // the chart box is the first object in the world, so its
+            // projected vertices are at the start of the screen coordinates
+            Point2D[] boxPts = new Point2D[
+                    chartBox.getObject3D().getVertexCount()];
+            for (int i = 0; i < boxPts.length; i++) {
+                boxPts[i] = new Point2D(pts[i * 2], pts[i * 2 + 1]);
+            }
+            drawAxes(canvas, paint, chartBox, boxPts);
         }    
 
         canvas.translate(-bounds.width() / 2.0f - this.translate2D.getDX(), 
@@ -755,15 +1103,185 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
         return Collections.emptyList(); 
     }
     
+    /**
+     * Returns the screen-space bins for aggregating glyphs in the current 
+     * frame, cleared and covering the specified bounds, or {@code null} if
+     * the plot does not request density binning.
+     * 
+     * @param bounds  the bounds.
+     * 
+     * @return The bins (possibly {@code null}). 
+     */
+    private ScreenBins prepareScreenBins(RectF bounds) {
+        if (!(this.plot instanceof XYZPlot)) {
+            return null;
+        }
+        double binSize = ((XYZPlot) this.plot).getDensityBinSize();
+        if (binSize <= 0.0 || bounds.width() <= 0f || bounds.height() <= 0f) {
+            return null;
+        }
+        // the screen coordinates are relative to the translated origin
+        float x = -bounds.width() / 2.0f - this.translate2D.getDX();
+        float y = -bounds.height() / 2.0f - this.translate2D.getDY();
+        this.screenBins.reset(x, y, bounds.width(), bounds.height(), 
+                (float) binSize);
+        return this.screenBins;
+    }
+
+    /**
+     * Draws one square for each occupied bin, colored according to the 
+     * number of glyphs in the bin.
+     * 
+     * @param canvas  the canvas.
+     * @param paint  the paint.
+     * @param bins  the bins.
+     * @param scale  the color scale.
+     */
+    private void drawScreenBins(Canvas canvas, Paint paint, ScreenBins bins, 
+            ColorScale scale) {
+        float size = bins.getBinSize();
+        paint.setStyle(Style.FILL);
+        for (int k = 0; k < bins.getOccupiedCount(); k++) {
+            int bin = bins.getOccupiedBin(k);
+            float x = bins.getBinX(bin);
+            float y = bins.getBinY(bin);
+            paint.setColor(scale.valueToColor(bins.getCount(bin)));
+            canvas.drawRect(x, y, x + size, y + size, paint);
+        }
+    }
+
+    /**
+     * Finds the faces that need to be drawn for the current frame, storing 
+     * their indices in the <code>visibleFaces</code> array.  Faces that are
+     * facing away from the viewer (unless they are double-sided) and faces 
+     * that are fully transparent are culled, except that chart box faces are
+     * kept when front-facing since the gridlines are drawn on them.  If 
+     * <code>bins</code> is not {@code null}, glyphs are counted into the 
+     * bins instead of being drawn individually.
+     * 
+     * @param faces  the faces.
+     * @param pts  the projected points, packed as (x, y) pairs.
+     * @param bins  the bins for aggregating glyphs ({@code null} permitted).
+     * 
+     * @return The number of faces to draw.
+     */
+    private int cullFaces(List<Face> faces, float[] pts, ScreenBins bins) {
+        int faceCount = faces.size();
+        if (this.visibleFaces.length < faceCount) {
+            this.visibleFaces = new int[faceCount];
+        }
+        int[] visible = this.visibleFaces;
+        int count = 0;
+        for (int i = 0; i < faceCount; i++) {
+            Face f = faces.get(i);
+            if (Color.alpha(f.getColor()) == 0 && !(f instanceof CBFace)) {
+                continue;
+            }
+            if (bins != null && f instanceof GlyphFace) {
+                int v = f.getVertexIndex(0) * 2;
+                bins.add(pts[v], pts[v + 1]);
+                continue;
+            }
+            if (f instanceof DoubleSidedFace || f.isFrontFacing(pts)) {
+                visible[count++] = i;
+            }
+        }
+        this.culledFaceCount = faceCount - count;
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if face fills can be batched into 
+     * <code>Canvas.drawVertices()</code> calls for the specified canvas and
+     * paint, and {@code false} otherwise.  <code>drawVertices()</code> 
+     * ignores the paint's anti-alias flag, so for full-detail frames 
+     * batching is only used when the paint is not anti-aliased (otherwise 
+     * the face edges would come out jagged).  Draft frames are only shown 
+     * while the chart is moving, so jagged edges are acceptable there.  
+     * Hardware accelerated canvases only support 
+     * <code>drawVertices()</code> from API level 29.
+     * 
+     * @param canvas  the canvas.
+     * @param paint  the paint.
+     * @param draft  a flag indicating whether this is a draft frame.
+     * 
+     * @return A boolean. 
+     */
+    private static boolean canBatchFills(Canvas canvas, Paint paint, 
+            boolean draft) {
+        if (paint.isAntiAlias() && !draft) {
+            return false;
+        }
+        return !canvas.isHardwareAccelerated() 
+                || Build.VERSION.SDK_INT >= 29;  // Build.VERSION_CODES.Q
+    }
+
+    /**
+     * Adds the fill for a face (as a fan of triangles) to the current batch.
+     * 
+     * @param f  the face.
+     * @param pts  the projected points, packed as (x, y) pairs.
+     * @param color  the fill color (including shading).
+     */
+    private void addToFillBatch(Face f, float[] pts, int color) {
+        int vertexCount = f.getVertexCount();
+        int required = this.batchSize + (vertexCount - 2) * 6;
+        if (this.batchVertices.length < required) {
+            int capacity = Math.max(required, this.batchVertices.length * 2);
+            this.batchVertices = Arrays.copyOf(this.batchVertices, capacity);
+            // allow one color per value, since some Android releases check
+            // the colors array against the number of values
+            this.batchColors = Arrays.copyOf(this.batchColors, capacity);
+        }
+        float[] b = this.batchVertices;
+        int[] colors = this.batchColors;
+        int n = this.batchSize;
+        int i0 = f.getVertexIndex(0) * 2;
+        for (int v = 2; v < vertexCount; v++) {
+            int i1 = f.getVertexIndex(v - 1) * 2;
+            int i2 = f.getVertexIndex(v) * 2;
+            colors[n / 2] = color;
+            b[n++] = pts[i0];
+            b[n++] = pts[i0 + 1];
+            colors[n / 2] = color;
+            b[n++] = pts[i1];
+            b[n++] = pts[i1 + 1];
+            colors[n / 2] = color;
+            b[n++] = pts[i2];
+            b[n++] = pts[i2 + 1];
+        }
+        this.batchSize = n;
+    }
+
+    /**
+     * Draws the face fills in the current batch (if any) with a single call
+     * to <code>Canvas.drawVertices()</code>, then clears the batch.
+     * 
+     * @param canvas  the canvas.
+     * @param paint  the paint.
+     */
+    private void flushFillBatch(Canvas canvas, Paint paint) {
+        if (this.batchSize == 0) {
+            return;
+        }
+        // the vertex colors are modulated by the paint color, so use white
+        paint.setColor(Color.WHITE);
+        paint.setStyle(Style.FILL);
+        canvas.drawVertices(VertexMode.TRIANGLES, this.batchSize, 
+                this.batchVertices, 0, null, 0, this.batchColors, 0, null, 0, 
+                0, paint);
+        this.batchSize = 0;
+    }
+
     /**
      * Draw the gridlines for one chart box face.
      * 
      * @param canvas  the graphics target.
      * @param face  the face.
-     * @param pts  the projection points.
+     * @param pts  the projected points, packed as (x, y) pairs.
      */
     private void drawGridlines(Canvas canvas, Paint paint, CBFace face, 
-            Point2D[] pts) {
+            float[] pts) {
         if (isGridlinesVisibleForX(this.plot)) {
             paint.setColor(fetchGridlinePaintX(this.plot));
             LineStyle ls = fetchGridlineStrokeX(this.plot);
@@ -771,9 +1289,9 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
             List<TickData> xA = face.getXTicksA();
             List<TickData> xB = face.getXTicksB();
             for (int i = 0; i < xA.size(); i++) {
-                Point2D pt1 = pts[face.getOffset() + xA.get(i).getVertexIndex()];
-                Point2D pt2 = pts[face.getOffset() + xB.get(i).getVertexIndex()];
-                canvas.drawLine(pt1.getX(), pt1.getY(), pt2.getX(), pt2.getY(), 
+                int i1 = (face.getOffset() + xA.get(i).getVertexIndex()) * 2;
+                int i2 = (face.getOffset() + xB.get(i).getVertexIndex()) * 2;
+                canvas.drawLine(pts[i1], pts[i1 + 1], pts[i2], pts[i2 + 1], 
                         paint);
             }
         }
@@ -785,9 +1303,9 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
             List<TickData> yA = face.getYTicksA();
             List<TickData> yB = face.getYTicksB();
             for (int i = 0; i < yA.size(); i++) {
-                Point2D pt1 = pts[face.getOffset() + yA.get(i).getVertexIndex()];
-                Point2D pt2 = pts[face.getOffset() + yB.get(i).getVertexIndex()];
-                canvas.drawLine(pt1.getX(), pt1.getY(), pt2.getX(), pt2.getY(), 
+                int i1 = (face.getOffset() + yA.get(i).getVertexIndex()) * 2;
+                int i2 = (face.getOffset() + yB.get(i).getVertexIndex()) * 2;
+                canvas.drawLine(pts[i1], pts[i1 + 1], pts[i2], pts[i2 + 1], 
                         paint);
             }
         }
@@ -799,9 +1317,9 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
             List<TickData> zA = face.getZTicksA();
             List<TickData> zB = face.getZTicksB();
             for (int i = 0; i < zA.size(); i++) {
-                Point2D pt1 = pts[face.getOffset() + zA.get(i).getVertexIndex()];
-                Point2D pt2 = pts[face.getOffset() + zB.get(i).getVertexIndex()];
-                canvas.drawLine(pt1.getX(), pt1.getY(), pt2.getX(), pt2.getY(), 
+                int i1 = (face.getOffset() + zA.get(i).getVertexIndex()) * 2;
+                int i2 = (face.getOffset() + zB.get(i).getVertexIndex()) * 2;
+                canvas.drawLine(pts[i1], pts[i1 + 1], pts[i2], pts[i2 + 1], 
                         paint);
             }
         }
@@ -992,9 +1510,9 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
     }
     
     /**
-     * Draws the pie labels for a {@link PiePlot3D} in 2D-space by creating a 
-     * temporary world with vertices at anchor points for the labels, then 
-     * projecting the points to 2D-space.
+     * Draws the pie labels for a {@link PiePlot3D} in 2D-space by projecting
+     * a world with vertices at anchor points for the labels (the world is 
+     * cached until the plot changes).
      * 
      * @param g2  the graphics target.
      * @param w  the width.
@@ -1004,10 +1522,12 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
     private void drawPieLabels(Canvas canvas, Paint paint, double w, double h, 
             double depth) {
         PiePlot3D p = (PiePlot3D) this.plot;
-        World labelOverlay = new World();
-        List<Object3D> objs = p.getLabelFaces(-w / 2, -h / 2, -depth / 2);
-        for (Object3D obj : objs) {
-            labelOverlay.add(obj);
+        World labelOverlay = this.pieLabelWorld;
+        if (labelOverlay == null || this.pieLabelWorldStale) {
+            this.pieLabelWorldStale = false;
+            labelOverlay = new World();
+            labelOverlay.addAll(p.getLabelFaces(-w / 2, -h / 2, -depth / 2));
+            this.pieLabelWorld = labelOverlay;
         }
         Point2D[] ppts = labelOverlay.calculateProjectedPoints(this.viewPoint, 
                 this.projDist);
@@ -1408,14 +1928,17 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
     }
     
     /**
-     * Receives notification of a plot change event, refreshes the 3D model 
-     * (world) and passes the event on, wrapped in a {@link Chart3DChangeEvent},
-     * to all registered listeners.
+     * Receives notification of a plot change event, marks the 3D model 
+     * (world) for refreshing and passes the event on, wrapped in a 
+     * {@link Chart3DChangeEvent}, to all registered listeners.
      * 
      * @param event  the plot change event. 
      */
     @Override
     public void plotChanged(Plot3DChangeEvent event) {
+        this.worldStale = true;
+        this.draftWorldStale = true;
+        this.pieLabelWorldStale = true;
         notifyListeners(new Chart3DChangeEvent(event, this));
     }
 
@@ -1489,4 +2012,29 @@ public class Chart3D implements Drawable3D, Plot3DChangeListener, Serializable {
         notifyListeners(new Chart3DChangeEvent(this, this));
     }
 
+    /**
+     * Provides serialization support.
+     *
+     * @param stream  the input stream.
+     *
+     * @throws IOException  if there is an I/O error.
+     * @throws ClassNotFoundException  if there is a classpath problem.
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        // recreate an empty listener list and the rendering workspace
+        this.listenerList = new ArrayList<Chart3DChangeListener>();
+        this.faceSorter = new FaceSorter();
+        this.visibleFaces = new int[0];
+        this.facePath = new Path();
+        this.batchVertices = new float[0];
+        this.batchColors = new int[0];
+        this.screenBins = new ScreenBins();
+        this.frameLock = new Object();
+        if (this.draftLevelOfDetail <= 0.0) {  // serialized before 1.2
+            this.draftLevelOfDetail = DEFAULT_DRAFT_LEVEL_OF_DETAIL;
+        }
+    }
+
 }
@@ -0,0 +1,335 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+
+package com.orsoncharts.android;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.Choreographer;
+
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * A render loop that repaints a chart on a dedicated background thread.  
+ * Repaint requests are coalesced, so that however many requests arrive 
+ * (for example, from a stream of touch events) at most one frame is 
+ * rendered per display refresh.  On API level 16 and later the frames are 
+ * synchronised with the display via a <code>Choreographer</code>, on earlier
+ * releases they are timed with a <code>Handler</code>.
+ * <br><br>
+ * The loop also keeps count of the frames rendered and the frames dropped 
+ * (the number of frame intervals, at the target frame rate, that were 
+ * overrun by slow frames), which is useful for tuning.
+ * 
+ * @since 1.2
+ */
+public class ChartRenderLoop {
+
+    /** The default target frame rate (in frames per second). */
+    public static final int DEFAULT_TARGET_FRAME_RATE = 60;
+
+    /** The code that renders one frame. */
+    private Runnable renderer;
+
+    /** The target frame rate (in frames per second). */
+    private volatile int targetFrameRate;
+
+    /** The render thread ({@code null} when the loop is not running). */
+    private HandlerThread thread;
+
+    /** A handler for the render thread ({@code null} when not running). */
+    private volatile Handler handler;
+
+    /** Schedules frames (accessed on the render thread only). */
+    private FrameScheduler scheduler;
+
+    /** A flag that is set when a frame has been requested but not started. */
+    private AtomicBoolean renderPending;
+
+    /** The time that the last frame started (in nanoseconds). */
+    private long lastFrameNanos;
+
+    /** The number of frames rendered. */
+    private volatile long frameCount;
+
+    /** The number of frames dropped. */
+    private volatile long droppedFrameCount;
+
+    /** Schedules the next frame (runs on the render thread). */
+    private Runnable scheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            scheduler.postFrame();
+        }
+    };
+
+    /**
+     * Creates a new render loop.  The loop does not render anything until 
+     * it is started.
+     * 
+     * @param renderer  the code that renders one frame ({@code null} not 
+     *     permitted).
+     */
+    public ChartRenderLoop(Runnable renderer) {
+        ArgChecks.nullNotPermitted(renderer, "renderer");
+        this.renderer = renderer;
+        this.targetFrameRate = DEFAULT_TARGET_FRAME_RATE;
+        this.renderPending = new AtomicBoolean();
+    }
+
+    /**
+     * Returns the target frame rate.  The default value is 
+     * {@link #DEFAULT_TARGET_FRAME_RATE}.
+     * 
+     * @return The target frame rate (in frames per second).
+     */
+    public int getTargetFrameRate() {
+        return this.targetFrameRate;
+    }
+
+    /**
+     * Sets the target frame rate.  This is the maximum rate at which frames
+     * are rendered (when synchronised with the display, frames are rendered
+     * on the nearest display refresh).  Setting a rate lower than the display
+     * refresh rate reduces the CPU load while the chart is being rotated.
+     * 
+     * @param fps  the target frame rate (in frames per second, must be 
+     *     positive).
+     */
+    public void setTargetFrameRate(int fps) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("Requires 'fps' > 0.");
+        }
+        this.targetFrameRate = fps;
+    }
+
+    /**
+     * Returns the number of frames that have been rendered.
+     * 
+     * @return The frame count.
+     */
+    public long getFrameCount() {
+        return this.frameCount;
+    }
+
+    /**
+     * Returns the number of frames that have been dropped, that is, the
+     * number of frame intervals (at the target frame rate) that were 
+     * overrun by frames that took too long to render.
+     * 
+     * @return The dropped frame count.
+     */
+    public long getDroppedFrameCount() {
+        return this.droppedFrameCount;
+    }
+
+    /**
+     * Resets the frame counters to zero.
+     */
+    public void resetCounters() {
+        this.frameCount = 0;
+        this.droppedFrameCount = 0;
+    }
+
+    /**
+     * Returns {@code true} if the render loop is running, and {@code false}
+     * otherwise.
+     * 
+     * @return A boolean.
+     */
+    public synchronized boolean isRunning() {
+        return this.thread != null;
+    }
+
+    /**
+     * Starts the render thread.  If the loop is already running, this method
+     * does nothing.
+     */
+    public synchronized void start() {
+        if (this.thread != null) {
+            return;
+        }
+        this.renderPending.set(false);
+        this.lastFrameNanos = 0L;
+        this.thread = new HandlerThread("ChartRenderLoop", 
+                Process.THREAD_PRIORITY_DISPLAY);
+        this.thread.start();
+        Handler h = new Handler(this.thread.getLooper());
+        // the scheduler must be created on the render thread, since a 
+        // Choreographer is bound to the thread that obtains it
+        h.post(new Runnable() {
+            @Override
+            public void run() {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                    scheduler = new ChoreographerScheduler();
+                } else {
+                    scheduler = new HandlerScheduler();
+                }
+            }
+        });
+        this.handler = h;
+    }
+
+    /**
+     * Stops the render thread, waiting for a frame that is in progress to 
+     * complete.  Any pending frame is discarded.  If the loop is not 
+     * running, this method does nothing.
+     */
+    public synchronized void stop() {
+        if (this.thread == null) {
+            return;
+        }
+        this.handler = null;
+        this.thread.quit();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.thread = null;
+    }
+
+    /**
+     * Requests that a frame be rendered.  This method can be called from 
+     * any thread, and if a frame has already been requested and has not yet
+     * started, the requests are combined.
+     */
+    public void requestRender() {
+        Handler h = this.handler;
+        if (h == null) {
+            return;
+        }
+        if (this.renderPending.compareAndSet(false, true)) {
+            h.post(this.scheduleFrame);
+        }
+    }
+
+    /**
+     * Renders a frame, unless the frame comes too soon after the previous 
+     * one for the target frame rate, in which case the frame is rescheduled.
+     * This method is called on the render thread.
+     * 
+     * @param frameTimeNanos  the frame time (on the 
+     *     <code>System.nanoTime()</code> time base).
+     */
+    void doFrame(long frameTimeNanos) {
+        long interval = 1000000000L / this.targetFrameRate;
+        // allow for jitter in the display refresh timing
+        if (this.lastFrameNanos != 0L 
+                && frameTimeNanos - this.lastFrameNanos < interval * 3 / 4) {
+            this.scheduler.postFrame();
+            return;
+        }
+        // clear the flag before rendering, so that a request that arrives 
+        // during rendering will schedule another frame
+        this.renderPending.set(false);
+        this.lastFrameNanos = frameTimeNanos;
+        long start = System.nanoTime();
+        this.renderer.run();
+        long elapsed = System.nanoTime() - start;
+        this.frameCount++;
+        if (elapsed > interval) {
+            this.droppedFrameCount += elapsed / interval;
+        }
+    }
+
+    /**
+     * An object that schedules a call to {@link #doFrame(long)} on the 
+     * render thread.
+     */
+    private interface FrameScheduler {
+
+        /**
+         * Schedules the next frame.
+         */
+        void postFrame();
+
+    }
+
+    /**
+     * A frame scheduler that uses the display vsync signal (requires API 
+     * level 16).
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private final class ChoreographerScheduler implements FrameScheduler, 
+            Choreographer.FrameCallback {
+
+        /** The choreographer for the render thread. */
+        private Choreographer choreographer = Choreographer.getInstance();
+
+        @Override
+        public void postFrame() {
+            this.choreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            ChartRenderLoop.this.doFrame(frameTimeNanos);
+        }
+
+    }
+
+    /**
+     * A frame scheduler that uses a handler to space frames at the target 
+     * frame rate (for releases prior to API level 16).
+     */
+    private final class HandlerScheduler implements FrameScheduler, Runnable {
+
+        @Override
+        public void postFrame() {
+            Handler h = handler;
+            if (h == null) {
+                return;
+            }
+            long interval = 1000000000L / targetFrameRate;
+            long delay = 0L;
+            if (lastFrameNanos != 0L) {
+                delay = Math.max(0L, lastFrameNanos + interval 
+                        - System.nanoTime()) / 1000000L;
+            }
+            h.postDelayed(this, delay);
+        }
+
+        @Override
+        public void run() {
+            doFrame(System.nanoTime());
+        }
+
+    }
+
+}
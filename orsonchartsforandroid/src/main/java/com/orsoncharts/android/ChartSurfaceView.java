@@ -32,10 +32,6 @@
 
 package com.orsoncharts.android;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
@@ -44,6 +40,7 @@ import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
+import android.view.ViewConfiguration;
 
 import com.orsoncharts.android.demo.PieChartDemo1;
 import com.orsoncharts.android.graphics3d.Dimension2D;
@@ -79,18 +76,35 @@ public class ChartSurfaceView extends SurfaceView
 
     /** Coordinates of the last motion event ACTION_DOWN. */
     private float lastX, lastY;
+
+    /** Coordinates of the ACTION_DOWN event for the current gesture. */
+    private float downX, downY;
+
+    /** 
+     * The distance (in pixels) a touch can move before it is treated as a 
+     * drag rather than a tap.
+     */
+    private int touchSlop;
+
+    /** 
+     * A flag that records whether draft mode was switched on for the 
+     * current gesture (so that a tap does not flicker to a draft frame).
+     */
+    private boolean draftGesture;
     
     private ScaleAndRotateHandler scaleAndRotateHandler;
-    
-    /** An executor service that executes chart repaints. */
-    private ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /** 
+     * A flag that controls whether the chart is rendered in draft mode 
+     * while the user is dragging or pinching.
+     */
+    private boolean draftDuringGestures;
     
     /** 
-     * The last repaint submitted to the executor...when the next repaint is
-     * triggered, we can try to cancel this one (if it hasn't started yet, 
-     * there's no point running it).
+     * The render loop that repaints the chart on a background thread (at 
+     * most once per display frame).
      */
-    private Future<?> lastFuture;
+    private ChartRenderLoop renderLoop;
 
     /**
      * Creates a new instance.
@@ -141,6 +155,10 @@ public class ChartSurfaceView extends SurfaceView
         this.chart.getViewPoint().setRho(16);
         this.chart.addChangeListener(this);
         this.scaleAndRotateHandler = new ScaleAndRotateHandler();
+        this.draftDuringGestures = true;
+        this.touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        this.renderLoop = new ChartRenderLoop(new ChartRepainter(getHolder(), 
+                this));
     }
     
     /**
@@ -159,6 +177,10 @@ public class ChartSurfaceView extends SurfaceView
      */
     public void setChart(Chart3D chart) {
         this.chart.removeChangeListener(this);
+        if (this.draftGesture) {
+            this.draftGesture = false;
+            this.chart.setDraftMode(false);
+        }
         this.chart = chart;
         this.chart.addChangeListener(this);
         this.minViewingDistance 
@@ -168,6 +190,47 @@ public class ChartSurfaceView extends SurfaceView
         submitChartRedraw();
     }
     
+    /**
+     * Returns the render loop that repaints the chart.  This can be used to 
+     * set the target frame rate and to read the frame counters.
+     * 
+     * @return The render loop (never {@code null}).
+     * 
+     * @since 1.2
+     */
+    public ChartRenderLoop getRenderLoop() {
+        return this.renderLoop;
+    }
+    
+    /**
+     * Returns the flag that controls whether or not the chart is rendered in
+     * draft mode (see {@link Chart3D#setDraftMode(boolean)}) while the user
+     * is dragging or pinching.  The default value is {@code true}.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.2
+     */
+    public boolean getDraftDuringGestures() {
+        return this.draftDuringGestures;
+    }
+    
+    /**
+     * Sets the flag that controls whether or not the chart is rendered in
+     * draft mode while the user is dragging or pinching.  Draft mode keeps
+     * the interaction responsive for charts that are slow to render in full
+     * detail, which is restored when the gesture ends.  A tap (a touch that
+     * does not move past the system touch slop) does not switch to draft 
+     * mode.
+     * 
+     * @param draft  the new flag value.
+     * 
+     * @since 1.2
+     */
+    public void setDraftDuringGestures(boolean draft) {
+        this.draftDuringGestures = draft;
+    }
+    
     /**
      * Returns the minimum viewing distance.
      * 
@@ -218,13 +281,14 @@ public class ChartSurfaceView extends SurfaceView
     } 
     
     /**
-     * Sets the <code>surfaceExists</code> flag.
+     * Sets the <code>surfaceExists</code> flag and starts the render loop.
      * 
      * @param holder  ignored.
      */
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
         this.surfaceExists = true;
+        this.renderLoop.start();
     }
 
     /**
@@ -242,13 +306,16 @@ public class ChartSurfaceView extends SurfaceView
     }
 
     /**
-     * Receives notification that the surface has been destroyed.
+     * Receives notification that the surface has been destroyed and stops 
+     * the render loop (waiting for any frame in progress to complete, since
+     * the surface must not be drawn after this method returns).
      * 
      * @param holder  ignored.
      */
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
         this.surfaceExists = false;
+        this.renderLoop.stop();
     }
 
     /**
@@ -263,24 +330,21 @@ public class ChartSurfaceView extends SurfaceView
     }
     
     /**
-     * Submits a chart repaint to the executor service.  If the previous
-     * repaint is still pending, it is cancelled.
+     * Requests a chart repaint from the render loop.  Requests that arrive
+     * before the next frame starts are combined into a single repaint.
      */
     private void submitChartRedraw() {
         if (!this.surfaceExists) {
             return;
         }
-        ChartRepainter t = new ChartRepainter(getHolder(), this);
-        if (this.lastFuture != null) {
-            this.lastFuture.cancel(false);
-        }
-        this.lastFuture = this.executor.submit(t);
+        this.renderLoop.requestRender();
     }
     
     @Override
     public boolean onTouchEvent(MotionEvent event)  {
         this.scaleAndRotateHandler.update(event);
         if (this.scaleAndRotateHandler.getTrackingCount() == 2) {
+            startDraftGesture();
             double distance = this.chart.getViewPoint().getRho();
             distance = distance 
                     * 1 / this.scaleAndRotateHandler.getPinchScaleFactor();
@@ -300,9 +364,16 @@ public class ChartSurfaceView extends SurfaceView
             case MotionEvent.ACTION_DOWN: {
                 this.lastX = event.getX();
                 this.lastY = event.getY();
+                this.downX = this.lastX;
+                this.downY = this.lastY;
                 return true;
             }
             case MotionEvent.ACTION_MOVE: {
+                if (Math.abs(event.getX() - this.downX) > this.touchSlop
+                        || Math.abs(event.getY() - this.downY) 
+                        > this.touchSlop) {
+                    startDraftGesture();
+                }
                 int historySize = event.getHistorySize();
                 this.chart.setNotify(false);
                 for (int i = 0; i < historySize; i++) {
@@ -313,7 +384,13 @@ public class ChartSurfaceView extends SurfaceView
                 this.chart.setNotify(true);
                 return true;
             }
-            case MotionEvent.ACTION_UP: {
+            case MotionEvent.ACTION_UP: 
+            case MotionEvent.ACTION_CANCEL: {
+                // restore full detail (this triggers a repaint)
+                if (this.draftGesture) {
+                    this.draftGesture = false;
+                    this.chart.setDraftMode(false);
+                }
                 invalidate();
                 return true;
             }
@@ -322,6 +399,19 @@ public class ChartSurfaceView extends SurfaceView
         return super.onTouchEvent(event);
     }
 
+    /**
+     * Switches the chart to draft mode for the rest of the current gesture,
+     * if draft rendering during gestures is enabled.  This is called once 
+     * the touch has moved past the touch slop or a pinch has started, so a
+     * plain tap is always rendered at full detail.
+     */
+    private void startDraftGesture() {
+        if (this.draftDuringGestures && !this.draftGesture) {
+            this.draftGesture = true;
+            this.chart.setDraftMode(true);
+        }
+    }
+
     private void processMovement(float x, float y) {
         if (Float.isNaN(this.lastX) || Float.isNaN(this.lastY)) {
             return;
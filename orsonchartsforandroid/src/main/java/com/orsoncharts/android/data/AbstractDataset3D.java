@@ -51,12 +51,19 @@ public class AbstractDataset3D implements Dataset3D {
      */
     private boolean notify;
 
+    /** 
+     * A counter that is incremented every time the dataset reports a change
+     * (see {@link #getVersion()}).
+     */
+    private transient int version;
+
     /**
      * Default constructor - allocates storage for listeners that can
      * be registered with the dataset.
      */
     protected AbstractDataset3D() {
         this.listenerList = new ArrayList<Dataset3DChangeListener>();  
+        this.notify = true;
     }
   
     /**
@@ -87,6 +94,20 @@ public class AbstractDataset3D implements Dataset3D {
         }
     }
 
+    /**
+     * Returns the dataset version, a counter that is incremented every time 
+     * the dataset reports a change (whether or not listeners are notified).
+     * This allows results computed from the dataset to be cached and reused 
+     * until the next change.
+     * 
+     * @return The version.
+     * 
+     * @since 1.2
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
     /**
      * Registers an object to receive notification of changes to the dataset.
      *
@@ -150,6 +171,7 @@ public class AbstractDataset3D implements Dataset3D {
      * @see #removeChangeListener(Dataset3DChangeListener)
      */
     protected void notifyListeners(Dataset3DChangeEvent event) {
+        this.version++;
         // if the 'notify' flag has been switched to false, we don't notify
         // the listeners
         if (!this.notify) {
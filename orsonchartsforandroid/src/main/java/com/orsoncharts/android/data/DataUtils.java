@@ -34,6 +34,7 @@ package com.orsoncharts.android.data;
 
 import com.orsoncharts.android.Range;
 import com.orsoncharts.android.data.xyz.XYZDataset;
+import com.orsoncharts.android.data.xyz.XYZRangeInfo;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
@@ -294,6 +295,9 @@ public class DataUtils {
     public static Range findValueRange(Values3D<? extends Number> data, 
             double base) {
         ArgChecks.nullNotPermitted(data, "data");
+        if (data instanceof ValueRangeInfo) {
+            return include(((ValueRangeInfo) data).getValueRange(), base);
+        }
         double min = Double.POSITIVE_INFINITY;
         double max = Double.NEGATIVE_INFINITY;
         for (int series = 0; series < data.getSeriesCount(); series++) {
@@ -343,22 +347,7 @@ public class DataUtils {
     public static Range findStackedValueRange(Values3D<? extends Number> data, 
             double base) {
         ArgChecks.nullNotPermitted(data, "data");
-        double min = base;
-        double max = base;
-        int seriesCount = data.getSeriesCount();
-        for (int row = 0; row < data.getRowCount(); row++) {
-            for (int col = 0; col < data.getColumnCount(); col++) {
-                double[] total = stackSubTotal(data, base, seriesCount, row, 
-                        col);
-                min = Math.min(min, total[0]);
-                max = Math.max(max, total[1]);
-            }
-        }
-        if (min <= max) {
-            return new Range(min, max);
-        } else {
-            return null;
-        }        
+        return new StackedValuesTable(data).findRange(base);
     }
     
     /**
@@ -366,7 +355,9 @@ public class DataUtils {
      * series preceding the specified series.  
      * <br><br>
      * One application for this method is to compute the base values for 
-     * individual bars in a stacked bar chart.
+     * individual bars in a stacked bar chart.  When subtotals are required 
+     * for many items, it is more efficient to create a 
+     * {@link StackedValuesTable}.
      * 
      * @param data  the data ({@code null} not permitted).
      * @param base  the initial base value (normally <code>0.0</code>, but the 
@@ -389,7 +380,7 @@ public class DataUtils {
             if (v > 0.0) {
                 pos = pos + v;
             } else if (v < 0.0) {
-                neg = neg - v;
+                neg = neg + v;
             }
         }
         return new double[] { neg, pos };
@@ -448,6 +439,9 @@ public class DataUtils {
      */
     public static Range findXRange(XYZDataset dataset, double inc) {
         ArgChecks.nullNotPermitted(dataset, "dataset");
+        if (dataset instanceof XYZRangeInfo) {
+            return include(((XYZRangeInfo) dataset).getXRange(), inc);
+        }
         double min = Double.POSITIVE_INFINITY;
         double max = Double.NEGATIVE_INFINITY;
         for (int s = 0; s < dataset.getSeriesCount(); s++) {
@@ -493,6 +487,9 @@ public class DataUtils {
      */
     public static Range findYRange(XYZDataset dataset, double inc) {
         ArgChecks.nullNotPermitted(dataset, "dataset");
+        if (dataset instanceof XYZRangeInfo) {
+            return include(((XYZRangeInfo) dataset).getYRange(), inc);
+        }
         double min = Double.POSITIVE_INFINITY;
         double max = Double.NEGATIVE_INFINITY;
         for (int s = 0; s < dataset.getSeriesCount(); s++) {
@@ -538,6 +535,9 @@ public class DataUtils {
      */
     public static Range findZRange(XYZDataset dataset, double inc) {
         ArgChecks.nullNotPermitted(dataset, "dataset");
+        if (dataset instanceof XYZRangeInfo) {
+            return include(((XYZRangeInfo) dataset).getZRange(), inc);
+        }
         double min = Double.POSITIVE_INFINITY;
         double max = Double.NEGATIVE_INFINITY;
         for (int s = 0; s < dataset.getSeriesCount(); s++) {
@@ -559,5 +559,26 @@ public class DataUtils {
             return null;
         }        
     }
- 
+
+    /**
+     * Returns a range that is the specified range expanded, if necessary, to
+     * include the specified value.
+     * 
+     * @param range  the range ({@code null} permitted).
+     * @param value  the value to include (ignored if it is 
+     *     <code>Double.NaN</code>).
+     * 
+     * @return The range (possibly {@code null}). 
+     */
+    private static Range include(Range range, double value) {
+        if (Double.isNaN(value)) {
+            return range;
+        }
+        if (range == null) {
+            return new Range(value, value);
+        }
+        return new Range(Math.min(range.getMin(), value), 
+                Math.max(range.getMax(), value));
+    }
+
 }
@@ -34,7 +34,9 @@ package com.orsoncharts.android.data;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
@@ -47,6 +49,12 @@ public final class DefaultKeyedValues<T> implements KeyedValues<T>,
 
     /** Storage for the data items. */
     private List<KeyedValue<T>> data;
+
+    /** 
+     * The index of each key in the data list, for fast key lookups.  This is
+     * built when it is first needed ({@code null} until then).
+     */
+    private transient Map<Comparable<?>, Integer> indices;
   
     /**
      * Creates a new (empty) list of keyed values.
@@ -76,6 +84,7 @@ public final class DefaultKeyedValues<T> implements KeyedValues<T>,
      */
     public void clear() {
         this.data.clear();
+        this.indices = null;
     }
  
     /**
@@ -93,8 +102,32 @@ public final class DefaultKeyedValues<T> implements KeyedValues<T>,
             dkv = (DefaultKeyedValue<T>) this.data.get(index);
             dkv.setValue(value);
         } else {
-            this.data.add(new DefaultKeyedValue<T>(key, value));
+            add(key, value);
+        }
+    }
+
+    /**
+     * Adds a new item with the specified key, which the caller guarantees is
+     * not already present.
+     * 
+     * @param key  the key.
+     * @param value  the value ({@code null} permitted).
+     */
+    void add(Comparable<?> key, T value) {
+        if (this.indices != null) {
+            this.indices.put(key, this.data.size());
         }
+        this.data.add(new DefaultKeyedValue<T>(key, value));
+    }
+
+    /**
+     * Sets the value for the item with the specified index.
+     * 
+     * @param index  the item index.
+     * @param value  the value ({@code null} permitted).
+     */
+    void setValue(int index, T value) {
+        ((DefaultKeyedValue<T>) this.data.get(index)).setValue(value);
     }
   
     /**
@@ -117,6 +150,7 @@ public final class DefaultKeyedValues<T> implements KeyedValues<T>,
      */
     public void remove(int index) {
         this.data.remove(index);
+        this.indices = null;
     }
   
     /**
@@ -143,13 +177,16 @@ public final class DefaultKeyedValues<T> implements KeyedValues<T>,
     @Override
     public int getIndex(Comparable<?> key) {
         ArgChecks.nullNotPermitted(key, "key");
-        for (int i = 0; i < this.data.size(); i++) {
-            KeyedValue<T> kv = this.data.get(i);
-            if (kv.getKey().equals(key)) {
-                return i;
+        if (this.indices == null) {
+            Map<Comparable<?>, Integer> map 
+                    = new HashMap<Comparable<?>, Integer>();
+            for (int i = this.data.size() - 1; i >= 0; i--) {
+                map.put(this.data.get(i).getKey(), i);  // first index wins
             }
+            this.indices = map;
         }
-        return -1;
+        Integer index = this.indices.get(key);
+        return index != null ? index : -1;
     }
 
     /**
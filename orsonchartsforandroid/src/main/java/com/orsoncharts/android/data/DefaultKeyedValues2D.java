@@ -34,7 +34,9 @@ package com.orsoncharts.android.data;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
@@ -52,6 +54,18 @@ public final class DefaultKeyedValues2D<T> implements KeyedValues2D<T>,
     
     /** The data values. */
     List<DefaultKeyedValues<T>> data;  // one entry per xKey
+
+    /** 
+     * The index of each x-key, for fast key lookups.  This is built when it
+     * is first needed ({@code null} until then).
+     */
+    private transient Map<Comparable<?>, Integer> xIndices;
+
+    /** 
+     * The index of each y-key, for fast key lookups.  This is built when it
+     * is first needed ({@code null} until then).
+     */
+    private transient Map<Comparable<?>, Integer> yIndices;
   
     /**
      * Creates a new (empty) instance.
@@ -113,7 +127,11 @@ public final class DefaultKeyedValues2D<T> implements KeyedValues2D<T>,
     @Override
     public int getXIndex(Comparable<?> xkey) {
         ArgChecks.nullNotPermitted(xkey, "xkey");
-        return this.xKeys.indexOf(xkey);
+        if (this.xIndices == null) {
+            this.xIndices = createIndices(this.xKeys);
+        }
+        Integer index = this.xIndices.get(xkey);
+        return index != null ? index : -1;
     }
 
     /**
@@ -126,7 +144,11 @@ public final class DefaultKeyedValues2D<T> implements KeyedValues2D<T>,
     @Override
     public int getYIndex(Comparable<?> ykey) {
         ArgChecks.nullNotPermitted(ykey, "ykey");
-        return this.yKeys.indexOf(ykey);
+        if (this.yIndices == null) {
+            this.yIndices = createIndices(this.yKeys);
+        }
+        Integer index = this.yIndices.get(ykey);
+        return index != null ? index : -1;
     }
 
     /**
@@ -229,10 +251,10 @@ public final class DefaultKeyedValues2D<T> implements KeyedValues2D<T>,
         ArgChecks.nullNotPermitted(yKey, "yKey");
         
         if (this.data.isEmpty()) {  // 1. no data - just add one new entry
-            this.xKeys.add(xKey);
-            this.yKeys.add(yKey);
+            addXKey(xKey);
+            addYKey(yKey);
             DefaultKeyedValues<T> dkvs = new DefaultKeyedValues<T>();
-            dkvs.put(yKey, n);
+            dkvs.add(yKey, n);
             this.data.add(dkvs);
         } else {
             int xIndex = getXIndex(xKey);
@@ -241,40 +263,132 @@ public final class DefaultKeyedValues2D<T> implements KeyedValues2D<T>,
                 DefaultKeyedValues<T> dkvs = this.data.get(xIndex);
                 if (yIndex >= 0) {
                     // 2.  Both keys exist - just update the value
-                    dkvs.put(yKey, n);
+                    dkvs.setValue(yIndex, n);
                 } else {
                     // 3.  xKey exists, but yKey does not (add the yKey to 
                     //     each series)
-                    this.yKeys.add(yKey);
+                    addYKey(yKey);
                     for (DefaultKeyedValues<T> kv : this.data) {
-                        kv.put(yKey, null);
+                        kv.add(yKey, null);
                     }
-                    dkvs.put(yKey, n);
+                    dkvs.setValue(this.yKeys.size() - 1, n);
                 }
             } else {
                 if (yIndex >= 0) {
                     // 4.  xKey does not exist, but yKey does
-                    this.xKeys.add(xKey);
+                    addXKey(xKey);
                     DefaultKeyedValues<T> d = new DefaultKeyedValues<T>(
                             this.yKeys);
-                    d.put(yKey, n);
+                    d.setValue(yIndex, n);
                     this.data.add(d);
                 } else {
                     // 5.  neither key exists, need to create the new series, 
                     //     plus the new entry in every series
-                    this.xKeys.add(xKey);
-                    this.yKeys.add(yKey);
+                    addXKey(xKey);
+                    addYKey(yKey);
                     for (DefaultKeyedValues<T> kv : this.data) {
-                        kv.put(yKey, null);
+                        kv.add(yKey, null);
                     }
                     DefaultKeyedValues<T> d = new DefaultKeyedValues<T>(
                             this.yKeys);
-                    d.put(yKey, n);
+                    d.setValue(this.yKeys.size() - 1, n);
                     this.data.add(d);
                 }
             }
         }
     }
+
+    /**
+     * Returns the index of the specified x-key, first adding the key (with 
+     * {@code null} values) if it is not already present.
+     * 
+     * @param xKey  the x-key ({@code null} not permitted).
+     * 
+     * @return The x-index.
+     */
+    int ensureXKey(Comparable<?> xKey) {
+        int index = getXIndex(xKey);
+        if (index < 0) {
+            index = this.xKeys.size();
+            addXKey(xKey);
+            this.data.add(new DefaultKeyedValues<T>(this.yKeys));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the specified y-key, first adding the key (with 
+     * {@code null} values) if it is not already present.
+     * 
+     * @param yKey  the y-key ({@code null} not permitted).
+     * 
+     * @return The y-index.
+     */
+    int ensureYKey(Comparable<?> yKey) {
+        int index = getYIndex(yKey);
+        if (index < 0) {
+            index = this.yKeys.size();
+            addYKey(yKey);
+            for (DefaultKeyedValues<T> kv : this.data) {
+                kv.add(yKey, null);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Sets the value for an existing cell in the table.
+     * 
+     * @param n  the value ({@code null} permitted).
+     * @param xIndex  the x-index.
+     * @param yIndex  the y-index.
+     */
+    void setValue(T n, int xIndex, int yIndex) {
+        this.data.get(xIndex).setValue(yIndex, n);
+    }
+
+    /**
+     * Appends a new x-key, keeping the key index (if built) in sync.
+     * 
+     * @param key  the key.
+     */
+    private void addXKey(Comparable<?> key) {
+        if (this.xIndices != null) {
+            this.xIndices.put(key, this.xKeys.size());
+        }
+        this.xKeys.add(key);
+    }
+
+    /**
+     * Appends a new y-key, keeping the key index (if built) in sync.
+     * 
+     * @param key  the key.
+     */
+    private void addYKey(Comparable<?> key) {
+        if (this.yIndices != null) {
+            this.yIndices.put(key, this.yKeys.size());
+        }
+        this.yKeys.add(key);
+    }
+
+    /**
+     * Creates a map from each key in the list to its index.  Where a key 
+     * appears more than once, the first index is used (matching 
+     * {@link List#indexOf(Object)}).
+     * 
+     * @param keys  the keys ({@code null} not permitted).
+     * 
+     * @return The map. 
+     */
+    static Map<Comparable<?>, Integer> createIndices(
+            List<Comparable<?>> keys) {
+        Map<Comparable<?>, Integer> result 
+                = new HashMap<Comparable<?>, Integer>();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            result.put(keys.get(i), i);
+        }
+        return result;
+    }
     
     @Override
     public boolean equals(Object obj) {
@@ -35,6 +35,7 @@ package com.orsoncharts.android.data;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
@@ -58,6 +59,18 @@ public final class DefaultKeyedValues3D<V> implements KeyedValues3D<V>,
      * row and column keys.
      */
     private List<DefaultKeyedValues2D<V>> data; // one entry per series
+
+    /** 
+     * Indices for the series, row and column keys, for fast key lookups. 
+     * These are built when first needed ({@code null} until then).
+     */
+    private transient Map<Comparable<?>, Integer> seriesIndices;
+
+    /** The row key indices (built on demand). */
+    private transient Map<Comparable<?>, Integer> rowIndices;
+
+    /** The column key indices (built on demand). */
+    private transient Map<Comparable<?>, Integer> columnIndices;
   
     /**
      * Creates a new (empty) table.
@@ -116,7 +129,12 @@ public final class DefaultKeyedValues3D<V> implements KeyedValues3D<V>,
     @Override
     public int getSeriesIndex(Comparable<?> seriesKey) {
         ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
-        return this.seriesKeys.indexOf(seriesKey);
+        if (this.seriesIndices == null) {
+            this.seriesIndices = DefaultKeyedValues2D.createIndices(
+                    this.seriesKeys);
+        }
+        Integer index = this.seriesIndices.get(seriesKey);
+        return index != null ? index : -1;
     }
 
     /**
@@ -130,7 +148,12 @@ public final class DefaultKeyedValues3D<V> implements KeyedValues3D<V>,
     @Override
     public int getRowIndex(Comparable<?> rowKey) {
         ArgChecks.nullNotPermitted(rowKey, "rowKey");
-        return this.rowKeys.indexOf(rowKey);
+        if (this.rowIndices == null) {
+            this.rowIndices = DefaultKeyedValues2D.createIndices(
+                    this.rowKeys);
+        }
+        Integer index = this.rowIndices.get(rowKey);
+        return index != null ? index : -1;
     }
 
     /**
@@ -144,7 +167,12 @@ public final class DefaultKeyedValues3D<V> implements KeyedValues3D<V>,
     @Override
     public int getColumnIndex(Comparable<?> columnKey) {
         ArgChecks.nullNotPermitted(columnKey, "columnKey");
-        return this.columnKeys.indexOf(columnKey);
+        if (this.columnIndices == null) {
+            this.columnIndices = DefaultKeyedValues2D.createIndices(
+                    this.columnKeys);
+        }
+        Integer index = this.columnIndices.get(columnKey);
+        return index != null ? index : -1;
     }
 
     /**
@@ -235,44 +263,132 @@ public final class DefaultKeyedValues3D<V> implements KeyedValues3D<V>,
         ArgChecks.nullNotPermitted(rowKey, "rowKey");
         ArgChecks.nullNotPermitted(columnKey, "columnKey");
         
-        // cases:
-        // 1 - the dataset is empty, so we just need to add a new layer with the
-        //     given keys;
-        if (this.data.isEmpty()) {
-            this.seriesKeys.add(seriesKey);
-            this.rowKeys.add(rowKey);
-            this.columnKeys.add(columnKey);
-            DefaultKeyedValues2D<V> d = new DefaultKeyedValues2D<V>();
-            d.setValue(n, rowKey, columnKey);
-            this.data.add(d);
-        }
-        
-        int seriesIndex = getSeriesIndex(seriesKey);
-        int rowIndex = getRowIndex(rowKey);
-        int columnIndex = getColumnIndex(columnKey);
-        if (rowIndex < 0) {
-            this.rowKeys.add(rowKey);
+        int seriesIndex = ensureSeriesKey(seriesKey);
+        int rowIndex = ensureRowKey(rowKey);
+        int columnIndex = ensureColumnKey(columnKey);
+        this.data.get(seriesIndex).setValue(n, rowIndex, columnIndex);
+    }
+
+    /**
+     * Sets the value for an existing item.  This is useful when populating
+     * the table in bulk, after the keys have been added with
+     * {@link #ensureSeriesKey(Comparable)}, {@link #ensureRowKey(Comparable)} 
+     * and {@link #ensureColumnKey(Comparable)}.
+     * 
+     * @param n  the value ({@code null} permitted).
+     * @param seriesIndex  the series index.
+     * @param rowIndex  the row index.
+     * @param columnIndex  the column index.
+     * 
+     * @since 1.2
+     */
+    public void setValue(V n, int seriesIndex, int rowIndex, 
+            int columnIndex) {
+        this.data.get(seriesIndex).setValue(n, rowIndex, columnIndex);
+    }
+
+    /**
+     * Returns the index of the specified series key, first adding a new
+     * series (with all values {@code null}) if the key is not already present.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * 
+     * @return The series index.
+     * 
+     * @since 1.2
+     */
+    public int ensureSeriesKey(Comparable<?> seriesKey) {
+        int index = getSeriesIndex(seriesKey);
+        if (index < 0) {
+            index = this.seriesKeys.size();
+            addSeriesKey(seriesKey);
+            this.data.add(new DefaultKeyedValues2D<V>(this.rowKeys, 
+                    this.columnKeys));
         }
-        if (columnIndex < 0) {
-            this.columnKeys.add(columnKey);
+        return index;
+    }
+
+    /**
+     * Returns the index of the specified row key, first adding a new row 
+     * (with all values {@code null}) if the key is not already present.
+     * 
+     * @param rowKey  the row key ({@code null} not permitted).
+     * 
+     * @return The row index.
+     * 
+     * @since 1.2
+     */
+    public int ensureRowKey(Comparable<?> rowKey) {
+        int index = getRowIndex(rowKey);
+        if (index < 0) {
+            index = this.rowKeys.size();
+            addRowKey(rowKey);
+            for (DefaultKeyedValues2D<V> d : this.data) {
+                d.ensureXKey(rowKey);
+            }
         }
-        if (rowIndex < 0 || columnIndex < 0) {
+        return index;
+    }
+
+    /**
+     * Returns the index of the specified column key, first adding a new 
+     * column (with all values {@code null}) if the key is not already 
+     * present.
+     * 
+     * @param columnKey  the column key ({@code null} not permitted).
+     * 
+     * @return The column index.
+     * 
+     * @since 1.2
+     */
+    public int ensureColumnKey(Comparable<?> columnKey) {
+        int index = getColumnIndex(columnKey);
+        if (index < 0) {
+            index = this.columnKeys.size();
+            addColumnKey(columnKey);
             for (DefaultKeyedValues2D<V> d : this.data) {
-                d.setValue(null, rowKey, columnKey);
-            } 
-        } 
-        if (seriesIndex >= 0) {
-            DefaultKeyedValues2D<V> d = this.data.get(seriesIndex);
-            d.setValue(n, rowKey, columnKey);
-        } else {
-            this.seriesKeys.add(seriesKey);
-            DefaultKeyedValues2D<V> d = new DefaultKeyedValues2D<V>(
-                    this.rowKeys, this.columnKeys);
-            d.setValue(n, rowKey, columnKey);
-            this.data.add(d);
+                d.ensureYKey(columnKey);
+            }
         }
+        return index;
     }
     
+    /**
+     * Appends a new series key, keeping the key index (if built) in sync.
+     * 
+     * @param key  the key.
+     */
+    private void addSeriesKey(Comparable<?> key) {
+        if (this.seriesIndices != null) {
+            this.seriesIndices.put(key, this.seriesKeys.size());
+        }
+        this.seriesKeys.add(key);
+    }
+
+    /**
+     * Appends a new row key, keeping the key index (if built) in sync.
+     * 
+     * @param key  the key.
+     */
+    private void addRowKey(Comparable<?> key) {
+        if (this.rowIndices != null) {
+            this.rowIndices.put(key, this.rowKeys.size());
+        }
+        this.rowKeys.add(key);
+    }
+
+    /**
+     * Appends a new column key, keeping the key index (if built) in sync.
+     * 
+     * @param key  the key.
+     */
+    private void addColumnKey(Comparable<?> key) {
+        if (this.columnIndices != null) {
+            this.columnIndices.put(key, this.columnKeys.size());
+        }
+        this.columnKeys.add(key);
+    }
+
     /**
      * Tests this instance for equality with an arbitrary object.
      * 
@@ -0,0 +1,144 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data;
+
+import java.io.Serializable;
+
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * An item key for a {@link KeyedValues3D} dataset (such as a 
+ * {@link com.orsoncharts.android.data.category.CategoryDataset3D}), where
+ * each item is identified by a series key, a row key and a column key.  
+ * Instances of this class are immutable.
+ * 
+ * @since 1.2
+ */
+public final class KeyedValues3DItemKey implements ItemKey, Serializable {
+
+    /** The series key. */
+    private Comparable<?> seriesKey;
+
+    /** The row key. */
+    private Comparable<?> rowKey;
+
+    /** The column key. */
+    private Comparable<?> columnKey;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public KeyedValues3DItemKey(Comparable<?> seriesKey, Comparable<?> rowKey, 
+            Comparable<?> columnKey) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKey, "rowKey");
+        ArgChecks.nullNotPermitted(columnKey, "columnKey");
+        this.seriesKey = seriesKey;
+        this.rowKey = rowKey;
+        this.columnKey = columnKey;
+    }
+
+    /**
+     * Returns the series key.
+     * 
+     * @return The series key (never {@code null}). 
+     */
+    public Comparable<?> getSeriesKey() {
+        return this.seriesKey;
+    }
+
+    /**
+     * Returns the row key.
+     * 
+     * @return The row key (never {@code null}). 
+     */
+    public Comparable<?> getRowKey() {
+        return this.rowKey;
+    }
+
+    /**
+     * Returns the column key.
+     * 
+     * @return The column key (never {@code null}). 
+     */
+    public Comparable<?> getColumnKey() {
+        return this.columnKey;
+    }
+
+    /**
+     * Tests this instance for equality with an arbitrary object.
+     * 
+     * @param obj  the object to test ({@code null} permitted).
+     * 
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof KeyedValues3DItemKey)) {
+            return false;
+        }
+        KeyedValues3DItemKey that = (KeyedValues3DItemKey) obj;
+        if (!this.seriesKey.equals(that.seriesKey)) {
+            return false;
+        }
+        if (!this.rowKey.equals(that.rowKey)) {
+            return false;
+        }
+        if (!this.columnKey.equals(that.columnKey)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 17 * hash + this.seriesKey.hashCode();
+        hash = 17 * hash + this.rowKey.hashCode();
+        hash = 17 * hash + this.columnKey.hashCode();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedValues3DItemKey[" + this.seriesKey + ", " + this.rowKey 
+                + ", " + this.columnKey + "]";
+    }
+}
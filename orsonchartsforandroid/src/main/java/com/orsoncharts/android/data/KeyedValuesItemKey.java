@@ -0,0 +1,98 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data;
+
+import java.io.Serializable;
+
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * An item key for a {@link KeyedValues} dataset (such as a 
+ * {@link PieDataset3D}), where each item is identified by a single key.
+ * Instances of this class are immutable.
+ * 
+ * @since 1.2
+ */
+public final class KeyedValuesItemKey implements ItemKey, Serializable {
+
+    /** The key for the item. */
+    private Comparable<?> key;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param key  the key ({@code null} not permitted).
+     */
+    public KeyedValuesItemKey(Comparable<?> key) {
+        ArgChecks.nullNotPermitted(key, "key");
+        this.key = key;
+    }
+
+    /**
+     * Returns the key for the item.
+     * 
+     * @return The key (never {@code null}). 
+     */
+    public Comparable<?> getKey() {
+        return this.key;
+    }
+
+    /**
+     * Tests this instance for equality with an arbitrary object.
+     * 
+     * @param obj  the object to test ({@code null} permitted).
+     * 
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof KeyedValuesItemKey)) {
+            return false;
+        }
+        KeyedValuesItemKey that = (KeyedValuesItemKey) obj;
+        return this.key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedValuesItemKey[" + this.key + "]";
+    }
+}
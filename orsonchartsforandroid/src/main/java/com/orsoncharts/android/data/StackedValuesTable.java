@@ -0,0 +1,227 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.renderer.category.StackedBarRenderer3D;
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * A table of the cumulative positive and negative subtotals for every cell 
+ * in a {@link Values3D} data source, where the series are stacked on top of 
+ * one another (as in a stacked bar chart).  The table is computed in a 
+ * single pass over the data, after which the subtotals for any item can be 
+ * looked up in constant time.  Since the table is a snapshot, it must be 
+ * recreated when the data changes.  The subtotals are relative to a base 
+ * value of zero.
+ * <br><br>
+ * This class is used by the {@link StackedBarRenderer3D} class and by 
+ * {@link DataUtils#findStackedValueRange(Values3D, double)}.
+ * 
+ * @since 1.2
+ */
+public final class StackedValuesTable {
+
+    /** The number of series. */
+    private int seriesCount;
+
+    /** The number of rows. */
+    private int rowCount;
+
+    /** The number of columns. */
+    private int columnCount;
+
+    /** 
+     * The subtotal of the negative values of all the series before each
+     * series, for each cell (with an extra final layer holding the totals). 
+     */
+    private double[] negativeSubTotals;
+
+    /** 
+     * The subtotal of the positive values of all the series before each
+     * series, for each cell (with an extra final layer holding the totals). 
+     */
+    private double[] positiveSubTotals;
+
+    /** The smallest negative total over all the cells. */
+    private double minTotal;
+
+    /** The largest positive total over all the cells. */
+    private double maxTotal;
+
+    /**
+     * Creates a new table from the specified data.
+     * 
+     * @param data  the data ({@code null} not permitted).
+     */
+    public StackedValuesTable(Values3D<? extends Number> data) {
+        ArgChecks.nullNotPermitted(data, "data");
+        this.seriesCount = data.getSeriesCount();
+        this.rowCount = data.getRowCount();
+        this.columnCount = data.getColumnCount();
+        int cells = this.rowCount * this.columnCount;
+        this.negativeSubTotals = new double[(this.seriesCount + 1) * cells];
+        this.positiveSubTotals = new double[(this.seriesCount + 1) * cells];
+        // the subtotals for series 0 are all zero, each following layer is
+        // the previous layer plus the values for the previous series
+        for (int s = 0; s < this.seriesCount; s++) {
+            int prev = s * cells;
+            int next = prev + cells;
+            for (int row = 0; row < this.rowCount; row++) {
+                for (int col = 0; col < this.columnCount; col++) {
+                    int cell = row * this.columnCount + col;
+                    double neg = this.negativeSubTotals[prev + cell];
+                    double pos = this.positiveSubTotals[prev + cell];
+                    double v = data.getDoubleValue(s, row, col);
+                    if (v > 0.0) {
+                        pos = pos + v;
+                    } else if (v < 0.0) {
+                        neg = neg + v;
+                    }
+                    this.negativeSubTotals[next + cell] = neg;
+                    this.positiveSubTotals[next + cell] = pos;
+                }
+            }
+        }
+        double min = 0.0;
+        double max = 0.0;
+        int totals = this.seriesCount * cells;
+        for (int cell = 0; cell < cells; cell++) {
+            min = Math.min(min, this.negativeSubTotals[totals + cell]);
+            max = Math.max(max, this.positiveSubTotals[totals + cell]);
+        }
+        this.minTotal = min;
+        this.maxTotal = max;
+    }
+
+    /**
+     * Returns the number of series in the data that the table was created 
+     * from.
+     * 
+     * @return The series count.
+     */
+    public int getSeriesCount() {
+        return this.seriesCount;
+    }
+
+    /**
+     * Returns the number of rows in the data that the table was created 
+     * from.
+     * 
+     * @return The row count.
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Returns the number of columns in the data that the table was created 
+     * from.
+     * 
+     * @return The column count.
+     */
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    /**
+     * Returns the subtotal of the negative values, for the specified row and
+     * column, in all the series preceding the specified series.
+     * 
+     * @param series  the series index (from <code>0</code> to 
+     *     <code>getSeriesCount()</code> inclusive, the latter giving the 
+     *     total over all series).
+     * @param row  the row index.
+     * @param column  the column index.
+     * 
+     * @return The subtotal (zero or less).
+     */
+    public double getNegativeSubTotal(int series, int row, int column) {
+        return this.negativeSubTotals[index(series, row, column)];
+    }
+
+    /**
+     * Returns the subtotal of the positive values, for the specified row and
+     * column, in all the series preceding the specified series.
+     * 
+     * @param series  the series index (from <code>0</code> to 
+     *     <code>getSeriesCount()</code> inclusive, the latter giving the 
+     *     total over all series).
+     * @param row  the row index.
+     * @param column  the column index.
+     * 
+     * @return The subtotal (zero or greater).
+     */
+    public double getPositiveSubTotal(int series, int row, int column) {
+        return this.positiveSubTotals[index(series, row, column)];
+    }
+
+    /**
+     * Returns the range of values covered when all the series are stacked 
+     * starting from the specified base value.
+     * 
+     * @param base  the base value.
+     * 
+     * @return The range (<code>null</code> if <code>base</code> is 
+     *     <code>Double.NaN</code>).
+     */
+    public Range findRange(double base) {
+        double min = base + this.minTotal;
+        double max = base + this.maxTotal;
+        if (min <= max) {
+            return new Range(min, max);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the position of the specified item in the subtotal arrays,
+     * checking that the indices are valid.
+     * 
+     * @param series  the series index.
+     * @param row  the row index.
+     * @param column  the column index.
+     * 
+     * @return The position in the subtotal arrays.
+     */
+    private int index(int series, int row, int column) {
+        if (series < 0 || series > this.seriesCount || row < 0 
+                || row >= this.rowCount || column < 0 
+                || column >= this.columnCount) {
+            throw new IndexOutOfBoundsException("Invalid index (" + series 
+                    + ", " + row + ", " + column + ").");
+        }
+        return (series * this.rowCount + row) * this.columnCount + column;
+    }
+
+}
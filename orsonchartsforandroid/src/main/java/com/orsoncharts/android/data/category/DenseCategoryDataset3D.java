@@ -0,0 +1,783 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+
+package com.orsoncharts.android.data.category;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.data.AbstractDataset3D;
+import com.orsoncharts.android.data.KeyedValues;
+import com.orsoncharts.android.data.ValueRangeInfo;
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * An implementation of the {@link CategoryDataset3D} interface that stores
+ * the data values in a single dense array of <code>double</code> primitives
+ * (one cell for every combination of series, row and column key).  This 
+ * avoids the per-value object overhead of {@link StandardCategoryDataset3D}
+ * and is a good choice for large datasets where most cells have a value.
+ * <br><br>
+ * Missing values are stored as <code>Double.NaN</code>, so the 
+ * {@link #getValue(int, int, int)} method returns {@code null} for a cell 
+ * that has been set to <code>Double.NaN</code>.
+ * <br><br>
+ * NOTE: This class is serializable, but the serialization format is subject 
+ * to change in future releases and should not be relied upon for persisting 
+ * instances of this class.
+ * 
+ * @since 1.2
+ */
+public final class DenseCategoryDataset3D extends AbstractDataset3D  
+        implements CategoryDataset3D, ValueRangeInfo, Serializable {
+
+    /** The series keys. */
+    private List<Comparable<?>> seriesKeys;
+
+    /** The row keys. */
+    private List<Comparable<?>> rowKeys;
+
+    /** The column keys. */
+    private List<Comparable<?>> columnKeys;
+
+    /** The index for each series key. */
+    private Map<Comparable<?>, Integer> seriesIndices;
+
+    /** The index for each row key. */
+    private Map<Comparable<?>, Integer> rowIndices;
+
+    /** The index for each column key. */
+    private Map<Comparable<?>, Integer> columnIndices;
+
+    /** The number of rows allocated in the values array. */
+    private int rowCapacity;
+
+    /** The number of columns allocated in the values array. */
+    private int columnCapacity;
+
+    /** 
+     * The data values, stored by series, then row, then column (with the
+     * allocated rather than the actual row and column counts).
+     */
+    private double[] values;
+
+    /** The smallest value in the dataset (see {@link #getValueRange()}). */
+    private double minValue;
+
+    /** The largest value in the dataset (see {@link #getValueRange()}). */
+    private double maxValue;
+
+    /** 
+     * A flag that indicates that the minimum and maximum values need to be
+     * recalculated (because a value at one end of the range was overwritten).
+     */
+    private boolean valueRangeStale;
+
+    /**
+     * Creates a new (empty) dataset.
+     */
+    public DenseCategoryDataset3D() {
+        this.seriesKeys = new ArrayList<Comparable<?>>();
+        this.rowKeys = new ArrayList<Comparable<?>>();
+        this.columnKeys = new ArrayList<Comparable<?>>();
+        this.seriesIndices = new HashMap<Comparable<?>, Integer>();
+        this.rowIndices = new HashMap<Comparable<?>, Integer>();
+        this.columnIndices = new HashMap<Comparable<?>, Integer>();
+        this.values = new double[0];
+        this.minValue = Double.POSITIVE_INFINITY;
+        this.maxValue = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Creates a new dataset with the specified keys and all values missing.
+     * Use {@link #setDoubleValue(double, int, int, int)} to populate the 
+     * dataset efficiently.
+     * 
+     * @param seriesKeys  the series keys ({@code null} not permitted).
+     * @param rowKeys  the row keys ({@code null} not permitted).
+     * @param columnKeys  the column keys ({@code null} not permitted).
+     */
+    public DenseCategoryDataset3D(List<? extends Comparable<?>> seriesKeys,
+            List<? extends Comparable<?>> rowKeys, 
+            List<? extends Comparable<?>> columnKeys) {
+        this();
+        ArgChecks.nullNotPermitted(seriesKeys, "seriesKeys");
+        ArgChecks.nullNotPermitted(rowKeys, "rowKeys");
+        ArgChecks.nullNotPermitted(columnKeys, "columnKeys");
+        for (Comparable<?> key : seriesKeys) {
+            addKey(key, this.seriesKeys, this.seriesIndices);
+        }
+        for (Comparable<?> key : rowKeys) {
+            addKey(key, this.rowKeys, this.rowIndices);
+        }
+        for (Comparable<?> key : columnKeys) {
+            addKey(key, this.columnKeys, this.columnIndices);
+        }
+        ensureCapacity(this.seriesKeys.size(), this.rowKeys.size(), 
+                this.columnKeys.size());
+    }
+
+    /**
+     * Returns the number of data series in the dataset.
+     * 
+     * @return The number of data series.
+     */
+    @Override
+    public int getSeriesCount() {
+        return this.seriesKeys.size();
+    }
+
+    /**
+     * Returns the number of rows in the dataset.
+     * 
+     * @return The number of rows. 
+     */
+    @Override
+    public int getRowCount() {
+        return this.rowKeys.size();
+    }
+
+    /**
+     * Returns the number of columns in the dataset.
+     * 
+     * @return The number of columns. 
+     */
+    @Override
+    public int getColumnCount() {
+        return this.columnKeys.size();
+    }
+
+    /**
+     * Returns the key for the specified series.
+     * 
+     * @param seriesIndex  the series index.
+     * 
+     * @return The series key. 
+     */
+    @Override
+    public Comparable<?> getSeriesKey(int seriesIndex) {
+        return this.seriesKeys.get(seriesIndex);
+    }
+
+    /**
+     * Returns the key for the specified row.
+     * 
+     * @param rowIndex The row index.
+     * 
+     * @return The row key. 
+     */
+    @Override
+    public Comparable<?> getRowKey(int rowIndex) {
+        return this.rowKeys.get(rowIndex);
+    }
+
+    /**
+     * Returns the key for the specified column.
+     * 
+     * @param columnIndex  the column index.
+     * 
+     * @return The column key. 
+     */
+    @Override
+    public Comparable<?> getColumnKey(int columnIndex) {
+        return this.columnKeys.get(columnIndex);
+    }
+
+    /**
+     * Returns the index for the specified series key, or -1 if the key is
+     * not defined in the dataset.
+     * 
+     * @param serieskey  the series key ({@code null} not permitted).
+     * 
+     * @return The series index or -1. 
+     */
+    @Override
+    public int getSeriesIndex(Comparable<?> serieskey) {
+        ArgChecks.nullNotPermitted(serieskey, "seriesKey");
+        Integer index = this.seriesIndices.get(serieskey);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the index of the specified row key, or <code>-1</code> if there
+     * is no matching key.
+     * 
+     * @param rowkey  the row key ({@code null} not permitted).
+     * 
+     * @return The row index or <code>-1</code>. 
+     */
+    @Override
+    public int getRowIndex(Comparable<?> rowkey) {
+        ArgChecks.nullNotPermitted(rowkey, "rowKey");
+        Integer index = this.rowIndices.get(rowkey);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the index of the specified column key, or <code>-1</code> if 
+     * there is no matching key.
+     * 
+     * @param columnkey  the column key ({@code null} not permitted).
+     * 
+     * @return The column index or <code>-1</code>. 
+     */
+    @Override
+    public int getColumnIndex(Comparable<?> columnkey) {
+        ArgChecks.nullNotPermitted(columnkey, "columnKey");
+        Integer index = this.columnIndices.get(columnkey);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns a list of the series keys for the dataset.  Modifying this
+     * list will have no impact on the underlying dataset.
+     * 
+     * @return A list of the series keys (possibly empty, but never 
+     *     {@code null}).
+     */
+    @Override
+    public List<Comparable<?>> getSeriesKeys() {
+        return new ArrayList<Comparable<?>>(this.seriesKeys);
+    }
+
+    /**
+     * Returns a list of the row keys for the dataset.  Modifying this
+     * list will have no impact on the underlying dataset.
+     * 
+     * @return A list of the row keys (possibly empty, but never 
+     *     {@code null}).
+     */
+    @Override
+    public List<Comparable<?>> getRowKeys() {
+        return new ArrayList<Comparable<?>>(this.rowKeys);
+    }
+
+    /**
+     * Returns a list of the column keys for the dataset.  Modifying this
+     * list will have no impact on the underlying dataset.
+     * 
+     * @return A list of the column keys (possibly empty, but never 
+     *     {@code null}).
+     */
+    @Override
+    public List<Comparable<?>> getColumnKeys() {
+        return new ArrayList<Comparable<?>>(this.columnKeys);
+    }
+
+    /**
+     * Returns the value associated with the specified keys.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     * 
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(Comparable<?> seriesKey, Comparable<?> rowKey, 
+            Comparable<?> columnKey) {
+        return getValue(getSeriesIndex(seriesKey), getRowIndex(rowKey), 
+                getColumnIndex(columnKey));
+    }
+
+    /**
+     * Returns the value for an item.
+     * 
+     * @param seriesIndex  the series index.
+     * @param rowIndex  the row index.
+     * @param columnIndex  the column index.
+     * 
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(int seriesIndex, int rowIndex, int columnIndex) {
+        double v = getDoubleValue(seriesIndex, rowIndex, columnIndex);
+        if (Double.isNaN(v)) {
+            return null;
+        }
+        return v;
+    }
+
+    /**
+     * Returns a value from the dataset as a double primitive.
+     * 
+     * @param seriesIndex  the series index.
+     * @param rowIndex  the row index.
+     * @param columnIndex  the column index.
+     * 
+     * @return The value (<code>Double.NaN</code> for a missing value).
+     */
+    @Override
+    public double getDoubleValue(int seriesIndex, int rowIndex, 
+            int columnIndex) {
+        return this.values[index(seriesIndex, rowIndex, columnIndex)];
+    }
+
+    /**
+     * Sets a value in the dataset, adding the keys if they are not already
+     * present.
+     * 
+     * @param n  the value ({@code null} permitted).
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void setValue(Number n, Comparable<?> seriesKey, 
+            Comparable<?> rowKey, Comparable<?> columnKey) {
+        setDoubleValue(n != null ? n.doubleValue() : Double.NaN, seriesKey, 
+                rowKey, columnKey);
+    }
+
+    /**
+     * Adds a value to the dataset.
+     * 
+     * @param n  the value ({@code null} permitted).
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void addValue(Number n, Comparable<?> seriesKey, 
+            Comparable<?> rowKey, Comparable<?> columnKey) {
+        setValue(n, seriesKey, rowKey, columnKey);
+    }
+
+    /**
+     * Sets a value in the dataset, adding the keys if they are not already
+     * present, and sends a change event to all registered listeners.
+     * 
+     * @param value  the value (<code>Double.NaN</code> for a missing value).
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void setDoubleValue(double value, Comparable<?> seriesKey, 
+            Comparable<?> rowKey, Comparable<?> columnKey) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKey, "rowKey");
+        ArgChecks.nullNotPermitted(columnKey, "columnKey");
+        int s = addKey(seriesKey, this.seriesKeys, this.seriesIndices);
+        int r = addKey(rowKey, this.rowKeys, this.rowIndices);
+        int c = addKey(columnKey, this.columnKeys, this.columnIndices);
+        ensureCapacity(this.seriesKeys.size(), this.rowKeys.size(), 
+                this.columnKeys.size());
+        put((s * this.rowCapacity + r) * this.columnCapacity + c, value);
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the value for an existing cell in the dataset, and sends a change
+     * event to all registered listeners.
+     * 
+     * @param value  the value (<code>Double.NaN</code> for a missing value).
+     * @param seriesIndex  the series index.
+     * @param rowIndex  the row index.
+     * @param columnIndex  the column index.
+     */
+    public void setDoubleValue(double value, int seriesIndex, int rowIndex, 
+            int columnIndex) {
+        put(index(seriesIndex, rowIndex, columnIndex), value);
+        fireDatasetChanged();
+    }
+
+    /**
+     * Returns the range of values in the dataset, ignoring missing values.
+     * The range is updated as values are added and is only recalculated 
+     * (on the next call to this method) after a value at either end of the 
+     * range has been overwritten.
+     * 
+     * @return The range (<code>null</code> if the dataset contains no 
+     *     values).
+     * 
+     * @since 1.2
+     */
+    @Override
+    public Range getValueRange() {
+        if (this.valueRangeStale) {
+            recalculateValueRange();
+        }
+        if (this.minValue <= this.maxValue) {
+            return new Range(this.minValue, this.maxValue);
+        }
+        return null;
+    }
+
+    /**
+     * Adds a data series as a single row in the dataset.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param data  the data ({@code null} not permitted).
+     */
+    public void addSeriesAsRow(Comparable<?> seriesKey, 
+            KeyedValues<? extends Number> data) {
+        addSeriesAsRow(seriesKey, seriesKey, data);    
+    }
+
+    /**
+     * Adds a data series as a single row in the dataset.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param data  the data ({@code null} not permitted).
+     */
+    public void addSeriesAsRow(Comparable<?> seriesKey, Comparable<?> rowKey, 
+            KeyedValues<? extends Number> data) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKey, "rowKey");
+        ArgChecks.nullNotPermitted(data, "data");
+        int s = addKey(seriesKey, this.seriesKeys, this.seriesIndices);
+        int r = addKey(rowKey, this.rowKeys, this.rowIndices);
+        int[] c = addKeys(data.getKeys(), this.columnKeys, 
+                this.columnIndices);
+        ensureCapacity(this.seriesKeys.size(), this.rowKeys.size(), 
+                this.columnKeys.size());
+        for (int j = 0; j < c.length; j++) {
+            put(index(s, r, c[j]), data.getDoubleValue(j));
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the values for one row of a series, adding any keys that are not 
+     * already present, and sends a single change event to all registered 
+     * listeners.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKeys  the column keys ({@code null} not permitted).
+     * @param values  the values, one per column key (<code>Double.NaN</code>
+     *     for a missing value, {@code null} not permitted).
+     * 
+     * @since 1.2
+     */
+    public void setRowValues(Comparable<?> seriesKey, Comparable<?> rowKey,
+            List<? extends Comparable<?>> columnKeys, double[] values) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKey, "rowKey");
+        ArgChecks.nullNotPermitted(columnKeys, "columnKeys");
+        StandardCategoryDataset3D.checkLength(values, columnKeys.size(), 
+                "values");
+        int s = addKey(seriesKey, this.seriesKeys, this.seriesIndices);
+        int r = addKey(rowKey, this.rowKeys, this.rowIndices);
+        int[] c = addKeys(columnKeys, this.columnKeys, this.columnIndices);
+        ensureCapacity(this.seriesKeys.size(), this.rowKeys.size(), 
+                this.columnKeys.size());
+        for (int j = 0; j < c.length; j++) {
+            put(index(s, r, c[j]), values[j]);
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the values for one column of a series, adding any keys that are 
+     * not already present, and sends a single change event to all registered 
+     * listeners.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKeys  the row keys ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     * @param values  the values, one per row key (<code>Double.NaN</code>
+     *     for a missing value, {@code null} not permitted).
+     * 
+     * @since 1.2
+     */
+    public void setColumnValues(Comparable<?> seriesKey, 
+            List<? extends Comparable<?>> rowKeys, Comparable<?> columnKey, 
+            double[] values) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKeys, "rowKeys");
+        ArgChecks.nullNotPermitted(columnKey, "columnKey");
+        StandardCategoryDataset3D.checkLength(values, rowKeys.size(), 
+                "values");
+        int s = addKey(seriesKey, this.seriesKeys, this.seriesIndices);
+        int[] r = addKeys(rowKeys, this.rowKeys, this.rowIndices);
+        int c = addKey(columnKey, this.columnKeys, this.columnIndices);
+        ensureCapacity(this.seriesKeys.size(), this.rowKeys.size(), 
+                this.columnKeys.size());
+        for (int i = 0; i < r.length; i++) {
+            put(index(s, r[i], c), values[i]);
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the values for a block of rows and columns in a series, adding 
+     * any keys that are not already present, and sends a single change event 
+     * to all registered listeners.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKeys  the row keys ({@code null} not permitted).
+     * @param columnKeys  the column keys ({@code null} not permitted).
+     * @param values  the values, indexed by <code>[row][column]</code> 
+     *     (<code>Double.NaN</code> for a missing value, {@code null} not 
+     *     permitted).
+     * 
+     * @since 1.2
+     */
+    public void setValues(Comparable<?> seriesKey, 
+            List<? extends Comparable<?>> rowKeys, 
+            List<? extends Comparable<?>> columnKeys, double[][] values) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKeys, "rowKeys");
+        ArgChecks.nullNotPermitted(columnKeys, "columnKeys");
+        ArgChecks.nullNotPermitted(values, "values");
+        if (values.length != rowKeys.size()) {
+            throw new IllegalArgumentException(
+                    "The values array must have one entry per row key.");
+        }
+        for (double[] row : values) {
+            StandardCategoryDataset3D.checkLength(row, columnKeys.size(), 
+                    "values");
+        }
+        int s = addKey(seriesKey, this.seriesKeys, this.seriesIndices);
+        int[] r = addKeys(rowKeys, this.rowKeys, this.rowIndices);
+        int[] c = addKeys(columnKeys, this.columnKeys, this.columnIndices);
+        ensureCapacity(this.seriesKeys.size(), this.rowKeys.size(), 
+                this.columnKeys.size());
+        for (int i = 0; i < r.length; i++) {
+            double[] row = values[i];
+            for (int j = 0; j < c.length; j++) {
+                put(index(s, r[i], c[j]), row[j]);
+            }
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Stores a value in the values array, updating the tracked value range.
+     * 
+     * @param index  the position in the values array.
+     * @param value  the value (<code>Double.NaN</code> for a missing value).
+     */
+    private void put(int index, double value) {
+        double oldValue = this.values[index];
+        this.values[index] = value;
+        updateValueRange(oldValue, value);
+    }
+
+    /**
+     * Updates the tracked value range for a cell that has changed from
+     * <code>oldValue</code> to <code>newValue</code>.  If the old value was 
+     * at either end of the range, the range is marked for recalculation.
+     * 
+     * @param oldValue  the old value (<code>Double.NaN</code> if missing).
+     * @param newValue  the new value (<code>Double.NaN</code> if missing).
+     */
+    private void updateValueRange(double oldValue, double newValue) {
+        if (oldValue <= this.minValue || oldValue >= this.maxValue) {
+            this.valueRangeStale = true;
+        }
+        if (!this.valueRangeStale) {
+            if (newValue < this.minValue) {
+                this.minValue = newValue;
+            }
+            if (newValue > this.maxValue) {
+                this.maxValue = newValue;
+            }
+        }
+    }
+
+    /**
+     * Recalculates the minimum and maximum values by iterating over all the
+     * values in the dataset.
+     */
+    private void recalculateValueRange() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < this.seriesKeys.size(); s++) {
+            for (int r = 0; r < this.rowKeys.size(); r++) {
+                int offset = (s * this.rowCapacity + r) * this.columnCapacity;
+                for (int c = 0; c < this.columnKeys.size(); c++) {
+                    double d = this.values[offset + c];
+                    if (d < min) {
+                        min = d;
+                    }
+                    if (d > max) {
+                        max = d;
+                    }
+                }
+            }
+        }
+        this.minValue = min;
+        this.maxValue = max;
+        this.valueRangeStale = false;
+    }
+
+    /**
+     * Returns the position in the values array for the specified cell, 
+     * checking that the indices are valid.
+     * 
+     * @param seriesIndex  the series index.
+     * @param rowIndex  the row index.
+     * @param columnIndex  the column index.
+     * 
+     * @return The position in the values array.
+     */
+    private int index(int seriesIndex, int rowIndex, int columnIndex) {
+        if (seriesIndex < 0 || seriesIndex >= this.seriesKeys.size() 
+                || rowIndex < 0 || rowIndex >= this.rowKeys.size() 
+                || columnIndex < 0 || columnIndex >= this.columnKeys.size()) {
+            throw new IndexOutOfBoundsException("Invalid index (" 
+                    + seriesIndex + ", " + rowIndex + ", " + columnIndex 
+                    + ").");
+        }
+        return (seriesIndex * this.rowCapacity + rowIndex) 
+                * this.columnCapacity + columnIndex;
+    }
+
+    /**
+     * Returns the index of a key, adding it to the keys if it is not already
+     * present.
+     * 
+     * @param key  the key.
+     * @param keys  the keys.
+     * @param indices  the index for each key.
+     * 
+     * @return The index of the key.
+     */
+    private static int addKey(Comparable<?> key, List<Comparable<?>> keys, 
+            Map<Comparable<?>, Integer> indices) {
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        keys.add(key);
+        indices.put(key, keys.size() - 1);
+        return keys.size() - 1;
+    }
+
+    /**
+     * Returns the indices of the specified keys, adding any keys that are 
+     * not already present.
+     * 
+     * @param keys  the keys to find or add.
+     * @param allKeys  the keys.
+     * @param indices  the index for each key.
+     * 
+     * @return The indices of the keys.
+     */
+    private static int[] addKeys(List<? extends Comparable<?>> keys, 
+            List<Comparable<?>> allKeys, Map<Comparable<?>, Integer> indices) {
+        int[] result = new int[keys.size()];
+        for (int i = 0; i < result.length; i++) {
+            Comparable<?> key = keys.get(i);
+            ArgChecks.nullNotPermitted(key, "key");
+            result[i] = addKey(key, allKeys, indices);
+        }
+        return result;
+    }
+
+    /**
+     * Makes sure that the values array has room for the specified number of
+     * series, rows and columns, reallocating it (with room to grow) if 
+     * necessary.  New cells are filled with <code>Double.NaN</code>.
+     * 
+     * @param seriesCount  the series count.
+     * @param rowCount  the row count.
+     * @param columnCount  the column count.
+     */
+    private void ensureCapacity(int seriesCount, int rowCount, 
+            int columnCount) {
+        int seriesCapacity = this.rowCapacity * this.columnCapacity > 0 
+                ? this.values.length / (this.rowCapacity * this.columnCapacity)
+                : 0;
+        if (seriesCount <= seriesCapacity && rowCount <= this.rowCapacity 
+                && columnCount <= this.columnCapacity) {
+            return;
+        }
+        int sc = Math.max(seriesCount, seriesCapacity);
+        int rc = rowCount <= this.rowCapacity ? this.rowCapacity 
+                : Math.max(rowCount, this.rowCapacity * 2);
+        int cc = columnCount <= this.columnCapacity ? this.columnCapacity 
+                : Math.max(columnCount, this.columnCapacity * 2);
+        if (seriesCount > seriesCapacity) {
+            sc = Math.max(seriesCount, seriesCapacity * 2);
+        }
+        double[] v = new double[sc * rc * cc];
+        Arrays.fill(v, Double.NaN);
+        for (int s = 0; s < seriesCapacity; s++) {
+            for (int r = 0; r < this.rowCapacity; r++) {
+                System.arraycopy(this.values, 
+                        (s * this.rowCapacity + r) * this.columnCapacity, v, 
+                        (s * rc + r) * cc, this.columnCapacity);
+            }
+        }
+        this.values = v;
+        this.rowCapacity = rc;
+        this.columnCapacity = cc;
+    }
+
+    /**
+     * Tests this instance for equality with an arbitrary object.
+     * 
+     * @param obj  the object to test against ({@code null} permitted).
+     * 
+     * @return A boolean. 
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DenseCategoryDataset3D)) {
+            return false;
+        }
+        DenseCategoryDataset3D that = (DenseCategoryDataset3D) obj;
+        if (!this.seriesKeys.equals(that.seriesKeys)) {
+            return false;
+        }
+        if (!this.rowKeys.equals(that.rowKeys)) {
+            return false;
+        }
+        if (!this.columnKeys.equals(that.columnKeys)) {
+            return false;
+        }
+        for (int s = 0; s < getSeriesCount(); s++) {
+            for (int r = 0; r < getRowCount(); r++) {
+                for (int c = 0; c < getColumnCount(); c++) {
+                    if (Double.doubleToLongBits(getDoubleValue(s, r, c)) 
+                            != Double.doubleToLongBits(
+                            that.getDoubleValue(s, r, c))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+}
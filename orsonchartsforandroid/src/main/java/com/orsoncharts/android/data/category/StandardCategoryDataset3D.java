@@ -34,9 +34,11 @@ package com.orsoncharts.android.data.category;
 
 import java.util.List;
 import java.io.Serializable;
+import com.orsoncharts.android.Range;
 import com.orsoncharts.android.data.AbstractDataset3D;
 import com.orsoncharts.android.data.DefaultKeyedValues3D;
 import com.orsoncharts.android.data.KeyedValues;
+import com.orsoncharts.android.data.ValueRangeInfo;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
@@ -48,18 +50,32 @@ import com.orsoncharts.android.util.ArgChecks;
  * instances of this class.
  */
 public final class StandardCategoryDataset3D extends AbstractDataset3D  
-        implements CategoryDataset3D, Serializable {
+        implements CategoryDataset3D, ValueRangeInfo, Serializable {
   
     /**
      * Storage for the data.
      */
     private DefaultKeyedValues3D<Number> data;
+
+    /** The smallest value in the dataset (see {@link #getValueRange()}). */
+    private double minValue;
+
+    /** The largest value in the dataset (see {@link #getValueRange()}). */
+    private double maxValue;
+
+    /** 
+     * A flag that indicates that the minimum and maximum values need to be
+     * recalculated (because a value at one end of the range was overwritten).
+     */
+    private boolean valueRangeStale;
     
     /**
      * Creates a new (empty) dataset.
      */
     public StandardCategoryDataset3D() {
         this.data = new DefaultKeyedValues3D<Number>();  
+        this.minValue = Double.POSITIVE_INFINITY;
+        this.maxValue = Double.NEGATIVE_INFINITY;
     }
 
     /**
@@ -240,7 +256,11 @@ public final class StandardCategoryDataset3D extends AbstractDataset3D
      */
     public void setValue(Number n, Comparable<?> seriesKey, 
             Comparable<?> rowKey, Comparable<?> columnKey) {
-        this.data.setValue(n, seriesKey, rowKey, columnKey);
+        // arg checking is handled by the data table
+        int s = this.data.ensureSeriesKey(seriesKey);
+        int r = this.data.ensureRowKey(rowKey);
+        int c = this.data.ensureColumnKey(columnKey);
+        put(n, s, r, c);
         fireDatasetChanged();
     }
     
@@ -270,6 +290,28 @@ public final class StandardCategoryDataset3D extends AbstractDataset3D
         return this.data.getDoubleValue(seriesIndex, rowIndex, columnIndex);
     }
  
+    /**
+     * Returns the range of values in the dataset, ignoring missing values.
+     * The range is updated as values are added and is only recalculated 
+     * (on the next call to this method) after a value at either end of the 
+     * range has been overwritten.
+     * 
+     * @return The range (<code>null</code> if the dataset contains no 
+     *     values).
+     * 
+     * @since 1.2
+     */
+    @Override
+    public Range getValueRange() {
+        if (this.valueRangeStale) {
+            recalculateValueRange();
+        }
+        if (this.minValue <= this.maxValue) {
+            return new Range(this.minValue, this.maxValue);
+        }
+        return null;
+    }
+
     /**
      * Adds a data series as a single row in the dataset.
      * 
@@ -291,10 +333,233 @@ public final class StandardCategoryDataset3D extends AbstractDataset3D
     public void addSeriesAsRow(Comparable<?> seriesKey, Comparable<?> rowKey, 
             KeyedValues<? extends Number> data) {
         ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKey, "rowKey");
         ArgChecks.nullNotPermitted(data, "data");
-        for (Comparable<?> key : data.getKeys()) {
-            setValue(data.getValue(key), seriesKey, rowKey, key);
+        int s = this.data.ensureSeriesKey(seriesKey);
+        int r = this.data.ensureRowKey(rowKey);
+        for (int i = 0; i < data.getItemCount(); i++) {
+            int c = this.data.ensureColumnKey(data.getKey(i));
+            put(data.getValue(i), s, r, c);
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the values for one row of a series, adding any keys that are not 
+     * already present, and sends a single change event to all registered 
+     * listeners.  Missing values are specified as <code>Double.NaN</code>.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKeys  the column keys ({@code null} not permitted).
+     * @param values  the values, one per column key ({@code null} not 
+     *     permitted).
+     * 
+     * @since 1.2
+     */
+    public void setRowValues(Comparable<?> seriesKey, Comparable<?> rowKey,
+            List<? extends Comparable<?>> columnKeys, double[] values) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKey, "rowKey");
+        ArgChecks.nullNotPermitted(columnKeys, "columnKeys");
+        checkLength(values, columnKeys.size(), "values");
+        int s = this.data.ensureSeriesKey(seriesKey);
+        int r = this.data.ensureRowKey(rowKey);
+        int[] c = ensureColumnKeys(columnKeys);
+        for (int j = 0; j < c.length; j++) {
+            put(toNumber(values[j]), s, r, c[j]);
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the values for one column of a series, adding any keys that are 
+     * not already present, and sends a single change event to all registered 
+     * listeners.  Missing values are specified as <code>Double.NaN</code>.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKeys  the row keys ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     * @param values  the values, one per row key ({@code null} not 
+     *     permitted).
+     * 
+     * @since 1.2
+     */
+    public void setColumnValues(Comparable<?> seriesKey, 
+            List<? extends Comparable<?>> rowKeys, Comparable<?> columnKey, 
+            double[] values) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKeys, "rowKeys");
+        ArgChecks.nullNotPermitted(columnKey, "columnKey");
+        checkLength(values, rowKeys.size(), "values");
+        int s = this.data.ensureSeriesKey(seriesKey);
+        int[] r = ensureRowKeys(rowKeys);
+        int c = this.data.ensureColumnKey(columnKey);
+        for (int i = 0; i < r.length; i++) {
+            put(toNumber(values[i]), s, r[i], c);
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Sets the values for a block of rows and columns in a series, adding 
+     * any keys that are not already present, and sends a single change event 
+     * to all registered listeners.  Missing values are specified as 
+     * <code>Double.NaN</code>.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param rowKeys  the row keys ({@code null} not permitted).
+     * @param columnKeys  the column keys ({@code null} not permitted).
+     * @param values  the values, indexed by <code>[row][column]</code> 
+     *     ({@code null} not permitted).
+     * 
+     * @since 1.2
+     */
+    public void setValues(Comparable<?> seriesKey, 
+            List<? extends Comparable<?>> rowKeys, 
+            List<? extends Comparable<?>> columnKeys, double[][] values) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        ArgChecks.nullNotPermitted(rowKeys, "rowKeys");
+        ArgChecks.nullNotPermitted(columnKeys, "columnKeys");
+        ArgChecks.nullNotPermitted(values, "values");
+        if (values.length != rowKeys.size()) {
+            throw new IllegalArgumentException(
+                    "The values array must have one entry per row key.");
+        }
+        for (double[] row : values) {
+            checkLength(row, columnKeys.size(), "values");
         }
+        int s = this.data.ensureSeriesKey(seriesKey);
+        int[] r = ensureRowKeys(rowKeys);
+        int[] c = ensureColumnKeys(columnKeys);
+        for (int i = 0; i < r.length; i++) {
+            double[] row = values[i];
+            for (int j = 0; j < c.length; j++) {
+                put(toNumber(row[j]), s, r[i], c[j]);
+            }
+        }
+        fireDatasetChanged();
+    }
+
+    /**
+     * Stores a value in an existing cell, updating the tracked value range.
+     * 
+     * @param n  the value ({@code null} permitted).
+     * @param s  the series index.
+     * @param r  the row index.
+     * @param c  the column index.
+     */
+    private void put(Number n, int s, int r, int c) {
+        double oldValue = this.data.getDoubleValue(s, r, c);
+        this.data.setValue(n, s, r, c);
+        updateValueRange(oldValue, n != null ? n.doubleValue() : Double.NaN);
+    }
+
+    /**
+     * Updates the tracked value range for a cell that has changed from
+     * <code>oldValue</code> to <code>newValue</code>.  If the old value was 
+     * at either end of the range, the range is marked for recalculation.
+     * 
+     * @param oldValue  the old value (<code>Double.NaN</code> if missing).
+     * @param newValue  the new value (<code>Double.NaN</code> if missing).
+     */
+    private void updateValueRange(double oldValue, double newValue) {
+        if (oldValue <= this.minValue || oldValue >= this.maxValue) {
+            this.valueRangeStale = true;
+        }
+        if (!this.valueRangeStale) {
+            if (newValue < this.minValue) {
+                this.minValue = newValue;
+            }
+            if (newValue > this.maxValue) {
+                this.maxValue = newValue;
+            }
+        }
+    }
+
+    /**
+     * Recalculates the minimum and maximum values by iterating over all the
+     * values in the dataset.
+     */
+    private void recalculateValueRange() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < this.data.getSeriesCount(); s++) {
+            for (int r = 0; r < this.data.getRowCount(); r++) {
+                for (int c = 0; c < this.data.getColumnCount(); c++) {
+                    double d = this.data.getDoubleValue(s, r, c);
+                    if (d < min) {
+                        min = d;
+                    }
+                    if (d > max) {
+                        max = d;
+                    }
+                }
+            }
+        }
+        this.minValue = min;
+        this.maxValue = max;
+        this.valueRangeStale = false;
+    }
+
+    /**
+     * Returns the indices of the specified row keys, adding any keys that 
+     * are not already present.
+     * 
+     * @param keys  the row keys.
+     * 
+     * @return The row indices. 
+     */
+    private int[] ensureRowKeys(List<? extends Comparable<?>> keys) {
+        int[] result = new int[keys.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.data.ensureRowKey(keys.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indices of the specified column keys, adding any keys that 
+     * are not already present.
+     * 
+     * @param keys  the column keys.
+     * 
+     * @return The column indices. 
+     */
+    private int[] ensureColumnKeys(List<? extends Comparable<?>> keys) {
+        int[] result = new int[keys.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.data.ensureColumnKey(keys.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Checks that an array is not {@code null} and has the expected length.
+     * 
+     * @param values  the array.
+     * @param length  the expected length.
+     * @param name  the argument name (for the exception message).
+     */
+    static void checkLength(double[] values, int length, String name) {
+        ArgChecks.nullNotPermitted(values, name);
+        if (values.length != length) {
+            throw new IllegalArgumentException("The '" + name 
+                    + "' array must have one entry per key (expected " 
+                    + length + " but found " + values.length + ").");
+        }
+    }
+
+    /**
+     * Converts a double primitive to a value for storage in the dataset, 
+     * mapping <code>Double.NaN</code> to {@code null}.
+     * 
+     * @param value  the value.
+     * 
+     * @return The value (possibly {@code null}). 
+     */
+    private static Number toNumber(double value) {
+        return Double.isNaN(value) ? null : Double.valueOf(value);
     }
     
     /**
@@ -32,6 +32,9 @@
 
 package com.orsoncharts.android.data.function;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
 import com.orsoncharts.android.Range;
 import com.orsoncharts.android.util.ArgChecks;
 
@@ -61,28 +64,233 @@ public class Function3DUtils {
      */
     public static Range findYRange(Function3D f, Range xRange, Range zRange, 
             int xSamples, int zSamples, boolean ignoreNaN) {
+        return findYRange(f, xRange, zRange, xSamples, zSamples, ignoreNaN, 
+                null);
+    }
+
+    /**
+     * Returns the range of y-values in the function by sampling, optionally
+     * splitting the sampling into tiles that are evaluated concurrently by 
+     * the supplied executor.  The result is the same as for the serial
+     * method, but the function must be safe to call from multiple threads 
+     * when an executor is specified.
+     * 
+     * @param f  the function ({@code null} not permitted).
+     * @param xRange  the x-range to sample ({@code null} not permitted).
+     * @param zRange  the z-range to sample ({@code null} not permitted).
+     * @param xSamples  the number of x-samples (must be at least 2).
+     * @param zSamples  the number of z-samples (must be at least 2).
+     * @param ignoreNaN  ignore NaN values?
+     * @param executor  the executor ({@code null} permitted, in which case
+     *     the function is sampled on the calling thread).
+     * 
+     * @return The range ({@code null} in the case that the function
+     *     returns no valid values). 
+     * 
+     * @since 1.2
+     */
+    public static Range findYRange(final Function3D f, final Range xRange, 
+            final Range zRange, final int xSamples, final int zSamples, 
+            final boolean ignoreNaN, Executor executor) {
         ArgChecks.nullNotPermitted(f, "f");
         ArgChecks.nullNotPermitted(xRange, "xRange");
         ArgChecks.nullNotPermitted(zRange, "zRange");
-        double min = Double.POSITIVE_INFINITY;
-        double max = Double.NEGATIVE_INFINITY;
-        for (int xIndex = 0; xIndex <= xSamples - 1; xIndex++) {
-            double fracX = xIndex / (xSamples - 1.0);
-            double x = xRange.value(fracX);
-            for (int zIndex = 0; zIndex <= zSamples - 1; zIndex++) {
-                double fracZ = zIndex / (zSamples - 1.0);
-                double z = zRange.value(fracZ);
-                double y = f.getValue(x, z);
-                if (Double.isNaN(y) && ignoreNaN) {
-                    continue;
+        // the min and max for each x-sample, reduced in order afterwards
+        final double[] mins = new double[Math.max(xSamples, 0)];
+        final double[] maxs = new double[mins.length];
+        new Tiles() {
+            @Override
+            void compute(int start, int end) {
+                for (int xIndex = start; xIndex < end; xIndex++) {
+                    double fracX = xIndex / (xSamples - 1.0);
+                    double x = xRange.value(fracX);
+                    double min = Double.POSITIVE_INFINITY;
+                    double max = Double.NEGATIVE_INFINITY;
+                    for (int zIndex = 0; zIndex <= zSamples - 1; zIndex++) {
+                        double fracZ = zIndex / (zSamples - 1.0);
+                        double z = zRange.value(fracZ);
+                        double y = f.getValue(x, z);
+                        if (Double.isNaN(y) && ignoreNaN) {
+                            continue;
+                        }
+                        min = Math.min(y, min);
+                        max = Math.max(y, max);
+                    }
+                    mins[xIndex] = min;
+                    maxs[xIndex] = max;
                 }
-                min = Math.min(y, min);
-                max = Math.max(y, max);
             }
+        }.run(mins.length, executor);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < mins.length; i++) {
+            min = Math.min(mins[i], min);
+            max = Math.max(maxs[i], max);
         }
         if (min <= max) {
             return new Range(min, max);
         }
         return null;
     }
+
+    /**
+     * Evaluates the function at every combination of the specified x and 
+     * z-values, optionally splitting the work into tiles that are evaluated
+     * concurrently by the supplied executor.  The result is the same in 
+     * either case, but the function must be safe to call from multiple 
+     * threads when an executor is specified.
+     * 
+     * @param f  the function ({@code null} not permitted).
+     * @param xValues  the x-values ({@code null} not permitted).
+     * @param zValues  the z-values ({@code null} not permitted).
+     * @param result  an array to hold the function values, indexed by 
+     *     <code>xIndex * zValues.length + zIndex</code> ({@code null} 
+     *     permitted, in which case a new array is allocated).
+     * @param executor  the executor ({@code null} permitted, in which case
+     *     the function is sampled on the calling thread).
+     * 
+     * @return The function values.
+     * 
+     * @since 1.2
+     */
+    public static double[] sample(final Function3D f, final double[] xValues,
+            final double[] zValues, double[] result, Executor executor) {
+        ArgChecks.nullNotPermitted(f, "f");
+        ArgChecks.nullNotPermitted(xValues, "xValues");
+        ArgChecks.nullNotPermitted(zValues, "zValues");
+        if (result == null) {
+            result = new double[xValues.length * zValues.length];
+        }
+        final double[] values = result;
+        new Tiles() {
+            @Override
+            void compute(int start, int end) {
+                int k = start * zValues.length;
+                for (int i = start; i < end; i++) {
+                    for (int j = 0; j < zValues.length; j++) {
+                        values[k++] = f.getValue(xValues[i], zValues[j]);
+                    }
+                }
+            }
+        }.run(xValues.length, executor);
+        return result;
+    }
+
+    /**
+     * A unit of work over a range of indices that can be split into tiles 
+     * and run concurrently.
+     */
+    private static abstract class Tiles {
+
+        /**
+         * Performs the work for the indices from <code>start</code> 
+         * (inclusive) to <code>end</code> (exclusive).
+         * 
+         * @param start  the start index.
+         * @param end  the end index.
+         */
+        abstract void compute(int start, int end);
+
+        /**
+         * Performs the work for the indices from <code>0</code> to 
+         * <code>count - 1</code>.  If an executor is supplied, the indices 
+         * are split into tiles that are submitted to the executor (apart from
+         * the first, which runs on the calling thread), and this method waits
+         * for all of them to complete, even if a tile fails, so that no tile
+         * is still running when this method returns.  The first exception 
+         * thrown by any tile (including the one on the calling thread) is 
+         * then rethrown here.
+         * 
+         * @param count  the number of indices.
+         * @param executor  the executor ({@code null} permitted).
+         */
+        void run(int count, Executor executor) {
+            int tileCount = Math.min(count, 
+                    2 * Runtime.getRuntime().availableProcessors());
+            if (executor == null || tileCount <= 1) {
+                compute(0, count);
+                return;
+            }
+            final CountDownLatch done = new CountDownLatch(tileCount - 1);
+            final Throwable[] failure = new Throwable[1];
+            try {
+                for (int t = 1; t < tileCount; t++) {
+                    final int start = (int) ((long) count * t / tileCount);
+                    final int end = (int) ((long) count * (t + 1) / tileCount);
+                    try {
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    compute(start, end);
+                                } catch (Throwable e) {
+                                    recordFailure(failure, e);
+                                } finally {
+                                    done.countDown();
+                                }
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        // the executor rejected the tile, so release the 
+                        // latch for this tile and the ones not yet submitted
+                        for (int i = t; i < tileCount; i++) {
+                            done.countDown();
+                        }
+                        throw e;
+                    }
+                }
+                compute(0, count / tileCount);
+            } catch (RuntimeException e) {
+                recordFailure(failure, e);
+            } catch (Error e) {
+                recordFailure(failure, e);
+            } finally {
+                awaitUninterruptibly(done);
+            }
+            synchronized (failure) {
+                if (failure[0] instanceof RuntimeException) {
+                    throw (RuntimeException) failure[0];
+                }
+                if (failure[0] instanceof Error) {
+                    throw (Error) failure[0];
+                }
+            }
+        }
+
+        /**
+         * Records a failure, unless an earlier one has already been recorded.
+         * 
+         * @param failure  the array holding the first failure.
+         * @param e  the failure.
+         */
+        private static void recordFailure(Throwable[] failure, Throwable e) {
+            synchronized (failure) {
+                if (failure[0] == null) {
+                    failure[0] = e;
+                }
+            }
+        }
+
+        /**
+         * Waits for the latch to reach zero, restoring the thread's 
+         * interrupted status afterwards if it was interrupted while waiting.
+         * 
+         * @param latch  the latch.
+         */
+        private static void awaitUninterruptibly(CountDownLatch latch) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
 }
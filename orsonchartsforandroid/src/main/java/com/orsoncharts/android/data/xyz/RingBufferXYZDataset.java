@@ -0,0 +1,720 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.xyz;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.data.AbstractDataset3D;
+import com.orsoncharts.android.plot.XYZPlot;
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * An {@link XYZDataset} that holds the most recent <code>(x, y, z)</code> 
+ * items for one or more series, up to a fixed capacity per series.  This is 
+ * intended for plotting streaming data (for example sensor readings) on an
+ * {@link XYZPlot}: once a series is full, each new item replaces the oldest 
+ * one, so appending never allocates.
+ * <br><br>
+ * The values are held in primitive arrays, and the minimum and maximum 
+ * x, y and z-values within the current window are maintained as items are 
+ * added and removed, so that axis ranges are available in constant time 
+ * (see {@link XYZRangeInfo}).
+ * <br><br>
+ * Rather than sending a change event for every new item, the dataset 
+ * coalesces changes and sends at most one event per notify interval 
+ * (by default {@link #DEFAULT_NOTIFY_INTERVAL} milliseconds, about one 
+ * frame).  The events are delivered on the thread of the <code>Looper</code>
+ * that is current when the first item is added (or the main thread if there
+ * is none).  Items should always be added from the same thread.
+ * <br><br>
+ * NOTE: This class is serializable, but the serialization format is subject 
+ * to change in future releases and should not be relied upon for persisting 
+ * instances of this class.
+ * 
+ * @since 1.2
+ */
+public class RingBufferXYZDataset extends AbstractDataset3D 
+        implements XYZDataset, XYZRangeInfo, Serializable {
+
+    /** The default notify interval (in milliseconds). */
+    public static final long DEFAULT_NOTIFY_INTERVAL = 16L;
+
+    /** The maximum number of items in each series. */
+    private int capacity;
+
+    /** The series. */
+    private List<Series> series;
+
+    /** 
+     * The minimum time (in milliseconds) between change events, if this is
+     * zero or less an event is sent immediately for every change.
+     */
+    private long notifyInterval;
+
+    /** The handler used to deliver throttled change events. */
+    private transient Handler handler;
+
+    /** The task that sends a pending change event. */
+    private transient Runnable notifier;
+
+    /** A flag that indicates there is a change that has not been reported. */
+    private transient boolean changePending;
+
+    /** A flag that indicates the notifier task has been posted. */
+    private transient boolean notifierPosted;
+
+    /** The time (in milliseconds) that the last event was sent. */
+    private transient long lastNotifyTime;
+
+    /**
+     * Creates a new dataset with a single series.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param capacity  the maximum number of items in the series (must be 
+     *     positive).
+     */
+    public RingBufferXYZDataset(Comparable<?> seriesKey, int capacity) {
+        this(Arrays.<Comparable<?>>asList(seriesKey), capacity);
+    }
+
+    /**
+     * Creates a new dataset with the specified series.
+     * 
+     * @param seriesKeys  the series keys ({@code null} not permitted, and 
+     *     each key must be unique).
+     * @param capacity  the maximum number of items in each series (must be 
+     *     positive).
+     */
+    public RingBufferXYZDataset(List<? extends Comparable<?>> seriesKeys, 
+            int capacity) {
+        ArgChecks.nullNotPermitted(seriesKeys, "seriesKeys");
+        ArgChecks.positiveRequired(capacity, "capacity");
+        this.capacity = capacity;
+        this.series = new ArrayList<Series>(seriesKeys.size());
+        for (Comparable<?> key : seriesKeys) {
+            ArgChecks.nullNotPermitted(key, "key");
+            if (getSeriesIndex(key) >= 0) {
+                throw new IllegalArgumentException(
+                        "Duplicate series key: " + key);
+            }
+            this.series.add(new Series(key, capacity));
+        }
+        this.notifyInterval = DEFAULT_NOTIFY_INTERVAL;
+    }
+
+    /**
+     * Returns the maximum number of items in each series.
+     * 
+     * @return The capacity. 
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the minimum time (in milliseconds) between change events.
+     * 
+     * @return The notify interval.
+     */
+    public long getNotifyInterval() {
+        return this.notifyInterval;
+    }
+
+    /**
+     * Sets the minimum time (in milliseconds) between change events.  If 
+     * this is zero (or less), an event is sent immediately for every change.
+     * 
+     * @param interval  the interval. 
+     */
+    public void setNotifyInterval(long interval) {
+        this.notifyInterval = interval;
+    }
+
+    /**
+     * Returns the number of series in the dataset.
+     * 
+     * @return The number of series in the dataset. 
+     */
+    @Override
+    public int getSeriesCount() {
+        return this.series.size();
+    }
+
+    /**
+     * Returns a new list containing all the series keys.  Modifying this list 
+     * will have no impact on the dataset.
+     * 
+     * @return A list containing the series keys (possibly empty, but never 
+     *     {@code null}).
+     */
+    @Override
+    public List<Comparable<?>> getSeriesKeys() {
+        List<Comparable<?>> result = new ArrayList<Comparable<?>>();
+        for (Series s : this.series) {
+            result.add(s.key);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the series with the specified key, or 
+     * <code>-1</code> if there is no series with the specified key.
+     * 
+     * @param key  the key ({@code null} not permitted).
+     * 
+     * @return The series index or <code>-1</code>. 
+     */
+    @Override
+    public int getSeriesIndex(Comparable<?> key) {
+        ArgChecks.nullNotPermitted(key, "key");
+        for (int i = 0; i < this.series.size(); i++) {
+            if (this.series.get(i).key.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of items currently in the specified series (this
+     * will not exceed the capacity).
+     * 
+     * @param seriesIndex  the series index.
+     * 
+     * @return The item count. 
+     */
+    @Override
+    public int getItemCount(int seriesIndex) {
+        return this.series.get(seriesIndex).count;
+    }
+
+    /**
+     * Returns the x-value for one item in a series (item <code>0</code> is 
+     * the oldest item in the series).
+     * 
+     * @param seriesIndex  the series index.
+     * @param itemIndex  the item index.
+     * 
+     * @return The x-value. 
+     */
+    @Override
+    public double getX(int seriesIndex, int itemIndex) {
+        Series s = this.series.get(seriesIndex);
+        return s.x[s.slot(itemIndex)];
+    }
+
+    /**
+     * Returns the y-value for one item in a series (item <code>0</code> is 
+     * the oldest item in the series).
+     * 
+     * @param seriesIndex  the series index.
+     * @param itemIndex  the item index.
+     * 
+     * @return The y-value. 
+     */
+    @Override
+    public double getY(int seriesIndex, int itemIndex) {
+        Series s = this.series.get(seriesIndex);
+        return s.y[s.slot(itemIndex)];
+    }
+
+    /**
+     * Returns the z-value for one item in a series (item <code>0</code> is 
+     * the oldest item in the series).
+     * 
+     * @param seriesIndex  the series index.
+     * @param itemIndex  the item index.
+     * 
+     * @return The z-value. 
+     */
+    @Override
+    public double getZ(int seriesIndex, int itemIndex) {
+        Series s = this.series.get(seriesIndex);
+        return s.z[s.slot(itemIndex)];
+    }
+
+    /**
+     * Adds an item to a series, replacing the oldest item if the series is
+     * already full.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param x  the x-value.
+     * @param y  the y-value.
+     * @param z  the z-value.
+     */
+    public void add(Comparable<?> seriesKey, double x, double y, double z) {
+        int seriesIndex = getSeriesIndex(seriesKey);
+        if (seriesIndex < 0) {
+            throw new IllegalArgumentException("Series not found: " 
+                    + seriesKey);
+        }
+        add(seriesIndex, x, y, z);
+    }
+
+    /**
+     * Adds an item to a series, replacing the oldest item if the series is
+     * already full.
+     * 
+     * @param seriesIndex  the series index.
+     * @param x  the x-value.
+     * @param y  the y-value.
+     * @param z  the z-value.
+     */
+    public void add(int seriesIndex, double x, double y, double z) {
+        this.series.get(seriesIndex).add(x, y, z);
+        seriesChanged();
+    }
+
+    /**
+     * Adds a block of items to a series, replacing the oldest items as 
+     * necessary, and reports a single change.  Item <code>i</code> is 
+     * <code>(x[i], y[i], z[i])</code>.
+     * 
+     * @param seriesIndex  the series index.
+     * @param x  the x-values ({@code null} not permitted).
+     * @param y  the y-values ({@code null} not permitted).
+     * @param z  the z-values ({@code null} not permitted).
+     */
+    public void addAll(int seriesIndex, double[] x, double[] y, double[] z) {
+        ArgChecks.nullNotPermitted(x, "x");
+        ArgChecks.nullNotPermitted(y, "y");
+        ArgChecks.nullNotPermitted(z, "z");
+        if (y.length != x.length || z.length != x.length) {
+            throw new IllegalArgumentException(
+                    "The x, y and z arrays must have the same length.");
+        }
+        Series s = this.series.get(seriesIndex);
+        for (int i = 0; i < x.length; i++) {
+            s.add(x[i], y[i], z[i]);
+        }
+        seriesChanged();
+    }
+
+    /**
+     * Removes all the items from all the series.
+     */
+    public void clear() {
+        for (Series s : this.series) {
+            s.clear();
+        }
+        seriesChanged();
+    }
+
+    /**
+     * Returns the range of x-values currently in the dataset.
+     * 
+     * @return The range (<code>null</code> if there are no x-values).
+     */
+    @Override
+    public Range getXRange() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Series s : this.series) {
+            min = Math.min(min, s.xMin.peek(s.x, min));
+            max = Math.max(max, s.xMax.peek(s.x, max));
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    /**
+     * Returns the range of y-values currently in the dataset.
+     * 
+     * @return The range (<code>null</code> if there are no y-values).
+     */
+    @Override
+    public Range getYRange() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Series s : this.series) {
+            min = Math.min(min, s.yMin.peek(s.y, min));
+            max = Math.max(max, s.yMax.peek(s.y, max));
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    /**
+     * Returns the range of z-values currently in the dataset.
+     * 
+     * @return The range (<code>null</code> if there are no z-values).
+     */
+    @Override
+    public Range getZRange() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Series s : this.series) {
+            min = Math.min(min, s.zMin.peek(s.z, min));
+            max = Math.max(max, s.zMax.peek(s.z, max));
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    /**
+     * Reports a change to the dataset, either immediately or (if a notify
+     * interval is set) by making sure that a change event will be sent
+     * within the interval.
+     */
+    private void seriesChanged() {
+        if (this.notifyInterval <= 0L) {
+            fireDatasetChanged();
+            return;
+        }
+        synchronized (this) {
+            this.changePending = true;
+            if (this.notifierPosted) {
+                return;
+            }
+            if (this.handler == null) {
+                Looper looper = Looper.myLooper();
+                this.handler = new Handler(looper != null ? looper 
+                        : Looper.getMainLooper());
+                this.notifier = new Notifier();
+            }
+            long delay = this.lastNotifyTime + this.notifyInterval 
+                    - SystemClock.uptimeMillis();
+            this.notifierPosted = true;
+            this.handler.postDelayed(this.notifier, Math.max(0L, delay));
+        }
+    }
+
+    /**
+     * Tests this dataset for equality with an arbitrary object.
+     * 
+     * @param obj  the object ({@code null} permitted).
+     * 
+     * @return A boolean. 
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof RingBufferXYZDataset)) {
+            return false;
+        }
+        RingBufferXYZDataset that = (RingBufferXYZDataset) obj;
+        if (this.capacity != that.capacity) {
+            return false;
+        }
+        if (this.notifyInterval != that.notifyInterval) {
+            return false;
+        }
+        if (!this.series.equals(that.series)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * A task that sends the pending change event (if there is one).
+     */
+    private final class Notifier implements Runnable {
+
+        @Override
+        public void run() {
+            synchronized (RingBufferXYZDataset.this) {
+                notifierPosted = false;
+                if (!changePending) {
+                    return;
+                }
+                changePending = false;
+                lastNotifyTime = SystemClock.uptimeMillis();
+            }
+            fireDatasetChanged();
+        }
+
+    }
+
+    /**
+     * The storage for one series, a ring buffer of x, y and z-values plus 
+     * queues tracking the minimum and maximum values in the buffer.
+     */
+    private static final class Series implements Serializable {
+
+        /** The series key. */
+        private Comparable<?> key;
+
+        /** The x-values. */
+        private double[] x;
+
+        /** The y-values. */
+        private double[] y;
+
+        /** The z-values. */
+        private double[] z;
+
+        /** The slot containing the oldest item. */
+        private int head;
+
+        /** The number of items. */
+        private int count;
+
+        /** Tracks the minimum x-value. */
+        private WindowQueue xMin;
+
+        /** Tracks the maximum x-value. */
+        private WindowQueue xMax;
+
+        /** Tracks the minimum y-value. */
+        private WindowQueue yMin;
+
+        /** Tracks the maximum y-value. */
+        private WindowQueue yMax;
+
+        /** Tracks the minimum z-value. */
+        private WindowQueue zMin;
+
+        /** Tracks the maximum z-value. */
+        private WindowQueue zMax;
+
+        /**
+         * Creates a new (empty) series.
+         * 
+         * @param key  the series key.
+         * @param capacity  the capacity.
+         */
+        Series(Comparable<?> key, int capacity) {
+            this.key = key;
+            this.x = new double[capacity];
+            this.y = new double[capacity];
+            this.z = new double[capacity];
+            this.xMin = new WindowQueue(capacity, false);
+            this.xMax = new WindowQueue(capacity, true);
+            this.yMin = new WindowQueue(capacity, false);
+            this.yMax = new WindowQueue(capacity, true);
+            this.zMin = new WindowQueue(capacity, false);
+            this.zMax = new WindowQueue(capacity, true);
+        }
+
+        /**
+         * Returns the slot for an item, checking that the item index is 
+         * valid.
+         * 
+         * @param item  the item index (<code>0</code> is the oldest item).
+         * 
+         * @return The slot. 
+         */
+        int slot(int item) {
+            if (item < 0 || item >= this.count) {
+                throw new IndexOutOfBoundsException("Index: " + item 
+                        + ", Size: " + this.count);
+            }
+            int slot = this.head + item;
+            return slot < this.x.length ? slot : slot - this.x.length;
+        }
+
+        /**
+         * Adds an item, replacing the oldest item if the series is full.
+         * 
+         * @param xx  the x-value.
+         * @param yy  the y-value.
+         * @param zz  the z-value.
+         */
+        void add(double xx, double yy, double zz) {
+            int slot;
+            if (this.count < this.x.length) {
+                slot = this.head + this.count;
+                if (slot >= this.x.length) {
+                    slot -= this.x.length;
+                }
+                this.count++;
+            } else {
+                slot = this.head;
+                this.xMin.evict(slot);
+                this.xMax.evict(slot);
+                this.yMin.evict(slot);
+                this.yMax.evict(slot);
+                this.zMin.evict(slot);
+                this.zMax.evict(slot);
+                this.head = slot + 1 < this.x.length ? slot + 1 : 0;
+            }
+            this.x[slot] = xx;
+            this.y[slot] = yy;
+            this.z[slot] = zz;
+            this.xMin.push(slot, this.x);
+            this.xMax.push(slot, this.x);
+            this.yMin.push(slot, this.y);
+            this.yMax.push(slot, this.y);
+            this.zMin.push(slot, this.z);
+            this.zMax.push(slot, this.z);
+        }
+
+        /**
+         * Removes all the items.
+         */
+        void clear() {
+            this.head = 0;
+            this.count = 0;
+            this.xMin.clear();
+            this.xMax.clear();
+            this.yMin.clear();
+            this.yMax.clear();
+            this.zMin.clear();
+            this.zMax.clear();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Series)) {
+                return false;
+            }
+            Series that = (Series) obj;
+            if (!this.key.equals(that.key)) {
+                return false;
+            }
+            if (this.count != that.count) {
+                return false;
+            }
+            for (int i = 0; i < this.count; i++) {
+                int s1 = slot(i);
+                int s2 = that.slot(i);
+                if (this.x[s1] != that.x[s2] || this.y[s1] != that.y[s2] 
+                        || this.z[s1] != that.z[s2]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * A monotonic queue of slots that tracks the minimum (or maximum) value 
+     * in a sliding window.  The values for the queued slots are strictly 
+     * increasing (for a minimum) from the front, so the front is always the 
+     * extreme value.  Each slot is added and removed at most once, so 
+     * maintaining the queue takes amortized constant time per item.
+     */
+    private static final class WindowQueue implements Serializable {
+
+        /** The slots (a circular array). */
+        private int[] slots;
+
+        /** The position of the front of the queue in the slots array. */
+        private int first;
+
+        /** The number of slots in the queue. */
+        private int size;
+
+        /** If <code>true</code> track the maximum, otherwise the minimum. */
+        private boolean max;
+
+        /**
+         * Creates a new queue.
+         * 
+         * @param capacity  the capacity (the size of the window).
+         * @param max  track the maximum (<code>true</code>) or minimum.
+         */
+        WindowQueue(int capacity, boolean max) {
+            this.slots = new int[capacity];
+            this.max = max;
+        }
+
+        /**
+         * Adds the newest slot to the window, first dropping the slots that 
+         * can no longer be the extreme value.  <code>Double.NaN</code> 
+         * values are ignored.
+         * 
+         * @param slot  the slot.
+         * @param values  the values.
+         */
+        void push(int slot, double[] values) {
+            double v = values[slot];
+            if (Double.isNaN(v)) {
+                return;
+            }
+            while (this.size > 0) {
+                int last = this.first + this.size - 1;
+                if (last >= this.slots.length) {
+                    last -= this.slots.length;
+                }
+                double u = values[this.slots[last]];
+                if (this.max ? u > v : u < v) {
+                    break;
+                }
+                this.size--;
+            }
+            int pos = this.first + this.size;
+            if (pos >= this.slots.length) {
+                pos -= this.slots.length;
+            }
+            this.slots[pos] = slot;
+            this.size++;
+        }
+
+        /**
+         * Removes the oldest slot from the window.
+         * 
+         * @param slot  the slot being removed.
+         */
+        void evict(int slot) {
+            if (this.size > 0 && this.slots[this.first] == slot) {
+                this.first = this.first + 1 < this.slots.length 
+                        ? this.first + 1 : 0;
+                this.size--;
+            }
+        }
+
+        /**
+         * Returns the extreme value in the window.
+         * 
+         * @param values  the values.
+         * @param empty  the value to return if the window is empty.
+         * 
+         * @return The minimum (or maximum) value.
+         */
+        double peek(double[] values, double empty) {
+            return this.size > 0 ? values[this.slots[this.first]] : empty;
+        }
+
+        /**
+         * Empties the queue.
+         */
+        void clear() {
+            this.first = 0;
+            this.size = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.xyz;
+
+import java.io.Serializable;
+
+import com.orsoncharts.android.data.ItemKey;
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * An item key for an {@link XYZDataset}, where each item is identified by
+ * a series key and the index of the item within the series.  Instances of 
+ * this class are immutable.
+ * 
+ * @since 1.2
+ */
+public final class XYZItemKey implements ItemKey, Serializable {
+
+    /** The series key. */
+    private Comparable<?> seriesKey;
+
+    /** The item index. */
+    private int itemIndex;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param seriesKey  the series key ({@code null} not permitted).
+     * @param itemIndex  the item index.
+     */
+    public XYZItemKey(Comparable<?> seriesKey, int itemIndex) {
+        ArgChecks.nullNotPermitted(seriesKey, "seriesKey");
+        this.seriesKey = seriesKey;
+        this.itemIndex = itemIndex;
+    }
+
+    /**
+     * Returns the series key.
+     * 
+     * @return The series key (never {@code null}). 
+     */
+    public Comparable<?> getSeriesKey() {
+        return this.seriesKey;
+    }
+
+    /**
+     * Returns the index of the item within its series.
+     * 
+     * @return The item index. 
+     */
+    public int getItemIndex() {
+        return this.itemIndex;
+    }
+
+    /**
+     * Tests this instance for equality with an arbitrary object.
+     * 
+     * @param obj  the object to test ({@code null} permitted).
+     * 
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof XYZItemKey)) {
+            return false;
+        }
+        XYZItemKey that = (XYZItemKey) obj;
+        if (!this.seriesKey.equals(that.seriesKey)) {
+            return false;
+        }
+        if (this.itemIndex != that.itemIndex) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + this.seriesKey.hashCode();
+        hash = 41 * hash + this.itemIndex;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "XYZItemKey[" + this.seriesKey + ", " + this.itemIndex + "]";
+    }
+}
@@ -0,0 +1,73 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.xyz;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.data.DataUtils;
+
+/**
+ * An optional interface for an {@link XYZDataset} that keeps track of the 
+ * range of its x, y and z-values, so that the ranges can be obtained without
+ * iterating over all the items.  The <code>findXRange()</code>, 
+ * <code>findYRange()</code> and <code>findZRange()</code> methods in 
+ * {@link DataUtils} use this interface when it is available.
+ * 
+ * @since 1.2
+ */
+public interface XYZRangeInfo {
+
+    /**
+     * Returns the range of x-values in the dataset, ignoring 
+     * <code>Double.NaN</code> values.
+     * 
+     * @return The range (<code>null</code> if there are no x-values).
+     */
+    Range getXRange();
+
+    /**
+     * Returns the range of y-values in the dataset, ignoring 
+     * <code>Double.NaN</code> values.
+     * 
+     * @return The range (<code>null</code> if there are no y-values).
+     */
+    Range getYRange();
+
+    /**
+     * Returns the range of z-values in the dataset, ignoring 
+     * <code>Double.NaN</code> values.
+     * 
+     * @return The range (<code>null</code> if there are no z-values).
+     */
+    Range getZRange();
+
+}
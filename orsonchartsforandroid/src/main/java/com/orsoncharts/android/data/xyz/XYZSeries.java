@@ -32,23 +32,58 @@
 
 package com.orsoncharts.android.data.xyz;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.io.Serializable;
+import java.util.Arrays;
+import com.orsoncharts.android.Range;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
  * A data series containing a sequence of <code>(x, y, z)</code> data items.  
  * The series has a key to identify it, and can be added to an 
  * {@link XYZSeriesCollection} to create a dataset.
+ * <br><br>
+ * The values are stored in three primitive arrays (one for each of x, y and
+ * z) rather than as individual data item objects, so that large series can 
+ * be held compactly.  The series also tracks the minimum and maximum x, y 
+ * and z values as items are added.
  */
 public class XYZSeries implements Serializable {
 
+    /** The initial capacity used when none is specified. */
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
     /** The series key (never {@code null}). */
     private Comparable<?> key;
 
-    /** The data items in the series. */
-    private List<XYZDataItem> items;
+    /** The x-values (only the first {@code itemCount} entries are used). */
+    private double[] xValues;
+
+    /** The y-values (only the first {@code itemCount} entries are used). */
+    private double[] yValues;
+
+    /** The z-values (only the first {@code itemCount} entries are used). */
+    private double[] zValues;
+
+    /** The number of items in the series. */
+    private int itemCount;
+
+    /** The smallest x-value (ignoring <code>Double.NaN</code>). */
+    private double xMin;
+
+    /** The largest x-value (ignoring <code>Double.NaN</code>). */
+    private double xMax;
+
+    /** The smallest y-value (ignoring <code>Double.NaN</code>). */
+    private double yMin;
+
+    /** The largest y-value (ignoring <code>Double.NaN</code>). */
+    private double yMax;
+
+    /** The smallest z-value (ignoring <code>Double.NaN</code>). */
+    private double zMin;
+
+    /** The largest z-value (ignoring <code>Double.NaN</code>). */
+    private double zMax;
 
     /**
      * Creates a new series with the specified key.
@@ -56,9 +91,34 @@ public class XYZSeries implements Serializable {
      * @param key  the key ({@code null} not permitted).
      */
     public XYZSeries(Comparable<?> key) {
+        this(key, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new series with the specified key and enough storage for
+     * <code>initialCapacity</code> items (the storage grows as required, 
+     * but specifying the expected size avoids reallocation when adding a 
+     * large number of items).
+     * 
+     * @param key  the key ({@code null} not permitted).
+     * @param initialCapacity  the initial capacity (must be zero or greater).
+     * 
+     * @since 1.2
+     */
+    public XYZSeries(Comparable<?> key, int initialCapacity) {
         ArgChecks.nullNotPermitted(key, "key");
+        ArgChecks.negativeNotPermitted(initialCapacity, "initialCapacity");
         this.key = key;
-        this.items = new ArrayList<XYZDataItem>();
+        this.xValues = new double[initialCapacity];
+        this.yValues = new double[initialCapacity];
+        this.zValues = new double[initialCapacity];
+        this.itemCount = 0;
+        this.xMin = Double.POSITIVE_INFINITY;
+        this.xMax = Double.NEGATIVE_INFINITY;
+        this.yMin = Double.POSITIVE_INFINITY;
+        this.yMax = Double.NEGATIVE_INFINITY;
+        this.zMin = Double.POSITIVE_INFINITY;
+        this.zMax = Double.NEGATIVE_INFINITY;
     }
 
     /**
@@ -76,7 +136,7 @@ public class XYZSeries implements Serializable {
      * @return The number of items in the series. 
      */
     public int getItemCount() {
-        return this.items.size();
+        return this.itemCount;
     }
     
     /**
@@ -87,7 +147,8 @@ public class XYZSeries implements Serializable {
      * @return The x-value. 
      */
     public double getXValue(int itemIndex) {
-        return this.items.get(itemIndex).getX();
+        checkItemIndex(itemIndex);
+        return this.xValues[itemIndex];
     }
   
     /**
@@ -98,7 +159,8 @@ public class XYZSeries implements Serializable {
      * @return The y-value. 
      */
     public double getYValue(int itemIndex) {
-        return this.items.get(itemIndex).getY();
+        checkItemIndex(itemIndex);
+        return this.yValues[itemIndex];
     }
 
     /**
@@ -109,7 +171,50 @@ public class XYZSeries implements Serializable {
      * @return The z-value. 
      */
     public double getZValue(int itemIndex) {
-        return this.items.get(itemIndex).getZ();
+        checkItemIndex(itemIndex);
+        return this.zValues[itemIndex];
+    }
+
+    /**
+     * Returns the range of x-values in the series, ignoring any 
+     * <code>Double.NaN</code> values.  This is tracked as items are added,
+     * so it does not require a pass over the data.
+     * 
+     * @return The range (<code>null</code> if the series contains no 
+     *     x-values other than <code>Double.NaN</code>). 
+     * 
+     * @since 1.2
+     */
+    public Range getXRange() {
+        return this.xMin <= this.xMax ? new Range(this.xMin, this.xMax) : null;
+    }
+
+    /**
+     * Returns the range of y-values in the series, ignoring any 
+     * <code>Double.NaN</code> values.  This is tracked as items are added,
+     * so it does not require a pass over the data.
+     * 
+     * @return The range (<code>null</code> if the series contains no 
+     *     y-values other than <code>Double.NaN</code>). 
+     * 
+     * @since 1.2
+     */
+    public Range getYRange() {
+        return this.yMin <= this.yMax ? new Range(this.yMin, this.yMax) : null;
+    }
+
+    /**
+     * Returns the range of z-values in the series, ignoring any 
+     * <code>Double.NaN</code> values.  This is tracked as items are added,
+     * so it does not require a pass over the data.
+     * 
+     * @return The range (<code>null</code> if the series contains no 
+     *     z-values other than <code>Double.NaN</code>). 
+     * 
+     * @since 1.2
+     */
+    public Range getZRange() {
+        return this.zMin <= this.zMax ? new Range(this.zMin, this.zMax) : null;
     }
 
     /**
@@ -120,7 +225,12 @@ public class XYZSeries implements Serializable {
      * @param z  the z-value.
      */
     public void add(double x, double y, double z) {
-        add(new XYZDataItem(x, y, z));   
+        ensureCapacity(this.itemCount + 1);
+        this.xValues[this.itemCount] = x;
+        this.yValues[this.itemCount] = y;
+        this.zValues[this.itemCount] = z;
+        this.itemCount++;
+        include(x, y, z);
     }
 
     /**
@@ -130,7 +240,99 @@ public class XYZSeries implements Serializable {
      */
     public void add(XYZDataItem item) {
         ArgChecks.nullNotPermitted(item, "item");
-        this.items.add(item);
+        add(item.getX(), item.getY(), item.getZ());
+    }
+
+    /**
+     * Adds a block of data items to the series.  The three arrays must have
+     * the same length, and item <code>i</code> is 
+     * <code>(x[i], y[i], z[i])</code>.  The values are copied, so the 
+     * arrays can be reused by the caller.
+     * 
+     * @param x  the x-values ({@code null} not permitted).
+     * @param y  the y-values ({@code null} not permitted).
+     * @param z  the z-values ({@code null} not permitted).
+     * 
+     * @since 1.2
+     */
+    public void addAll(double[] x, double[] y, double[] z) {
+        ArgChecks.nullNotPermitted(x, "x");
+        ArgChecks.nullNotPermitted(y, "y");
+        ArgChecks.nullNotPermitted(z, "z");
+        if (y.length != x.length || z.length != x.length) {
+            throw new IllegalArgumentException(
+                    "The x, y and z arrays must have the same length.");
+        }
+        int n = x.length;
+        ensureCapacity(this.itemCount + n);
+        System.arraycopy(x, 0, this.xValues, this.itemCount, n);
+        System.arraycopy(y, 0, this.yValues, this.itemCount, n);
+        System.arraycopy(z, 0, this.zValues, this.itemCount, n);
+        this.itemCount += n;
+        for (int i = 0; i < n; i++) {
+            include(x[i], y[i], z[i]);
+        }
+    }
+
+    /**
+     * Updates the tracked minimum and maximum values to include the 
+     * specified item.  <code>Double.NaN</code> values are ignored (the 
+     * comparisons below are always false for them).
+     * 
+     * @param x  the x-value.
+     * @param y  the y-value.
+     * @param z  the z-value.
+     */
+    private void include(double x, double y, double z) {
+        if (x < this.xMin) {
+            this.xMin = x;
+        }
+        if (x > this.xMax) {
+            this.xMax = x;
+        }
+        if (y < this.yMin) {
+            this.yMin = y;
+        }
+        if (y > this.yMax) {
+            this.yMax = y;
+        }
+        if (z < this.zMin) {
+            this.zMin = z;
+        }
+        if (z > this.zMax) {
+            this.zMax = z;
+        }
+    }
+
+    /**
+     * Makes sure the value arrays can hold at least the specified number of 
+     * items, growing them (by at least half the current capacity, so that 
+     * appending is amortized constant time) if necessary.
+     * 
+     * @param capacity  the required capacity.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.xValues.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, 
+                this.xValues.length + (this.xValues.length >> 1) + 1);
+        this.xValues = Arrays.copyOf(this.xValues, newCapacity);
+        this.yValues = Arrays.copyOf(this.yValues, newCapacity);
+        this.zValues = Arrays.copyOf(this.zValues, newCapacity);
+    }
+
+    /**
+     * Checks that the item index is valid (the value arrays usually have 
+     * spare capacity, so the array access alone would not catch this).
+     * 
+     * @param itemIndex  the item index.
+     */
+    private void checkItemIndex(int itemIndex) {
+        if (itemIndex < 0 || itemIndex >= this.itemCount) {
+            throw new IndexOutOfBoundsException("Index: " + itemIndex 
+                    + ", Size: " + this.itemCount);
+        }
     }
 
     /**
@@ -152,9 +354,16 @@ public class XYZSeries implements Serializable {
         if (!this.key.equals(that.key)) {
             return false;
         }
-        if (!this.items.equals(that.items)) {
+        if (this.itemCount != that.itemCount) {
             return false;
         }
+        for (int i = 0; i < this.itemCount; i++) {
+            if (this.xValues[i] != that.xValues[i] 
+                    || this.yValues[i] != that.yValues[i] 
+                    || this.zValues[i] != that.zValues[i]) {
+                return false;
+            }
+        }
         return true;
     }
 }
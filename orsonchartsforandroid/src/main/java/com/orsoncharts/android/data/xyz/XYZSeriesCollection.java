@@ -36,6 +36,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.orsoncharts.android.Range;
 import com.orsoncharts.android.data.AbstractDataset3D;
 import com.orsoncharts.android.plot.XYZPlot;
 import com.orsoncharts.android.renderer.xyz.XYZRenderer;
@@ -47,7 +48,7 @@ import com.orsoncharts.android.util.ArgChecks;
  * {@link XYZRenderer} on an {@link XYZPlot}).
  */
 public class XYZSeriesCollection extends AbstractDataset3D 
-        implements XYZDataset, Serializable {
+        implements XYZDataset, XYZRangeInfo, Serializable {
 
     /** Storage for the data series. */
     private List<XYZSeries> series;
@@ -169,6 +170,79 @@ public class XYZSeriesCollection extends AbstractDataset3D
         return s.getZValue(itemIndex);
     }
 
+    /**
+     * Returns the range of x-values in the dataset.  This is derived from 
+     * the ranges tracked by each series, so it does not require a pass over 
+     * the data.
+     * 
+     * @return The range (<code>null</code> if there are no x-values).
+     * 
+     * @since 1.2
+     */
+    @Override
+    public Range getXRange() {
+        Range result = null;
+        for (XYZSeries s : this.series) {
+            result = combine(result, s.getXRange());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the range of y-values in the dataset.  This is derived from 
+     * the ranges tracked by each series, so it does not require a pass over 
+     * the data.
+     * 
+     * @return The range (<code>null</code> if there are no y-values).
+     * 
+     * @since 1.2
+     */
+    @Override
+    public Range getYRange() {
+        Range result = null;
+        for (XYZSeries s : this.series) {
+            result = combine(result, s.getYRange());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the range of z-values in the dataset.  This is derived from 
+     * the ranges tracked by each series, so it does not require a pass over 
+     * the data.
+     * 
+     * @return The range (<code>null</code> if there are no z-values).
+     * 
+     * @since 1.2
+     */
+    @Override
+    public Range getZRange() {
+        Range result = null;
+        for (XYZSeries s : this.series) {
+            result = combine(result, s.getZRange());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a range that spans both the specified ranges.
+     * 
+     * @param r1  the first range ({@code null} permitted).
+     * @param r2  the second range ({@code null} permitted).
+     * 
+     * @return The combined range (possibly {@code null}). 
+     */
+    private static Range combine(Range r1, Range r2) {
+        if (r1 == null) {
+            return r2;
+        }
+        if (r2 == null) {
+            return r1;
+        }
+        return new Range(Math.min(r1.getMin(), r2.getMin()), 
+                Math.max(r1.getMax(), r2.getMax()));
+    }
+
     /**
      * Tests this dataset for equality with an arbitrary object.
      * 
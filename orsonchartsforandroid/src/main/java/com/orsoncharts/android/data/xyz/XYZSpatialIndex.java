@@ -0,0 +1,475 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.xyz;
+
+import java.util.Arrays;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * A spatial index (a k-d tree) over the items in an {@link XYZDataset}, 
+ * used to find the items that lie within a box in data space, or the item
+ * that is nearest to a point, without visiting every item in the dataset.
+ * <br><br>
+ * Each item is identified by its <i>position</i>, which is its index in a 
+ * series-by-series enumeration of the dataset (so position <code>0</code> 
+ * is the first item in the first series).  Use {@link #getSeries(int)} and 
+ * {@link #getItem(int)} to map a position back to the dataset.  Items with 
+ * a <code>NaN</code> coordinate are not included in the index.
+ * <br><br>
+ * The index is a snapshot of the dataset at the time it is created, so a 
+ * new index must be created when the dataset changes.  Building the index
+ * takes <code>O(n log n)</code> time for <code>n</code> items, while a 
+ * nearest item query takes <code>O(log n)</code> time on average.
+ * 
+ * @since 1.2
+ */
+public class XYZSpatialIndex {
+
+    /** The series index for each position. */
+    private int[] series;
+
+    /** The item index for each position. */
+    private int[] items;
+
+    /** The number of items in the tree. */
+    private int size;
+
+    /** 
+     * The coordinates of the item at each node of the tree, packed as 
+     * (x, y, z) triples.  The node at the middle of a range of nodes 
+     * splits the range (the nodes before it have coordinates less than or 
+     * equal to its coordinate along the split axis, and the nodes after 
+     * it have coordinates greater than or equal to it). 
+     */
+    private double[] coords;
+
+    /** The position of the item at each node of the tree. */
+    private int[] positions;
+
+    /** The split axis (0, 1 or 2 for x, y or z) for each node. */
+    private byte[] axes;
+
+    /**
+     * Creates a new index for the items in the specified dataset.
+     * 
+     * @param dataset  the dataset ({@code null} not permitted).
+     */
+    public XYZSpatialIndex(XYZDataset dataset) {
+        ArgChecks.nullNotPermitted(dataset, "dataset");
+        int seriesCount = dataset.getSeriesCount();
+        int itemCount = 0;
+        for (int s = 0; s < seriesCount; s++) {
+            itemCount += dataset.getItemCount(s);
+        }
+        this.series = new int[itemCount];
+        this.items = new int[itemCount];
+        this.coords = new double[itemCount * 3];
+        this.positions = new int[itemCount];
+        this.axes = new byte[itemCount];
+        int p = 0;
+        int n = 0;
+        for (int s = 0; s < seriesCount; s++) {
+            int count = dataset.getItemCount(s);
+            for (int i = 0; i < count; i++) {
+                this.series[p] = s;
+                this.items[p] = i;
+                double x = dataset.getX(s, i);
+                double y = dataset.getY(s, i);
+                double z = dataset.getZ(s, i);
+                if (!Double.isNaN(x) && !Double.isNaN(y) 
+                        && !Double.isNaN(z)) {
+                    this.coords[n * 3] = x;
+                    this.coords[n * 3 + 1] = y;
+                    this.coords[n * 3 + 2] = z;
+                    this.positions[n] = p;
+                    n++;
+                }
+                p++;
+            }
+        }
+        this.size = n;
+        build(0, n);
+    }
+
+    /**
+     * Returns the number of items in the dataset when the index was created
+     * (including items that are not in the index because they have a 
+     * <code>NaN</code> coordinate).
+     * 
+     * @return The item count. 
+     */
+    public int getItemCount() {
+        return this.series.length;
+    }
+
+    /**
+     * Returns the series index for the item at the specified position.
+     * 
+     * @param position  the position.
+     * 
+     * @return The series index. 
+     */
+    public int getSeries(int position) {
+        return this.series[position];
+    }
+
+    /**
+     * Returns the item index (within its series) for the item at the 
+     * specified position.
+     * 
+     * @param position  the position.
+     * 
+     * @return The item index. 
+     */
+    public int getItem(int position) {
+        return this.items[position];
+    }
+
+    /**
+     * Returns the positions of all the items that lie within the specified
+     * ranges (inclusive), in ascending order (which is the order in which
+     * the items appear in the dataset).
+     * 
+     * @param xRange  the x-range ({@code null} not permitted).
+     * @param yRange  the y-range ({@code null} not permitted).
+     * @param zRange  the z-range ({@code null} not permitted).
+     * 
+     * @return The positions (possibly empty, but never {@code null}). 
+     */
+    public int[] findItems(Range xRange, Range yRange, Range zRange) {
+        ArgChecks.nullNotPermitted(xRange, "xRange");
+        ArgChecks.nullNotPermitted(yRange, "yRange");
+        ArgChecks.nullNotPermitted(zRange, "zRange");
+        double[] box = new double[] {xRange.getMin(), yRange.getMin(), 
+            zRange.getMin(), xRange.getMax(), yRange.getMax(), 
+            zRange.getMax()};
+        int[] result = new int[Math.min(this.size, 64)];
+        int count = collect(0, this.size, box, result, 0);
+        if (count < 0) {
+            // the result array was too small, so count first then collect
+            result = new int[countItems(0, this.size, box)];
+            count = collect(0, this.size, box, result, 0);
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the position of the item nearest to the specified point, or
+     * <code>-1</code> if the index is empty.  The distance along each axis 
+     * is multiplied by a scale factor before the distances are combined, so
+     * that (for example) distances can be measured in world units rather 
+     * than data units when the axes have different ranges.  If two or more
+     * items are equally near, one of them is returned.
+     * 
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     * @param z  the z-coordinate.
+     * @param xScale  the scale factor for distances along the x-axis.
+     * @param yScale  the scale factor for distances along the y-axis.
+     * @param zScale  the scale factor for distances along the z-axis.
+     * 
+     * @return The position of the nearest item, or <code>-1</code>. 
+     */
+    public int findNearest(double x, double y, double z, double xScale, 
+            double yScale, double zScale) {
+        if (this.size == 0) {
+            return -1;
+        }
+        double[] target = new double[] {x, y, z};
+        double[] scale = new double[] {xScale * xScale, yScale * yScale, 
+            zScale * zScale};
+        // the best squared distance so far, and the node for that item
+        double[] best = new double[] {Double.POSITIVE_INFINITY, 0.0};
+        nearest(0, this.size, target, scale, best);
+        return this.positions[(int) best[1]];
+    }
+
+    /**
+     * Arranges the nodes in the range <code>lo</code> (inclusive) to 
+     * <code>hi</code> (exclusive) into a subtree, splitting along the axis
+     * with the largest extent.
+     * 
+     * @param lo  the first node.
+     * @param hi  the node after the last node.
+     */
+    private void build(int lo, int hi) {
+        while (hi - lo > 1) {
+            int axis = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, axis);
+            this.axes[mid] = (byte) axis;
+            // recurse into the upper half (which is never the larger one, 
+            // so the depth is at most log2(n)) and loop on the lower half
+            build(mid + 1, hi);
+            hi = mid;
+        }
+    }
+
+    /**
+     * Returns the axis along which the items in the specified range of 
+     * nodes have the largest extent.
+     * 
+     * @param lo  the first node.
+     * @param hi  the node after the last node.
+     * 
+     * @return The axis (0, 1 or 2). 
+     */
+    private int widestAxis(int lo, int hi) {
+        double[] c = this.coords;
+        double x0 = c[lo * 3], y0 = c[lo * 3 + 1], z0 = c[lo * 3 + 2];
+        double x1 = x0, y1 = y0, z1 = z0;
+        for (int i = lo + 1; i < hi; i++) {
+            double x = c[i * 3], y = c[i * 3 + 1], z = c[i * 3 + 2];
+            if (x < x0) {
+                x0 = x;
+            } else if (x > x1) {
+                x1 = x;
+            }
+            if (y < y0) {
+                y0 = y;
+            } else if (y > y1) {
+                y1 = y;
+            }
+            if (z < z0) {
+                z0 = z;
+            } else if (z > z1) {
+                z1 = z;
+            }
+        }
+        double dx = x1 - x0, dy = y1 - y0, dz = z1 - z0;
+        if (dx >= dy && dx >= dz) {
+            return 0;
+        }
+        return dy >= dz ? 1 : 2;
+    }
+
+    /**
+     * Partially sorts the nodes in the range <code>left</code> to 
+     * <code>right</code> (both inclusive) so that the node at 
+     * <code>k</code> has the value it would have in a full sort along 
+     * the specified axis, with no greater values before it and no lesser
+     * values after it.
+     * 
+     * @param left  the first node.
+     * @param right  the last node.
+     * @param k  the node to select.
+     * @param axis  the axis.
+     */
+    private void select(int left, int right, int k, int axis) {
+        double[] c = this.coords;
+        while (right > left) {
+            double pivot = c[((left + right) >>> 1) * 3 + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (c[i * 3 + axis] < pivot) {
+                    i++;
+                }
+                while (c[j * 3 + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swaps two nodes.
+     * 
+     * @param i  the first node.
+     * @param j  the second node.
+     */
+    private void swap(int i, int j) {
+        double[] c = this.coords;
+        for (int a = 0; a < 3; a++) {
+            double t = c[i * 3 + a];
+            c[i * 3 + a] = c[j * 3 + a];
+            c[j * 3 + a] = t;
+        }
+        int p = this.positions[i];
+        this.positions[i] = this.positions[j];
+        this.positions[j] = p;
+    }
+
+    /**
+     * Returns <code>true</code> if the item at the specified node lies 
+     * within the box.
+     * 
+     * @param node  the node.
+     * @param box  the box (min x, y, z followed by max x, y, z).
+     * 
+     * @return A boolean. 
+     */
+    private boolean contains(int node, double[] box) {
+        double[] c = this.coords;
+        double x = c[node * 3], y = c[node * 3 + 1], z = c[node * 3 + 2];
+        return x >= box[0] && x <= box[3] && y >= box[1] && y <= box[4] 
+                && z >= box[2] && z <= box[5];
+    }
+
+    /**
+     * Adds the positions of the items in the subtree that lie within the 
+     * box to the result array.
+     * 
+     * @param lo  the first node.
+     * @param hi  the node after the last node.
+     * @param box  the box.
+     * @param result  the result array.
+     * @param count  the number of positions already in the result array.
+     * 
+     * @return The new number of positions in the result array, or 
+     *     <code>-1</code> if the array is too small.
+     */
+    private int collect(int lo, int hi, double[] box, int[] result, 
+            int count) {
+        while (lo < hi && count >= 0) {
+            int mid = (lo + hi) >>> 1;
+            int axis = this.axes[mid];
+            double v = this.coords[mid * 3 + axis];
+            if (contains(mid, box)) {
+                if (count == result.length) {
+                    return -1;
+                }
+                result[count++] = this.positions[mid];
+            }
+            boolean left = box[axis] <= v;
+            boolean right = box[axis + 3] >= v;
+            if (left && right) {
+                count = collect(lo, mid, box, result, count);
+                lo = mid + 1;
+            } else if (left) {
+                hi = mid;
+            } else if (right) {
+                lo = mid + 1;
+            } else {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of items in the subtree that lie within the box.
+     * 
+     * @param lo  the first node.
+     * @param hi  the node after the last node.
+     * @param box  the box.
+     * 
+     * @return The count. 
+     */
+    private int countItems(int lo, int hi, double[] box) {
+        int count = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int axis = this.axes[mid];
+            double v = this.coords[mid * 3 + axis];
+            if (contains(mid, box)) {
+                count++;
+            }
+            boolean left = box[axis] <= v;
+            boolean right = box[axis + 3] >= v;
+            if (left && right) {
+                count += countItems(lo, mid, box);
+                lo = mid + 1;
+            } else if (left) {
+                hi = mid;
+            } else if (right) {
+                lo = mid + 1;
+            } else {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Searches the subtree for an item nearer to the target than the best
+     * item found so far.
+     * 
+     * @param lo  the first node.
+     * @param hi  the node after the last node.
+     * @param target  the target point.
+     * @param scale  the squared scale factors for each axis.
+     * @param best  the squared distance to the best item found so far and 
+     *     the node for that item (updated by this method).
+     */
+    private void nearest(int lo, int hi, double[] target, double[] scale, 
+            double[] best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double[] c = this.coords;
+        double dx = c[mid * 3] - target[0];
+        double dy = c[mid * 3 + 1] - target[1];
+        double dz = c[mid * 3 + 2] - target[2];
+        double d = dx * dx * scale[0] + dy * dy * scale[1] 
+                + dz * dz * scale[2];
+        if (d < best[0]) {
+            best[0] = d;
+            best[1] = mid;
+        }
+        if (hi - lo == 1) {
+            return;
+        }
+        int axis = this.axes[mid];
+        double delta = target[axis] - c[mid * 3 + axis];
+        if (delta < 0.0) {
+            nearest(lo, mid, target, scale, best);
+            if (delta * delta * scale[axis] < best[0]) {
+                nearest(mid + 1, hi, target, scale, best);
+            }
+        } else {
+            nearest(mid + 1, hi, target, scale, best);
+            if (delta * delta * scale[axis] < best[0]) {
+                nearest(lo, mid, target, scale, best);
+            }
+        }
+    }
+
+}
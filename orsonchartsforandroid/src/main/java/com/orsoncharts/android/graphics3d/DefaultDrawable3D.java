@@ -182,6 +182,14 @@ public class DefaultDrawable3D implements Drawable3D {
         Collections.sort(facesInPaintOrder, new ZOrderComparator(eyePts));
 
         for (Face f : facesInPaintOrder) {
+            if (f instanceof GlyphFace) {
+                GlyphFace gf = (GlyphFace) f;
+                int v = gf.getVertexIndex(0);
+                gf.draw(canvas, paint, pts[v].getX(), pts[v].getY(), 
+                        gf.getScreenSize(eyePts[v].getZ(), this.projDist), 
+                        gf.getColor());
+                continue;
+            }
             double[] plane = f.calculateNormal(eyePts);
             double inprod = plane[0] * this.world.getSunX() + plane[1]
                     * this.world.getSunY() + plane[2] * this.world.getSunZ();
@@ -32,6 +32,7 @@
 
 package com.orsoncharts.android.graphics3d;
 
+import com.orsoncharts.android.data.ItemKey;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
@@ -57,6 +58,21 @@ public class Face {
      */
     private boolean outline;
 
+    /** 
+     * The key for the data item that this face represents ({@code null} if
+     * the face does not represent a data item).
+     */
+    private ItemKey itemKey;
+
+    /** 
+     * The series index for the data item that this face represents (or 
+     * <code>-1</code>), used when no item key is set.
+     */
+    private int itemSeries;
+
+    /** The item index for the data item that this face represents. */
+    private int itemIndex;
+
     /**
      * Creates a new face.
      *
@@ -71,10 +87,27 @@ public class Face {
         ArgChecks.nullNotPermitted(color, "color");
         this.vertices = vertices;
         this.offset = 0;
+        this.itemSeries = -1;
+        this.itemIndex = -1;
         this.color = color;
         this.outline = outline;
     }
 
+    /**
+     * Creates a new face with a single vertex (used by {@link GlyphFace}).
+     * 
+     * @param vertex  the vertex index.
+     * @param color  the face color.
+     */
+    Face(int vertex, int color) {
+        this.vertices = new int[] {vertex};
+        this.offset = 0;
+        this.itemSeries = -1;
+        this.itemIndex = -1;
+        this.color = color;
+        this.outline = false;
+    }
+
     /**
      * Returns the offset to add to the vertex indices.
      *
@@ -133,6 +166,82 @@ public class Face {
         return this.outline;
     }
     
+    /**
+     * Returns the key for the data item that this face represents, or 
+     * {@code null} if the face does not represent a data item.
+     * 
+     * @return The item key (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public ItemKey getItemKey() {
+        return this.itemKey;
+    }
+
+    /**
+     * Sets the key for the data item that this face represents.
+     * 
+     * @param key  the item key ({@code null} permitted).
+     * 
+     * @since 1.2
+     */
+    public void setItemKey(ItemKey key) {
+        this.itemKey = key;
+    }
+
+    /**
+     * Returns the series index for the data item that this face represents,
+     * or <code>-1</code> if it has not been set (see 
+     * {@link #setItem(int, int)}).
+     * 
+     * @return The series index.
+     * 
+     * @since 1.2
+     */
+    public int getItemSeries() {
+        return this.itemSeries;
+    }
+
+    /**
+     * Returns the item index for the data item that this face represents, 
+     * or <code>-1</code> if it has not been set.
+     * 
+     * @return The item index.
+     * 
+     * @since 1.2
+     */
+    public int getItemIndex() {
+        return this.itemIndex;
+    }
+
+    /**
+     * Sets the series and item indices for the data item that this face 
+     * represents.  This is a cheaper alternative to 
+     * {@link #setItemKey(ItemKey)} for plots with many items, since the key 
+     * can be created from the indices only when it is needed.
+     * 
+     * @param series  the series index.
+     * @param item  the item index.
+     * 
+     * @since 1.2
+     */
+    public void setItem(int series, int item) {
+        this.itemSeries = series;
+        this.itemIndex = item;
+    }
+
+    /**
+     * Returns {@code true} if this face represents a data item (that is, if
+     * it has an item key or item indices), and {@code false} otherwise.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.2
+     */
+    public boolean hasItem() {
+        return this.itemKey != null || this.itemSeries >= 0;
+    }
+
     /**
      * Calculates the normal vector for this face.
      *
@@ -164,6 +273,43 @@ public class Face {
         return new double[] {a, b, c};
     }
 
+    /**
+     * Calculates the normal vector for this face using packed (x, y, z) 
+     * coordinates.
+     *
+     * @param coords  the vertex coordinates, packed as (x, y, z) triples 
+     *     (these can be in world or eye coordinates).
+     * @param result  an array to carry the result ({@code null} permitted).
+     *
+     * @return The normal vector (in the <code>result</code> array if one
+     *     was supplied, otherwise in a newly allocated array).
+     * 
+     * @since 1.2
+     */
+    public double[] calculateNormal(double[] coords, double[] result) {
+        if (result == null) {
+            result = new double[3];
+        }
+        int iA = (this.vertices[0] + this.offset) * 3;
+        int iB = (this.vertices[1] + this.offset) * 3;
+        int iC = (this.vertices[2] + this.offset) * 3;
+        double aX = coords[iA];
+        double aY = coords[iA + 1];
+        double aZ = coords[iA + 2];
+        double u1 = coords[iB] - aX, u2 = coords[iB + 1] - aY, 
+                u3 = coords[iB + 2] - aZ;
+        double v1 = coords[iC] - aX, v2 = coords[iC + 1] - aY, 
+                v3 = coords[iC + 2] - aZ;
+        double a = u2 * v3 - u3 * v2,
+               b = u3 * v1 - u1 * v3,
+               c = u1 * v2 - u2 * v1,
+               len = Math.sqrt(a * a + b * b + c * c);
+        result[0] = a / len;
+        result[1] = b / len;
+        result[2] = c / len;
+        return result;
+    }
+
     /**
      * Returns the average z-value.
      *
@@ -179,6 +325,24 @@ public class Face {
         return total / this.vertices.length;
     }
 
+    /**
+     * Returns the average z-value using packed (x, y, z) coordinates.
+     *
+     * @param coords  the eye coordinates, packed as (x, y, z) triples.
+     *
+     * @return The average z-value.
+     * 
+     * @since 1.2
+     */
+    public float calculateAverageZValue(double[] coords) {
+        float total = 0.0f;
+        for (int i = 0; i < this.vertices.length; i++) {
+            total = total + (float) coords[(this.vertices[i] + this.offset) 
+                    * 3 + 2];
+        }
+        return total / this.vertices.length;
+    }
+
     /**
      * Returns <code>true</code> if this face is front facing, and 
      * <code>false</code> otherwise.
@@ -192,6 +356,21 @@ public class Face {
                 projPts[getVertexIndex(1)], projPts[getVertexIndex(2)]) > 0;  
     }
 
+    /**
+     * Returns <code>true</code> if this face is front facing, and 
+     * <code>false</code> otherwise.
+     * 
+     * @param screenCoords  the projected points, packed as (x, y) pairs.
+     * 
+     * @return A boolean. 
+     * 
+     * @since 1.2
+     */
+    public boolean isFrontFacing(float[] screenCoords) {
+        return Utils2D.area2(screenCoords, getVertexIndex(0), 
+                getVertexIndex(1), getVertexIndex(2)) > 0;
+    }
+
     /**
      * Returns a string representation of this instance, primarily for
      * debugging purposes.
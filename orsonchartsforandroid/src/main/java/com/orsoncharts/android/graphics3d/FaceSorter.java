@@ -0,0 +1,431 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * Sorts the faces of a {@link World} into painter's order (furthest first).
+ * This produces the same order as sorting with a {@link ZOrderComparator},
+ * but the average z-value for each face is calculated only once and the
+ * faces are ordered by an LSD radix sort on the primitive keys, so the cost
+ * is linear in the number of faces.  The working arrays are retained and
+ * reused from one call to the next.
+ * <br><br>
+ * When the same faces are sorted on consecutive frames (for example, while 
+ * the user drags to rotate a chart) the paint order changes very little, so
+ * the sorter starts from the previous order and repairs it with an 
+ * insertion sort, which is close to linear for nearly sorted input.  If the
+ * repair needs too many moves (because the view point has jumped) the 
+ * sorter falls back to a full radix sort, and if that keeps happening the
+ * repair is attempted less often.
+ *
+ * @since 1.2
+ */
+public class FaceSorter {
+
+    /** The number of bits sorted in each radix pass. */
+    private static final int RADIX_BITS = 8;
+
+    /** The number of buckets for each radix pass. */
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /** 
+     * The number of element moves (per face) that the incremental re-sort
+     * may perform before it gives up and a full sort is done instead.
+     */
+    private static final int MAX_MOVES_PER_FACE = 2;
+
+    /** 
+     * The maximum proportion of faces (in eighths) that may be out of order 
+     * with their neighbours, or new since the previous sort, before the 
+     * incremental re-sort is skipped.  For an order that is effectively 
+     * random the proportion of out-of-order neighbours approaches one half.
+     */
+    private static final int MAX_DESCENT_EIGHTHS = 3;
+
+    /** 
+     * The maximum number of calls for which the incremental re-sort is
+     * skipped after it has failed repeatedly (for example, during a fling).
+     */
+    private static final int MAX_BACKOFF = 15;
+
+    /** The depth key for each face (indexed by face). */
+    private float[] keys;
+
+    /** The depth keys in the current paint order (indexed by position). */
+    private float[] sortedKeys;
+
+    /** The sortable integer form of the depth keys (indexed by face). */
+    private int[] bits;
+
+    /** The face indices in paint order. */
+    private int[] order;
+
+    /** A workspace for the radix sort. */
+    private int[] buffer;
+
+    /** The bucket counts for the radix sort. */
+    private int[] counts;
+
+    /** The faces sorted by the last call (used to detect coherent frames). */
+    private List<Face> lastFaces;
+
+    /** The number of faces in the list sorted by the last call. */
+    private int lastFaceCount;
+
+    /** The number of faces sorted (after culling) by the last call. */
+    private int lastCount;
+
+    /** 
+     * A mark for each face (indexed by face) used to track which faces are
+     * sorted from one call to the next.
+     */
+    private int[] marks;
+
+    /** The current mark value (advanced by two on each incremental sort). */
+    private int mark;
+
+    /** The number of calls to skip after the next failed re-sort. */
+    private int backoff;
+
+    /** The number of calls remaining before the re-sort is tried again. */
+    private int skip;
+
+    /**
+     * Creates a new sorter.
+     */
+    public FaceSorter() {
+        this.keys = new float[0];
+        this.sortedKeys = new float[0];
+        this.bits = new int[0];
+        this.order = new int[0];
+        this.buffer = new int[0];
+        this.marks = new int[0];
+        this.counts = new int[RADIX];
+    }
+
+    /**
+     * Sorts the specified faces by their average z-value in eye coordinates
+     * and returns an array containing the face indices in paint order.  If 
+     * the same face list was sorted by the previous call, the previous paint 
+     * order is used as the starting point.
+     *
+     * @param faces  the faces ({@code null} not permitted).
+     * @param eyeCoords  the eye coordinates, packed as (x, y, z) triples
+     *     ({@code null} not permitted).
+     *
+     * @return The face indices in paint order.  The array is reused by
+     *     subsequent calls and may be longer than <code>faces.size()</code>.
+     */
+    public int[] sort(List<Face> faces, double[] eyeCoords) {
+        ArgChecks.nullNotPermitted(faces, "faces");
+        return sort(faces, null, faces.size(), eyeCoords);
+    }
+
+    /**
+     * Sorts a subset of the specified faces (for example, the faces that
+     * remain after back-face culling) by their average z-value in eye 
+     * coordinates and returns an array containing the face indices in paint
+     * order.  If the same face list was sorted by the previous call, the 
+     * previous paint order is used as the starting point even if the subset
+     * has changed: faces that have left the subset are removed, and faces
+     * that have joined it are merged in.
+     *
+     * @param faces  the faces ({@code null} not permitted).
+     * @param candidates  the indices of the faces to sort ({@code null} 
+     *     permitted, in which case all the faces are sorted).
+     * @param count  the number of face indices in <code>candidates</code>.
+     * @param eyeCoords  the eye coordinates, packed as (x, y, z) triples
+     *     ({@code null} not permitted).
+     *
+     * @return The face indices in paint order.  The array is reused by
+     *     subsequent calls and may be longer than <code>count</code>.
+     */
+    public int[] sort(List<Face> faces, int[] candidates, int count, 
+            double[] eyeCoords) {
+        ArgChecks.nullNotPermitted(faces, "faces");
+        ArgChecks.nullNotPermitted(eyeCoords, "eyeCoords");
+        int faceCount = faces.size();
+        if (count < 0 || count > faceCount 
+                || (candidates != null && count > candidates.length)) {
+            throw new IllegalArgumentException("Invalid 'count' argument.");
+        }
+        boolean coherent = faces == this.lastFaces 
+                && faceCount == this.lastFaceCount;
+        ensureCapacity(faceCount);
+        for (int i = 0; i < count; i++) {
+            int f = candidates != null ? candidates[i] : i;
+            this.keys[f] = faces.get(f).calculateAverageZValue(eyeCoords);
+        }
+        boolean sorted = false;
+        if (coherent && this.skip > 0) {
+            this.skip--;
+        } else if (coherent) {
+            sorted = resort(candidates, count);
+            if (sorted) {
+                this.backoff = 0;
+            } else {
+                this.skip = this.backoff;
+                this.backoff = Math.min(this.backoff * 2 + 1, MAX_BACKOFF);
+            }
+        }
+        if (!sorted) {
+            for (int i = 0; i < count; i++) {
+                this.order[i] = candidates != null ? candidates[i] : i;
+            }
+            radixSort(this.order, count);
+        }
+        this.lastFaces = faces;
+        this.lastFaceCount = faceCount;
+        this.lastCount = count;
+        return this.order;
+    }
+
+    /**
+     * Discards the retained paint order, so that the next call to 
+     * {@link #sort(List, double[])} performs a full sort.
+     */
+    public void reset() {
+        this.lastFaces = null;
+        this.lastFaceCount = 0;
+        this.lastCount = 0;
+        this.backoff = 0;
+        this.skip = 0;
+    }
+
+    /**
+     * Returns the depth keys calculated by the last call to
+     * {@link #sort(List, double[])}, indexed by face.
+     *
+     * @return The depth keys (a direct reference to the internal array).
+     */
+    public float[] getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * Makes sure that the working arrays can hold the specified number of
+     * faces.
+     *
+     * @param count  the face count.
+     */
+    private void ensureCapacity(int count) {
+        if (this.keys.length < count) {
+            this.keys = new float[count];
+            this.sortedKeys = new float[count];
+            this.bits = new int[count];
+            this.order = new int[count];
+            this.buffer = new int[count];
+            this.marks = new int[count];
+            this.mark = 0;
+        }
+    }
+
+    /**
+     * Updates the paint order from the previous call for the faces in
+     * <code>candidates</code>:  faces that are no longer candidates are 
+     * removed, the remaining faces are re-sorted with an insertion sort, and
+     * new candidates are sorted separately then merged in.
+     *
+     * @param candidates  the face indices ({@code null} for all faces).
+     * @param count  the number of candidates.
+     *
+     * @return A boolean indicating whether or not the order was updated (if
+     *     not, a full sort is required).
+     */
+    private boolean resort(int[] candidates, int count) {
+        if (this.mark > Integer.MAX_VALUE - 2) {
+            Arrays.fill(this.marks, 0);
+            this.mark = 0;
+        }
+        int candidate = ++this.mark;
+        int retained = ++this.mark;
+        int[] m = this.marks;
+        for (int i = 0; i < count; i++) {
+            m[candidates != null ? candidates[i] : i] = candidate;
+        }
+        // keep the faces from the previous order that are still candidates
+        int[] indices = this.order;
+        int kept = 0;
+        for (int i = 0; i < this.lastCount; i++) {
+            int f = indices[i];
+            if (m[f] == candidate) {
+                m[f] = retained;
+                indices[kept++] = f;
+            }
+        }
+        int added = count - kept;
+        if (added * 8L > (long) count * MAX_DESCENT_EIGHTHS) {
+            return false;
+        }
+        if (!insertionSort(indices, kept, count * MAX_MOVES_PER_FACE, 
+                (int) (kept * (long) MAX_DESCENT_EIGHTHS / 8))) {
+            return false;
+        }
+        if (added > 0) {
+            // collect and sort the new candidates, then merge them in from
+            // the end so that retained faces stay ahead of new faces with 
+            // equal keys
+            int[] b = this.buffer;
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int f = candidates != null ? candidates[i] : i;
+                if (m[f] == candidate) {
+                    b[n++] = f;
+                }
+            }
+            if (!insertionSort(b, n, count * MAX_MOVES_PER_FACE, n)) {
+                return false;
+            }
+            float[] k = this.keys;
+            int i = kept - 1;
+            int j = n - 1;
+            for (int dest = count - 1; j >= 0; dest--) {
+                if (i >= 0 && k[indices[i]] > k[b[j]]) {
+                    indices[dest] = indices[i--];
+                } else {
+                    indices[dest] = b[j--];
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Repairs the order of the first <code>count</code> face indices in the
+     * <code>indices</code> array with an insertion sort on the depth keys.
+     * If more than <code>maxDescents</code> adjacent pairs are initially out
+     * of order, or more than <code>maxMoves</code> moves are required, the 
+     * sort is abandoned (leaving the array as a valid but unsorted 
+     * permutation).
+     *
+     * @param indices  the face indices (in the previous paint order).
+     * @param count  the number of indices to sort.
+     * @param maxMoves  the maximum number of moves.
+     * @param maxDescents  the maximum number of out-of-order adjacent pairs.
+     *
+     * @return A boolean indicating whether or not the sort completed.
+     */
+    private boolean insertionSort(int[] indices, int count, int maxMoves, 
+            int maxDescents) {
+        // gather the keys into paint order so that the inner loop reads
+        // them sequentially
+        float[] k = this.sortedKeys;
+        int descents = 0;
+        for (int i = 0; i < count; i++) {
+            k[i] = this.keys[indices[i]];
+            if (i > 0 && k[i] < k[i - 1]) {
+                descents++;
+            }
+        }
+        // give up straight away if the previous order is not close to the 
+        // new one
+        if (descents > maxDescents) {
+            return false;
+        }
+        int moves = 0;
+        for (int i = 1; i < count; i++) {
+            float key = k[i];
+            if (k[i - 1] <= key || key != key) {
+                continue;
+            }
+            int f = indices[i];
+            int j = i - 1;
+            do {
+                k[j + 1] = k[j];
+                indices[j + 1] = indices[j];
+                j--;
+                if (++moves > maxMoves) {
+                    indices[j + 1] = f;
+                    return false;
+                }
+            } while (j >= 0 && k[j] > key);
+            k[j + 1] = key;
+            indices[j + 1] = f;
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the first <code>count</code> face indices in the
+     * <code>indices</code> array into ascending order of their depth keys.
+     * The sort is stable.
+     *
+     * @param indices  the face indices.
+     * @param count  the number of indices to sort.
+     */
+    private void radixSort(int[] indices, int count) {
+        int[] b = this.bits;
+        for (int i = 0; i < count; i++) {
+            int f = indices[i];
+            // map the float bits to an int that sorts (unsigned) in the
+            // same order as the float values
+            int k = Float.floatToIntBits(this.keys[f]);
+            b[f] = k ^ ((k >> 31) | 0x80000000);
+        }
+        int[] src = indices;
+        int[] dest = this.buffer;
+        for (int shift = 0; shift < 32; shift += RADIX_BITS) {
+            int[] c = this.counts;
+            Arrays.fill(c, 0);
+            for (int i = 0; i < count; i++) {
+                c[(b[src[i]] >>> shift) & (RADIX - 1)]++;
+            }
+            // skip the pass if every key falls in the same bucket
+            if (count > 0 && c[(b[src[0]] >>> shift) & (RADIX - 1)] == count) {
+                continue;
+            }
+            int total = 0;
+            for (int i = 0; i < RADIX; i++) {
+                int n = c[i];
+                c[i] = total;
+                total += n;
+            }
+            for (int i = 0; i < count; i++) {
+                int f = src[i];
+                dest[c[(b[f] >>> shift) & (RADIX - 1)]++] = f;
+            }
+            int[] tmp = src;
+            src = dest;
+            dest = tmp;
+        }
+        if (src != indices) {
+            System.arraycopy(src, 0, indices, 0, count);
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * A face that consists of a single vertex and is drawn as a flat glyph (a
+ * circle or a square) centred on the projected position of that vertex.  
+ * Glyphs always face the viewer, so they are never culled as back-facing, 
+ * and they are drawn in the face color without shading.  They are sorted 
+ * with the other faces in the world by the eye-space depth of the vertex.
+ * <br><br>
+ * The glyph size can be specified in world units, in which case the glyph
+ * is scaled by the perspective projection (so that nearer glyphs are 
+ * larger), or in pixels.
+ * 
+ * @since 1.2
+ */
+public class GlyphFace extends Face {
+    
+    /** The glyph shape. */
+    private GlyphShape shape;
+    
+    /** The glyph size (the diameter or side length). */
+    private double size;
+    
+    /** 
+     * A flag that indicates whether the size is in world units (and scaled 
+     * by the projection) or in pixels.
+     */
+    private boolean scaled;
+    
+    /**
+     * Creates a new glyph face.
+     * 
+     * @param vertex  the vertex index.
+     * @param color  the color.
+     * @param shape  the shape ({@code null} not permitted).
+     * @param size  the size (the diameter or side length, must be positive).
+     * @param scaled  if <code>true</code>, the size is in world units and is
+     *     scaled by the projection, otherwise it is in pixels.
+     */
+    public GlyphFace(int vertex, int color, GlyphShape shape, double size, 
+            boolean scaled) {
+        super(vertex, color);
+        ArgChecks.nullNotPermitted(shape, "shape");
+        ArgChecks.positiveRequired(size, "size");
+        this.shape = shape;
+        this.size = size;
+        this.scaled = scaled;
+    }
+    
+    /**
+     * Returns the glyph shape.
+     * 
+     * @return The shape (never {@code null}). 
+     */
+    public GlyphShape getShape() {
+        return this.shape;
+    }
+    
+    /**
+     * Returns the glyph size (the diameter of a circle or the side length of
+     * a square).
+     * 
+     * @return The size. 
+     */
+    public double getSize() {
+        return this.size;
+    }
+    
+    /**
+     * Returns <code>true</code> if the size is in world units and scaled by
+     * the projection, and <code>false</code> if it is in pixels.
+     * 
+     * @return A boolean. 
+     */
+    public boolean isScaled() {
+        return this.scaled;
+    }
+    
+    /**
+     * Returns the size of the glyph on screen (in pixels) when the vertex 
+     * is at the specified depth.
+     * 
+     * @param eyeZ  the z-coordinate of the vertex in eye coordinates.
+     * @param d  the projection distance.
+     * 
+     * @return The size in pixels. 
+     */
+    public float getScreenSize(double eyeZ, float d) {
+        if (!this.scaled) {
+            return (float) this.size;
+        }
+        return (float) (this.size * -d / eyeZ);
+    }
+    
+    /**
+     * Draws the glyph centred on the specified point.
+     * 
+     * @param canvas  the canvas ({@code null} not permitted).
+     * @param paint  the paint ({@code null} not permitted).
+     * @param x  the x-coordinate of the centre.
+     * @param y  the y-coordinate of the centre.
+     * @param screenSize  the size in pixels.
+     * @param color  the color.
+     */
+    public void draw(Canvas canvas, Paint paint, float x, float y, 
+            float screenSize, int color) {
+        float r = screenSize / 2.0f;
+        paint.setColor(color);
+        paint.setStyle(Style.FILL);
+        if (this.shape == GlyphShape.CIRCLE) {
+            canvas.drawCircle(x, y, r, paint);
+        } else {
+            canvas.drawRect(x - r, y - r, x + r, y + r, paint);
+        }
+    }
+
+    /**
+     * Returns a zero vector, since a glyph has no orientation.
+     * 
+     * @param points  the vertices (ignored).
+     * 
+     * @return A zero vector.
+     */
+    @Override
+    public double[] calculateNormal(Point3D[] points) {
+        return new double[3];
+    }
+
+    /**
+     * Returns a zero vector, since a glyph has no orientation.
+     * 
+     * @param coords  the vertex coordinates (ignored).
+     * @param result  an array to carry the result ({@code null} permitted).
+     * 
+     * @return A zero vector.
+     */
+    @Override
+    public double[] calculateNormal(double[] coords, double[] result) {
+        if (result == null) {
+            return new double[3];
+        }
+        result[0] = 0.0;
+        result[1] = 0.0;
+        result[2] = 0.0;
+        return result;
+    }
+
+    /**
+     * Returns <code>true</code> always, since a glyph faces the viewer.
+     * 
+     * @param projPts  the projection points (ignored).
+     * 
+     * @return <code>true</code>. 
+     */
+    @Override
+    public boolean isFrontFacing(Point2D[] projPts) {
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> always, since a glyph faces the viewer.
+     * 
+     * @param screenCoords  the projected points (ignored).
+     * 
+     * @return <code>true</code>. 
+     */
+    @Override
+    public boolean isFrontFacing(float[] screenCoords) {
+        return true;
+    }
+
+}
@@ -33,6 +33,7 @@
 package com.orsoncharts.android.graphics3d;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import android.graphics.Color;
@@ -49,8 +50,14 @@ import com.orsoncharts.android.util.ArgChecks;
  */
 public class Object3D {
 
-    /** World coordinates. */
-    private List<Point3D> vertices;
+    /** 
+     * World coordinates, packed as (x, y, z) triples.  The array grows as 
+     * vertices are added, so it may be longer than required.
+     */
+    private double[] coords;
+
+    /** The number of vertices. */
+    private int vertexCount;
 
     /** Faces for the object, specified by indices to the world coords. */
     private List<Face> faces;
@@ -59,7 +66,8 @@ public class Object3D {
      * Creates a new object, initially with no vertices or faces.
      */
     public Object3D() {
-        this.vertices = new java.util.ArrayList<Point3D>();
+        this.coords = new double[8 * 3];
+        this.vertexCount = 0;
         this.faces = new java.util.ArrayList<Face>();
     }
 
@@ -69,7 +77,7 @@ public class Object3D {
      * @return The number of vertices.
      */
     public int getVertexCount() {
-        return this.vertices.size();
+        return this.vertexCount;
     }
 
     /**
@@ -80,7 +88,14 @@ public class Object3D {
      * @param z  the z-coordinate.
      */
     public void addVertex(double x, double y, double z) {
-        addVertex(new Point3D(x, y, z));    
+        int i = this.vertexCount * 3;
+        if (i + 3 > this.coords.length) {
+            this.coords = Arrays.copyOf(this.coords, this.coords.length * 2);
+        }
+        this.coords[i] = x;
+        this.coords[i + 1] = y;
+        this.coords[i + 2] = z;
+        this.vertexCount++;
     }
     
     /**
@@ -90,7 +105,38 @@ public class Object3D {
      */
     public void addVertex(Point3D vertex) {
         ArgChecks.nullNotPermitted(vertex, "vertex");
-        this.vertices.add(vertex);
+        addVertex(vertex.x, vertex.y, vertex.z);
+    }
+
+    /**
+     * Returns a new point containing the coordinates of the specified vertex.
+     * 
+     * @param index  the vertex index (in the range <code>0</code> to 
+     *     <code>getVertexCount() - 1</code>).
+     * 
+     * @return The vertex (never {@code null}).
+     * 
+     * @since 1.2
+     */
+    public Point3D getVertex(int index) {
+        if (index < 0 || index >= this.vertexCount) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+        int i = index * 3;
+        return new Point3D(this.coords[i], this.coords[i + 1], 
+                this.coords[i + 2]);
+    }
+
+    /**
+     * Copies the (x, y, z) coordinates of all the vertices in this object 
+     * into the specified array.  This is used by the {@link World} class to 
+     * build its packed vertex store.
+     * 
+     * @param dest  the destination array ({@code null} not permitted).
+     * @param destPos  the index of the first array element to write.
+     */
+    void copyCoordinates(double[] dest, int destPos) {
+        System.arraycopy(this.coords, 0, dest, destPos, this.vertexCount * 3);
     }
 
     /**
@@ -162,11 +208,9 @@ public class Object3D {
      */
     public Point2D[] calculateProjectedPoints(ViewPoint3D viewPoint, float d) {
         ArgChecks.nullNotPermitted(viewPoint, "viewPoint");
-        Point2D[] result = new Point2D[this.vertices.size()];
-        int vertexCount = this.vertices.size();
-        for (int i = 0; i < vertexCount; i++) {
-            Point3D p = this.vertices.get(i);
-            result[i] = viewPoint.worldToScreen(p, d);
+        Point2D[] result = new Point2D[this.vertexCount];
+        for (int i = 0; i < this.vertexCount; i++) {
+            result[i] = viewPoint.worldToScreen(getVertex(i), d);
         }
         return result;
     }
@@ -180,11 +224,9 @@ public class Object3D {
      */
     public Point3D[] calculateEyeCoordinates(ViewPoint3D viewPoint) {
         ArgChecks.nullNotPermitted(viewPoint, "viewPoint");
-        Point3D[] result = new Point3D[this.vertices.size()];
-        int i = 0;
-        for (Point3D vertex : this.vertices) {
-            result[i] = viewPoint.worldToEye(vertex);
-            i++;
+        Point3D[] result = new Point3D[this.vertexCount];
+        for (int i = 0; i < this.vertexCount; i++) {
+            result[i] = viewPoint.worldToEye(getVertex(i));
         }
         return result;
     }
@@ -0,0 +1,252 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+/**
+ * A grid of square bins covering a rectangle in screen space, used to count
+ * the number of projected points that fall in each bin.  When a dataset 
+ * contains many more points than there are pixels to draw them on, the 
+ * points can be counted into bins and one mark drawn for each occupied bin,
+ * so that the drawing cost depends on the screen size rather than the 
+ * number of points.
+ * <br><br>
+ * The bins are reused from one frame to the next, and only the occupied 
+ * bins are visited when the grid is cleared or drawn.
+ * 
+ * @since 1.2
+ */
+public class ScreenBins {
+
+    /** The x-coordinate of the left edge of the grid. */
+    private float x;
+
+    /** The y-coordinate of the top edge of the grid. */
+    private float y;
+
+    /** The width and height of each bin. */
+    private float binSize;
+
+    /** The number of columns in the grid. */
+    private int columns;
+
+    /** The number of rows in the grid. */
+    private int rows;
+
+    /** The number of points in each bin (indexed by row then column). */
+    private int[] counts;
+
+    /** The indices of the occupied bins, in the order they were occupied. */
+    private int[] occupied;
+
+    /** The number of occupied bins. */
+    private int occupiedCount;
+
+    /** The highest count for any bin. */
+    private int maxCount;
+
+    /**
+     * Creates a new (empty) grid.  Call 
+     * {@link #reset(float, float, float, float, float)} to define the area 
+     * covered by the bins before adding points.
+     */
+    public ScreenBins() {
+        this.counts = new int[0];
+        this.occupied = new int[0];
+    }
+
+    /**
+     * Clears all the bins and sets the area that they cover.  The area is 
+     * divided into square bins starting from the top-left corner (so the 
+     * bins in the last row and column may extend beyond the area).
+     * 
+     * @param x  the x-coordinate of the left edge.
+     * @param y  the y-coordinate of the top edge.
+     * @param width  the width (must be positive).
+     * @param height  the height (must be positive).
+     * @param binSize  the width and height of each bin (must be positive).
+     */
+    public void reset(float x, float y, float width, float height, 
+            float binSize) {
+        if (!(width > 0f) || !(height > 0f) || !(binSize > 0f)) {
+            throw new IllegalArgumentException(
+                    "Require 'width', 'height' and 'binSize' to be positive.");
+        }
+        for (int k = 0; k < this.occupiedCount; k++) {
+            this.counts[this.occupied[k]] = 0;
+        }
+        this.occupiedCount = 0;
+        this.maxCount = 0;
+        this.x = x;
+        this.y = y;
+        this.binSize = binSize;
+        this.columns = (int) Math.ceil(width / binSize);
+        this.rows = (int) Math.ceil(height / binSize);
+        int binCount = this.columns * this.rows;
+        if (this.counts.length < binCount) {
+            this.counts = new int[binCount];
+            this.occupied = new int[binCount];
+        }
+    }
+
+    /**
+     * Adds a point to the bin that contains it.  Points outside the grid 
+     * (and points with <code>NaN</code> coordinates) are ignored.
+     * 
+     * @param px  the x-coordinate.
+     * @param py  the y-coordinate.
+     */
+    public void add(float px, float py) {
+        float cx = (px - this.x) / this.binSize;
+        float cy = (py - this.y) / this.binSize;
+        if (!(cx >= 0f && cx < this.columns && cy >= 0f && cy < this.rows)) {
+            return;
+        }
+        int bin = (int) cy * this.columns + (int) cx;
+        int count = ++this.counts[bin];
+        if (count == 1) {
+            this.occupied[this.occupiedCount++] = bin;
+        }
+        if (count > this.maxCount) {
+            this.maxCount = count;
+        }
+    }
+
+    /**
+     * Returns the width and height of each bin.
+     * 
+     * @return The bin size. 
+     */
+    public float getBinSize() {
+        return this.binSize;
+    }
+
+    /**
+     * Returns the number of columns in the grid.
+     * 
+     * @return The number of columns. 
+     */
+    public int getColumnCount() {
+        return this.columns;
+    }
+
+    /**
+     * Returns the number of rows in the grid.
+     * 
+     * @return The number of rows. 
+     */
+    public int getRowCount() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the number of bins that contain at least one point.
+     * 
+     * @return The number of occupied bins. 
+     */
+    public int getOccupiedCount() {
+        return this.occupiedCount;
+    }
+
+    /**
+     * Returns the index of an occupied bin.  Bin indices run along each row,
+     * so the bin with index <code>i</code> is in row 
+     * <code>i / getColumnCount()</code> and column 
+     * <code>i % getColumnCount()</code>.
+     * 
+     * @param k  the index of the occupied bin (in the range <code>0</code> 
+     *     to <code>getOccupiedCount() - 1</code>).
+     * 
+     * @return The bin index. 
+     */
+    public int getOccupiedBin(int k) {
+        if (k < 0 || k >= this.occupiedCount) {
+            throw new IndexOutOfBoundsException("Index out of range: " + k);
+        }
+        return this.occupied[k];
+    }
+
+    /**
+     * Returns the number of points in a bin.
+     * 
+     * @param bin  the bin index.
+     * 
+     * @return The count. 
+     */
+    public int getCount(int bin) {
+        return this.counts[bin];
+    }
+
+    /**
+     * Returns the highest number of points in any bin.
+     * 
+     * @return The maximum count. 
+     */
+    public int getMaxCount() {
+        return this.maxCount;
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of a bin.
+     * 
+     * @param bin  the bin index.
+     * 
+     * @return The x-coordinate. 
+     */
+    public float getBinX(int bin) {
+        return this.x + (bin % this.columns) * this.binSize;
+    }
+
+    /**
+     * Returns the y-coordinate of the top edge of a bin.
+     * 
+     * @param bin  the bin index.
+     * 
+     * @return The y-coordinate. 
+     */
+    public float getBinY(int bin) {
+        return this.y + (bin / this.columns) * this.binSize;
+    }
+
+    /**
+     * Returns a string representation of this instance, primarily for
+     * debugging purposes.
+     * 
+     * @return A string. 
+     */
+    @Override
+    public String toString() {
+        return "ScreenBins[columns=" + this.columns + ", rows=" + this.rows 
+                + ", occupied=" + this.occupiedCount + ", maxCount=" 
+                + this.maxCount + "]";
+    }
+}
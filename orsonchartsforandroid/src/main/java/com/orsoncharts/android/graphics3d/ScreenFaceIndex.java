@@ -0,0 +1,350 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+import java.util.List;
+
+import com.orsoncharts.android.util.ArgChecks;
+
+/**
+ * An index over the faces painted in one frame, used to find the face at a
+ * point on the screen without projecting the world again.  The bounding
+ * boxes of the faces (in screen coordinates) are entered in a uniform grid,
+ * so that a query only tests the faces in one grid cell.  Only the faces 
+ * that represent a data item (see {@link Face#hasItem()}) are indexed.
+ * <br><br>
+ * The index refers to the arrays supplied to the constructor, so it must
+ * be discarded when they are updated for a new frame.
+ * 
+ * @since 1.2
+ */
+public class ScreenFaceIndex {
+
+    /** The maximum number of grid cells along each side. */
+    private static final int MAX_CELLS = 256;
+
+    /** The faces for the world. */
+    private List<Face> faces;
+
+    /** The indices of the faces, in the order they were painted. */
+    private int[] paintOrder;
+
+    /** The projected points, packed as (x, y) pairs. */
+    private float[] screenCoords;
+
+    /** The eye coordinates, packed as (x, y, z) triples. */
+    private double[] eyeCoords;
+
+    /** The projection distance (used to find the size of glyphs). */
+    private float projDist;
+
+    /** The x-coordinate of the left edge of the grid. */
+    private float x0;
+
+    /** The y-coordinate of the top edge of the grid. */
+    private float y0;
+
+    /** The width and height of each grid cell. */
+    private float cellSize;
+
+    /** The number of columns in the grid. */
+    private int columns;
+
+    /** The number of rows in the grid. */
+    private int rows;
+
+    /** 
+     * The start of the entries for each cell in the <code>entries</code>
+     * array (the entries for cell <code>i</code> run from 
+     * <code>cellStart[i]</code> to <code>cellStart[i + 1]</code>). 
+     */
+    private int[] cellStart;
+
+    /** 
+     * The paint positions of the faces in each cell, in ascending order for
+     * each cell.
+     */
+    private int[] entries;
+
+    /**
+     * Creates an index for the faces painted in a frame.
+     * 
+     * @param faces  the faces for the world ({@code null} not permitted).
+     * @param paintOrder  the indices of the faces in the order they were 
+     *     painted ({@code null} not permitted).
+     * @param count  the number of faces that were painted.
+     * @param screenCoords  the projected points, packed as (x, y) pairs 
+     *     ({@code null} not permitted).
+     * @param eyeCoords  the eye coordinates, packed as (x, y, z) triples 
+     *     ({@code null} not permitted).
+     * @param projDist  the projection distance.
+     */
+    public ScreenFaceIndex(List<Face> faces, int[] paintOrder, int count, 
+            float[] screenCoords, double[] eyeCoords, float projDist) {
+        ArgChecks.nullNotPermitted(faces, "faces");
+        ArgChecks.nullNotPermitted(paintOrder, "paintOrder");
+        ArgChecks.nullNotPermitted(screenCoords, "screenCoords");
+        ArgChecks.nullNotPermitted(eyeCoords, "eyeCoords");
+        this.faces = faces;
+        this.paintOrder = paintOrder;
+        this.screenCoords = screenCoords;
+        this.eyeCoords = eyeCoords;
+        this.projDist = projDist;
+
+        // find the bounds of each indexed face and of all the faces
+        float[] bounds = new float[count * 4];
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        int indexed = 0;
+        for (int k = 0; k < count; k++) {
+            Face f = faces.get(paintOrder[k]);
+            if (!f.hasItem() || !faceBounds(f, bounds, k * 4)) {
+                bounds[k * 4] = Float.NaN;
+                continue;
+            }
+            minX = Math.min(minX, bounds[k * 4]);
+            minY = Math.min(minY, bounds[k * 4 + 1]);
+            maxX = Math.max(maxX, bounds[k * 4 + 2]);
+            maxY = Math.max(maxY, bounds[k * 4 + 3]);
+            indexed++;
+        }
+        if (indexed == 0) {
+            this.columns = 0;
+            this.rows = 0;
+            this.cellStart = new int[1];
+            this.entries = new int[0];
+            return;
+        }
+
+        // aim for a few faces per cell
+        float width = Math.max(maxX - minX, 1f);
+        float height = Math.max(maxY - minY, 1f);
+        int side = (int) Math.ceil(Math.sqrt(indexed / 2.0));
+        side = Math.max(1, Math.min(MAX_CELLS, side));
+        this.cellSize = Math.max(width, height) / side;
+        this.x0 = minX;
+        this.y0 = minY;
+        this.columns = Math.min(side, (int) (width / this.cellSize) + 1);
+        this.rows = Math.min(side, (int) (height / this.cellSize) + 1);
+
+        // count the entries for each cell, then fill them in paint order
+        int[] start = new int[this.columns * this.rows + 1];
+        for (int k = 0; k < count; k++) {
+            if (Float.isNaN(bounds[k * 4])) {
+                continue;
+            }
+            int c0 = column(bounds[k * 4]);
+            int c1 = column(bounds[k * 4 + 2]);
+            int r0 = row(bounds[k * 4 + 1]);
+            int r1 = row(bounds[k * 4 + 3]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    start[r * this.columns + c + 1]++;
+                }
+            }
+        }
+        for (int i = 1; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        int[] next = new int[start.length - 1];
+        System.arraycopy(start, 0, next, 0, next.length);
+        this.entries = new int[start[start.length - 1]];
+        for (int k = 0; k < count; k++) {
+            if (Float.isNaN(bounds[k * 4])) {
+                continue;
+            }
+            int c0 = column(bounds[k * 4]);
+            int c1 = column(bounds[k * 4 + 2]);
+            int r0 = row(bounds[k * 4 + 1]);
+            int r1 = row(bounds[k * 4 + 3]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    this.entries[next[r * this.columns + c]++] = k;
+                }
+            }
+        }
+        this.cellStart = start;
+    }
+
+    /**
+     * Returns the index (in the list of faces for the world) of the topmost
+     * indexed face that contains the specified point, or <code>-1</code> if
+     * there is no such face.
+     * 
+     * @param x  the x-coordinate (in the same space as the projected 
+     *     points).
+     * @param y  the y-coordinate.
+     * 
+     * @return The face index, or <code>-1</code>.
+     */
+    public int findFaceAt(float x, float y) {
+        if (this.columns == 0) {
+            return -1;
+        }
+        float cx = (x - this.x0) / this.cellSize;
+        float cy = (y - this.y0) / this.cellSize;
+        if (!(cx >= 0f && cy >= 0f && cx <= this.columns 
+                && cy <= this.rows)) {
+            return -1;
+        }
+        int cell = row(y) * this.columns + column(x);
+        // faces painted later are on top, so check those first
+        for (int e = this.cellStart[cell + 1] - 1; 
+                e >= this.cellStart[cell]; e--) {
+            int faceIndex = this.paintOrder[this.entries[e]];
+            if (contains(this.faces.get(faceIndex), x, y)) {
+                return faceIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the grid column for an x-coordinate (clamped to the grid).
+     * 
+     * @param x  the x-coordinate.
+     * 
+     * @return The column. 
+     */
+    private int column(float x) {
+        int c = (int) ((x - this.x0) / this.cellSize);
+        return Math.max(0, Math.min(this.columns - 1, c));
+    }
+
+    /**
+     * Returns the grid row for a y-coordinate (clamped to the grid).
+     * 
+     * @param y  the y-coordinate.
+     * 
+     * @return The row. 
+     */
+    private int row(float y) {
+        int r = (int) ((y - this.y0) / this.cellSize);
+        return Math.max(0, Math.min(this.rows - 1, r));
+    }
+
+    /**
+     * Calculates the screen bounds of a face, storing them (as min x, min y,
+     * max x, max y) in the result array.
+     * 
+     * @param f  the face.
+     * @param result  the result array.
+     * @param offset  the offset into the result array.
+     * 
+     * @return <code>false</code> if the bounds are not finite. 
+     */
+    private boolean faceBounds(Face f, float[] result, int offset) {
+        float[] pts = this.screenCoords;
+        float minX, minY, maxX, maxY;
+        if (f instanceof GlyphFace) {
+            int v = f.getVertexIndex(0);
+            float r = glyphSize((GlyphFace) f) / 2.0f;
+            minX = pts[v * 2] - r;
+            minY = pts[v * 2 + 1] - r;
+            maxX = pts[v * 2] + r;
+            maxY = pts[v * 2 + 1] + r;
+        } else {
+            int v = f.getVertexIndex(0);
+            minX = maxX = pts[v * 2];
+            minY = maxY = pts[v * 2 + 1];
+            for (int i = 1; i < f.getVertexCount(); i++) {
+                v = f.getVertexIndex(i);
+                minX = Math.min(minX, pts[v * 2]);
+                maxX = Math.max(maxX, pts[v * 2]);
+                minY = Math.min(minY, pts[v * 2 + 1]);
+                maxY = Math.max(maxY, pts[v * 2 + 1]);
+            }
+        }
+        result[offset] = minX;
+        result[offset + 1] = minY;
+        result[offset + 2] = maxX;
+        result[offset + 3] = maxY;
+        float extent = maxX - minX + maxY - minY;
+        return !Float.isNaN(extent) && !Float.isInfinite(extent);
+    }
+
+    /**
+     * Returns the size of a glyph on the screen.
+     * 
+     * @param f  the glyph face.
+     * 
+     * @return The size in pixels. 
+     */
+    private float glyphSize(GlyphFace f) {
+        int v = f.getVertexIndex(0);
+        return f.getScreenSize(this.eyeCoords[v * 3 + 2], this.projDist);
+    }
+
+    /**
+     * Returns <code>true</code> if the face (as painted) contains the 
+     * specified point, and <code>false</code> otherwise.
+     * 
+     * @param f  the face.
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     * 
+     * @return A boolean. 
+     */
+    private boolean contains(Face f, float x, float y) {
+        float[] pts = this.screenCoords;
+        if (f instanceof GlyphFace) {
+            GlyphFace gf = (GlyphFace) f;
+            int v = gf.getVertexIndex(0);
+            float r = glyphSize(gf) / 2.0f;
+            float dx = x - pts[v * 2];
+            float dy = y - pts[v * 2 + 1];
+            if (gf.getShape() == GlyphShape.CIRCLE) {
+                return dx * dx + dy * dy <= r * r;
+            }
+            return Math.abs(dx) <= r && Math.abs(dy) <= r;
+        }
+        // count the crossings of a ray from the point in the +x direction
+        boolean inside = false;
+        int n = f.getVertexCount();
+        int j = f.getVertexIndex(n - 1);
+        for (int i = 0; i < n; i++) {
+            int v = f.getVertexIndex(i);
+            float xi = pts[v * 2], yi = pts[v * 2 + 1];
+            float xj = pts[j * 2], yj = pts[j * 2 + 1];
+            if ((yi > y) != (yj > y) 
+                    && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+            j = v;
+        }
+        return inside;
+    }
+
+}
@@ -77,6 +77,30 @@ public class Utils2D {
         return (ax - cx) * (by - cy) - (ay - cy) * (bx - cx);
     }
     
+    /**
+     * Calculates twice the area of a triangle for points specified (by index)
+     * in counter-clockwise order, where the points are packed as (x, y) 
+     * pairs in the <code>coords</code> array.
+     * 
+     * @param coords  the packed coordinates ({@code null} not permitted).
+     * @param a  the index of the first point.
+     * @param b  the index of the second point.
+     * @param c  the index of the third point.
+     * 
+     * @return The area x 2.
+     * 
+     * @since 1.2
+     */
+    public static double area2(float[] coords, int a, int b, int c) {
+        double ax = coords[a * 2];
+        double ay = coords[a * 2 + 1];
+        double bx = coords[b * 2];
+        double by = coords[b * 2 + 1];
+        double cx = coords[c * 2];
+        double cy = coords[c * 2 + 1];
+        return (ax - cx) * (by - cy) - (ay - cy) * (bx - cx);
+    }
+
     /**
      * Returns the point in the center of the four supplied points.
      * 
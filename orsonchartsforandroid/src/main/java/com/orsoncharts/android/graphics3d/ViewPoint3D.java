@@ -32,12 +32,16 @@
 
 package com.orsoncharts.android.graphics3d;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import android.graphics.Color;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import com.orsoncharts.android.util.ArgChecks;
+
 /**
  * Specifies the location and orientation of the view point in 3D space.  
  * Assumes the eye looks towards the origin in world coordinates.
@@ -53,6 +57,10 @@ import android.os.Parcelable;
  * <li>{@link #setRho(double)} - sets the distance of the view location from
  *     the center of the 3D scene (zoom in and out).</li>
  * </ul>
+ * The batch projection methods ({@link #project(double[], int, float, 
+ * double[], float[])} and the methods that call it) use a workspace held 
+ * by this instance, so they are not thread-safe: a view point must not be
+ * used to project points on more than one thread at the same time.
  */
 public class ViewPoint3D implements Parcelable, Serializable {
 
@@ -119,6 +127,12 @@ public class ViewPoint3D implements Parcelable, Serializable {
     
     /** A workspace for calling the Rotate3D class. */
     private double[] workspace;
+
+    /** 
+     * A workspace for the combined view and roll matrix (recreated after 
+     * deserialization). 
+     */
+    private transient double[] matrix;
     
     /**
      * Creates a new viewing point.
@@ -141,6 +155,7 @@ public class ViewPoint3D implements Parcelable, Serializable {
         this.up = this.rotation.applyRotation(Point3D.createPoint3D(this.theta, 
                 this.phi - Math.PI / 2, this.rho));
         this.workspace = new double[3];
+        this.matrix = new double[12];
     }
     
     /**
@@ -161,6 +176,7 @@ public class ViewPoint3D implements Parcelable, Serializable {
         this.up = this.rotation.applyRotation(Point3D.createPoint3D(this.theta, 
                 this.phi - Math.PI / 2, this.rho));
         this.workspace = new double[3];
+        this.matrix = new double[12];
     }
 
    /**
@@ -331,6 +347,27 @@ public class ViewPoint3D implements Parcelable, Serializable {
         return new Point3D(rotated[0], rotated[1], rotated[2]);
     }
 
+    /**
+     * Converts the point <code>(x, y, z)</code> in world coordinates to eye
+     * coordinates, without allocating a new point.
+     * 
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     * @param z  the z-coordinate.
+     * @param result  an array to carry the result ({@code null} permitted).
+     * 
+     * @return The eye coordinates (in the <code>result</code> array if one
+     *     was supplied, otherwise in a newly allocated array).
+     * 
+     * @since 1.2
+     */
+    public double[] worldToEye(double x, double y, double z, double[] result) {
+        double ex = this.v11 * x + this.v21 * y;
+        double ey = this.v12 * x + this.v22 * y + this.v32 * z;
+        double ez = this.v13 * x + this.v23 * y + this.v33 * z + this.v43;
+        return this.rotation.applyRotation(ex, ey, ez, result);
+    }
+
     /**
      * Calculates and returns the screen coordinates for the specified point
      * in (world) 3D space.  
@@ -349,6 +386,152 @@ public class ViewPoint3D implements Parcelable, Serializable {
                 (float) (-d * rotated[1] / rotated[2]));
     }
 
+    /**
+     * Transforms a batch of points in world coordinates to eye coordinates.
+     * The view and roll transformations are combined into a single 3x4 
+     * matrix before the points are processed.
+     * 
+     * @param coords  the world coordinates, packed as (x, y, z) triples 
+     *     ({@code null} not permitted).
+     * @param count  the number of points to transform.
+     * @param result  an array to receive the eye coordinates, packed as 
+     *     (x, y, z) triples ({@code null} not permitted, length at least 
+     *     <code>count * 3</code>).
+     * 
+     * @since 1.2
+     */
+    public void worldToEye(double[] coords, int count, double[] result) {
+        project(coords, count, 0f, result, null);
+    }
+
+    /**
+     * Transforms a batch of points in world coordinates to screen 
+     * coordinates.  The view and roll transformations are combined into a 
+     * single 3x4 matrix before the points are processed.
+     * 
+     * @param coords  the world coordinates, packed as (x, y, z) triples 
+     *     ({@code null} not permitted).
+     * @param count  the number of points to transform.
+     * @param d  the projection distance.
+     * @param result  an array to receive the screen coordinates, packed as 
+     *     (x, y) pairs ({@code null} not permitted, length at least 
+     *     <code>count * 2</code>).
+     * 
+     * @since 1.2
+     */
+    public void worldToScreen(double[] coords, int count, float d, 
+            float[] result) {
+        project(coords, count, d, null, result);
+    }
+
+    /**
+     * Transforms a batch of points in world coordinates to eye coordinates 
+     * and/or screen coordinates in a single pass.  The view and roll 
+     * transformations are combined into a single 3x4 matrix before the points
+     * are processed, so each point costs 9 multiplications plus the 
+     * perspective division.
+     * <br><br>
+     * This method uses a workspace held by this view point, so it must not
+     * be called on more than one thread at the same time.
+     * 
+     * @param coords  the world coordinates, packed as (x, y, z) triples 
+     *     ({@code null} not permitted).
+     * @param count  the number of points to transform.
+     * @param d  the projection distance.
+     * @param eyeResult  an array to receive the eye coordinates, packed as
+     *     (x, y, z) triples ({@code null} permitted, in which case eye 
+     *     coordinates are not stored).
+     * @param screenResult  an array to receive the screen coordinates, 
+     *     packed as (x, y) pairs ({@code null} permitted, in which case
+     *     screen coordinates are not calculated).
+     * 
+     * @since 1.2
+     */
+    public void project(double[] coords, int count, float d, 
+            double[] eyeResult, float[] screenResult) {
+        ArgChecks.nullNotPermitted(coords, "coords");
+        double[] m = this.matrix;
+        updateCombinedMatrix(m);
+        double m00 = m[0], m01 = m[1], m02 = m[2], m03 = m[3];
+        double m10 = m[4], m11 = m[5], m12 = m[6], m13 = m[7];
+        double m20 = m[8], m21 = m[9], m22 = m[10], m23 = m[11];
+        for (int i = 0; i < count; i++) {
+            int i3 = i * 3;
+            double x = coords[i3];
+            double y = coords[i3 + 1];
+            double z = coords[i3 + 2];
+            double ex = m00 * x + m01 * y + m02 * z + m03;
+            double ey = m10 * x + m11 * y + m12 * z + m13;
+            double ez = m20 * x + m21 * y + m22 * z + m23;
+            if (eyeResult != null) {
+                eyeResult[i3] = ex;
+                eyeResult[i3 + 1] = ey;
+                eyeResult[i3 + 2] = ez;
+            }
+            if (screenResult != null) {
+                double f = -d / ez;
+                screenResult[i * 2] = (float) (ex * f);
+                screenResult[i * 2 + 1] = (float) (ey * f);
+            }
+        }
+    }
+
+    /**
+     * Rotates a direction vector from eye coordinates into world coordinates
+     * (the inverse of the rotation applied by {@link #worldToEye(double, 
+     * double, double, double[])}, ignoring the translation).  This can be 
+     * used to express a light source that is fixed relative to the viewer 
+     * in world coordinates, so that it can be combined with face normals 
+     * calculated once in world coordinates.
+     * 
+     * @param x  the x-component of the direction (in eye coordinates).
+     * @param y  the y-component of the direction (in eye coordinates).
+     * @param z  the z-component of the direction (in eye coordinates).
+     * @param result  an array to carry the result ({@code null} permitted).
+     * 
+     * @return The direction in world coordinates (either 
+     *     <code>result</code> or a new array).
+     * 
+     * @since 1.2
+     */
+    public double[] eyeToWorldDirection(double x, double y, double z, 
+            double[] result) {
+        if (result == null) {
+            result = new double[3];
+        }
+        double[] m = this.matrix;
+        updateCombinedMatrix(m);
+        // the rotation part of the matrix is orthonormal, so its inverse is
+        // the transpose
+        result[0] = m[0] * x + m[4] * y + m[8] * z;
+        result[1] = m[1] * x + m[5] * y + m[9] * z;
+        result[2] = m[2] * x + m[6] * y + m[10] * z;
+        return result;
+    }
+
+    /**
+     * Combines the view matrix with the roll rotation into a single 3x4 
+     * matrix (stored in row order) that transforms world coordinates to 
+     * eye coordinates.
+     * 
+     * @param m  the array to receive the matrix (length at least 12).
+     */
+    private void updateCombinedMatrix(double[] m) {
+        Rotate3D r = this.rotation;
+        m[0] = r.r11 * this.v11 + r.r21 * this.v12 + r.r31 * this.v13;
+        m[1] = r.r11 * this.v21 + r.r21 * this.v22 + r.r31 * this.v23;
+        m[2] = r.r21 * this.v32 + r.r31 * this.v33;
+        m[3] = r.r31 * this.v43 + r.r41;
+        m[4] = r.r12 * this.v11 + r.r22 * this.v12 + r.r32 * this.v13;
+        m[5] = r.r12 * this.v21 + r.r22 * this.v22 + r.r32 * this.v23;
+        m[6] = r.r22 * this.v32 + r.r32 * this.v33;
+        m[7] = r.r32 * this.v43 + r.r42;
+        m[8] = r.r13 * this.v11 + r.r23 * this.v12 + r.r33 * this.v13;
+        m[9] = r.r13 * this.v21 + r.r23 * this.v22 + r.r33 * this.v23;
+        m[10] = r.r23 * this.v32 + r.r33 * this.v33;
+        m[11] = r.r33 * this.v43 + r.r43;
+    }
+
     /**
      * Calculate the distance that would render a box of the given dimensions 
      * within a screen area of the specified size.
@@ -543,4 +726,18 @@ public class ViewPoint3D implements Parcelable, Serializable {
         
     };
 
+    /**
+     * Provides serialization support.
+     *
+     * @param stream  the input stream.
+     *
+     * @throws IOException  if there is an I/O error.
+     * @throws ClassNotFoundException  if there is a classpath problem.
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        this.matrix = new double[12];
+    }
+
 }
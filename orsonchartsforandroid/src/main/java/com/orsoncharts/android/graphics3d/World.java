@@ -32,15 +32,28 @@
 
 package com.orsoncharts.android.graphics3d;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import android.graphics.Color;
+
+import com.orsoncharts.android.data.ItemKey;
 import com.orsoncharts.android.util.ArgChecks;
 
 /**
  * A world is a model containing a collection of objects in 3D space and a 
  * direction vector for the sunlight.  A viewing point ({@link ViewPoint3D}) is 
  * specified externally.
+ * <br><br>
+ * The vertices of all the objects are copied into a single packed array of 
+ * (x, y, z) coordinates as the objects are added, and projection results 
+ * are written to buffers that are reused from one frame to the next, so 
+ * that rendering a world repeatedly does not allocate per-vertex objects.
+ * <br><br>
+ * Note that the vertices of an object are captured when the object is 
+ * added, so an object should be fully constructed before it is added to 
+ * the world.
  */
 public class World {
 
@@ -49,14 +62,75 @@ public class World {
     private double sunY = this.sunX;
     private double sunZ = -this.sunY;
 
+    /** 
+     * The level of detail requested for objects composed into this world
+     * (in the range 0 to 1, where 1 is full detail).
+     */
+    private double levelOfDetail;
+
     /** The objects. */
     private List<Object3D> objects;
 
+    /** The faces for all objects, in the order the objects were added. */
+    private List<Face> faces;
+
+    /** 
+     * The world coordinates of all vertices, packed as (x, y, z) triples.
+     * The array grows as objects are added, so it may be longer than 
+     * required.
+     */
+    private double[] vertexCoords;
+
+    /** The total number of vertices for all objects in this world. */
+    private int vertexCount;
+
+    /** 
+     * The eye coordinates (x, y, z) calculated by the last call to 
+     * {@link #project(ViewPoint3D, float)}.
+     */
+    private double[] eyeCoords;
+
+    /** 
+     * The screen coordinates (x, y) calculated by the last call to 
+     * {@link #project(ViewPoint3D, float)}.
+     */
+    private float[] screenCoords;
+
+    /** A workspace for the view point transformation. */
+    private double[] workspace;
+
+    /** 
+     * The unit normal for each face in world coordinates, packed as (x, y, z)
+     * triples ({@code null} until calculated).
+     */
+    private double[] faceNormals;
+
+    /** The shaded color for each face ({@code null} until calculated). */
+    private int[] shadedColors;
+
+    /** 
+     * The sunlight direction (in world coordinates) that was used to 
+     * calculate the shaded colors.
+     */
+    private double[] shadedSun;
+
+    /** A workspace for the sunlight direction in world coordinates. */
+    private double[] sunWorkspace;
+
     /**
      * Creates a new empty world.
      */
     public World() {
+        this.levelOfDetail = 1.0;
         this.objects = new java.util.ArrayList<Object3D>();
+        this.faces = new java.util.ArrayList<Face>();
+        this.vertexCoords = new double[64 * 3];
+        this.vertexCount = 0;
+        this.eyeCoords = new double[0];
+        this.screenCoords = new float[0];
+        this.workspace = new double[3];
+        this.shadedSun = new double[3];
+        this.sunWorkspace = new double[3];
     }
 
   
@@ -88,13 +162,59 @@ public class World {
     }
     
     /**
-     * Adds an object to the world.
+     * Returns the level of detail requested for the objects composed into 
+     * this world.  The default value is <code>1.0</code> (full detail).
+     * 
+     * @return The level of detail (in the range 0 to 1).
+     * 
+     * @since 1.2
+     */
+    public double getLevelOfDetail() {
+        return this.levelOfDetail;
+    }
+
+    /**
+     * Sets the level of detail requested for the objects composed into this
+     * world.  This is a hint that renderers can use to compose simpler 
+     * objects (for example, a surface with fewer samples) when the world is
+     * used for fast, approximate rendering, such as while the user is 
+     * rotating a chart.  It should be set before the objects are composed.
+     * 
+     * @param lod  the level of detail (greater than 0 and not more than 1).
+     * 
+     * @since 1.2
+     */
+    public void setLevelOfDetail(double lod) {
+        if (lod <= 0.0 || lod > 1.0) {
+            throw new IllegalArgumentException(
+                    "Requires 'lod' in the range (0, 1].");
+        }
+        this.levelOfDetail = lod;
+    }
+
+    /**
+     * Adds an object to the world.  The object's vertices are appended to
+     * the world's vertex store at this point.
      *
      * @param object  the object ({@code null} not permitted).
      */
     public void add(Object3D object) {
         ArgChecks.nullNotPermitted(object, "object");
+        int count = object.getVertexCount();
+        int required = (this.vertexCount + count) * 3;
+        if (required > this.vertexCoords.length) {
+            this.vertexCoords = Arrays.copyOf(this.vertexCoords, 
+                    Math.max(required, this.vertexCoords.length * 2));
+        }
+        object.copyCoordinates(this.vertexCoords, this.vertexCount * 3);
+        for (Face f : object.getFaces()) {
+            f.setOffset(this.vertexCount);
+        }
+        this.faces.addAll(object.getFaces());
+        this.vertexCount += count;
         this.objects.add(object);
+        this.faceNormals = null;
+        this.shadedColors = null;
     }
 
     /**
@@ -115,11 +235,102 @@ public class World {
      * @return The total number of vertices.
      */
     public int getVertexCount() {
-        int count = 0;
-        for (Object3D object: this.objects) {
-            count += object.getVertexCount();
+        return this.vertexCount;
+    }
+
+    /**
+     * Returns the total number of faces for all objects in this world.
+     *
+     * @return The total number of faces.
+     * 
+     * @since 1.2
+     */
+    public int getFaceCount() {
+        return this.faces.size();
+    }
+
+    /**
+     * Sets the item key for all the faces from the specified index to the
+     * end of the list of faces.  A plot can use this to tag the faces added
+     * to the world for a data item with the key for that item.
+     *
+     * @param firstFace  the index of the first face.
+     * @param key  the item key ({@code null} permitted).
+     * 
+     * @since 1.2
+     */
+    public void setItemKey(int firstFace, ItemKey key) {
+        for (int i = firstFace; i < this.faces.size(); i++) {
+            this.faces.get(i).setItemKey(key);
         }
-        return count;
+    }
+
+    /**
+     * Sets the series and item indices for all the faces from the specified
+     * index to the end of the list of faces (see 
+     * {@link Face#setItem(int, int)}).
+     *
+     * @param firstFace  the index of the first face.
+     * @param series  the series index.
+     * @param item  the item index.
+     * 
+     * @since 1.2
+     */
+    public void setItem(int firstFace, int series, int item) {
+        for (int i = firstFace; i < this.faces.size(); i++) {
+            this.faces.get(i).setItem(series, item);
+        }
+    }
+
+    /**
+     * Transforms all the vertices in this world to eye coordinates and 
+     * screen coordinates for the specified view point.  The results are 
+     * written to buffers that are reused by subsequent calls, and can be 
+     * read via {@link #getEyeCoordinates()} and 
+     * {@link #getScreenCoordinates()}.
+     * 
+     * @param vp  the view point ({@code null} not permitted).
+     * @param d  the projection distance.
+     * 
+     * @since 1.2
+     */
+    public void project(ViewPoint3D vp, float d) {
+        ArgChecks.nullNotPermitted(vp, "vp");
+        int count = this.vertexCount;
+        if (this.eyeCoords.length < count * 3) {
+            this.eyeCoords = new double[count * 3];
+            this.screenCoords = new float[count * 2];
+        }
+        vp.project(this.vertexCoords, count, d, this.eyeCoords, 
+                this.screenCoords);
+    }
+
+    /**
+     * Returns the eye coordinates, packed as (x, y, z) triples, calculated 
+     * by the last call to {@link #project(ViewPoint3D, float)}.  The array 
+     * is a direct reference to a buffer that is overwritten by the next 
+     * projection, and may be longer than required.
+     * 
+     * @return The eye coordinates (never {@code null}).
+     * 
+     * @since 1.2
+     */
+    public double[] getEyeCoordinates() {
+        return this.eyeCoords;
+    }
+
+    /**
+     * Returns the screen coordinates, packed as (x, y) pairs, calculated by 
+     * the last call to {@link #project(ViewPoint3D, float)}.  The array is
+     * a direct reference to a buffer that is overwritten by the next 
+     * projection, and may be longer than required.
+     * 
+     * @return The screen coordinates (never {@code null}).
+     * 
+     * @since 1.2
+     */
+    public float[] getScreenCoordinates() {
+        return this.screenCoords;
     }
 
     /**
@@ -131,12 +342,13 @@ public class World {
      * @return The eye coordinates.
      */
     public Point3D[] calculateEyeCoordinates(ViewPoint3D vp) {
-        Point3D[] result = new Point3D[getVertexCount()];
-        int index = 0;
-        for (Object3D object : this.objects) {
-            Point3D[] vertices = object.calculateEyeCoordinates(vp);
-            System.arraycopy(vertices, 0, result, index, vertices.length);
-            index = index + vertices.length;
+        ArgChecks.nullNotPermitted(vp, "vp");
+        Point3D[] result = new Point3D[this.vertexCount];
+        double[] src = this.vertexCoords;
+        for (int i = 0; i < this.vertexCount; i++) {
+            double[] eye = vp.worldToEye(src[i * 3], src[i * 3 + 1], 
+                    src[i * 3 + 2], this.workspace);
+            result[i] = new Point3D(eye[0], eye[1], eye[2]);
         }
         return result;
     }
@@ -151,33 +363,96 @@ public class World {
      * @return The projected points.
      */
     public Point2D[] calculateProjectedPoints(ViewPoint3D vp, float d) {
-        Point2D[] result = new Point2D[getVertexCount()];
-        int index = 0;
-        for (Object3D object : this.objects) {
-            Point2D[] pts = object.calculateProjectedPoints(vp, d);
-            System.arraycopy(pts, 0, result, index, pts.length);
-            index = index + pts.length;
+        ArgChecks.nullNotPermitted(vp, "vp");
+        Point2D[] result = new Point2D[this.vertexCount];
+        double[] src = this.vertexCoords;
+        for (int i = 0; i < this.vertexCount; i++) {
+            double[] eye = vp.worldToEye(src[i * 3], src[i * 3 + 1], 
+                    src[i * 3 + 2], this.workspace);
+            result[i] = new Point2D((float) (-d * eye[0] / eye[2]), 
+                    (float) (-d * eye[1] / eye[2]));
         }
         return result;
     }
 
     /**
-     * Fetches the faces for all the objects in this world, updating the
-     * offset to match the current position.
+     * Returns the unit normal vector for each face in world coordinates, 
+     * packed as (x, y, z) triples in the same order as the list returned by 
+     * {@link #getFaces()}.  The normals are calculated on the first call and
+     * retained until another object is added to the world.
      *
-     * @return A list of faces.
+     * @return The face normals (a direct reference to the internal array).
+     *
+     * @since 1.2
      */
-    public List<Face> getFaces() {
-        List<Face> result = new java.util.ArrayList<Face>();
-        int offset = 0;
-        for (Object3D object : this.objects) {
-            for (Face f : object.getFaces()) {
-                f.setOffset(offset);
+    public double[] getFaceNormals() {
+        if (this.faceNormals == null) {
+            List<Face> allFaces = getFaces();
+            double[] normals = new double[allFaces.size() * 3];
+            double[] n = this.workspace;
+            for (int i = 0; i < allFaces.size(); i++) {
+                allFaces.get(i).calculateNormal(this.vertexCoords, n);
+                normals[i * 3] = n[0];
+                normals[i * 3 + 1] = n[1];
+                normals[i * 3 + 2] = n[2];
             }
-            offset += object.getVertexCount();
-            result.addAll(object.getFaces());
+            this.faceNormals = normals;
         }
+        return this.faceNormals;
+    }
+
+    /**
+     * Returns the color for each face (in the same order as the list 
+     * returned by {@link #getFaces()}) shaded according to the angle between
+     * the face and the sunlight.  The sunlight direction is fixed relative to
+     * the viewer, so the results depend on the view point, but they are 
+     * cached and only recalculated when the sunlight direction in world 
+     * coordinates changes (or an object is added to the world).
+     *
+     * @param vp  the view point ({@code null} not permitted).
+     *
+     * @return The shaded colors (a direct reference to the internal array).
+     *
+     * @since 1.2
+     */
+    public int[] getShadedColors(ViewPoint3D vp) {
+        ArgChecks.nullNotPermitted(vp, "vp");
+        double[] sun = vp.eyeToWorldDirection(this.sunX, this.sunY, this.sunZ,
+                this.sunWorkspace);
+        if (this.shadedColors != null && Arrays.equals(sun, this.shadedSun)) {
+            return this.shadedColors;
+        }
+        double[] normals = getFaceNormals();
+        int faceCount = this.faces.size();
+        if (this.shadedColors == null) {
+            this.shadedColors = new int[faceCount];
+        }
+        int[] result = this.shadedColors;
+        for (int i = 0; i < faceCount; i++) {
+            int c = this.faces.get(i).getColor();
+            double inprod = normals[i * 3] * sun[0] 
+                    + normals[i * 3 + 1] * sun[1] + normals[i * 3 + 2] * sun[2];
+            double shade = (inprod + 1) / 2.0;
+            result[i] = Color.argb(Color.alpha(c), (int) (Color.red(c) * shade), 
+                    (int) (Color.green(c) * shade), 
+                    (int) (Color.blue(c) * shade));
+        }
+        System.arraycopy(sun, 0, this.shadedSun, 0, 3);
         return result;
     }
 
+    /**
+     * Fetches the faces for all the objects in this world.  The vertex 
+     * offset for each face is set when its object is added to the world 
+     * (see {@link #add(Object3D)}), so an object must not be added to more 
+     * than one world.  Note that the list returned is a direct reference to 
+     * the internal storage for this world, so callers should take care not 
+     * to modify it.
+     *
+     * @return A list of faces.
+     */
+    public List<Face> getFaces() {
+        return this.faces;
+    }
+
 }
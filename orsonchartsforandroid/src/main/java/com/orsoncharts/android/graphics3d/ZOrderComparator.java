@@ -40,6 +40,9 @@ import java.util.Comparator;
 public class ZOrderComparator implements Comparator<Face> {
 
     Point3D[] pts;
+
+    /** The eye coordinates, packed as (x, y, z) triples. */
+    double[] coords;
     
     /**
      * Creates a new comparator.
@@ -49,14 +52,31 @@ public class ZOrderComparator implements Comparator<Face> {
     public ZOrderComparator(Point3D[] pts) {
         this.pts = pts;
     }
+
+    /**
+     * Creates a new comparator for packed eye coordinates.
+     * 
+     * @param coords  the eye coordinates, packed as (x, y, z) triples.
+     * 
+     * @since 1.2
+     */
+    public ZOrderComparator(double[] coords) {
+        this.coords = coords;
+    }
     
     /* (non-Javadoc)
      * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
      */
     @Override
     public int compare(Face f1, Face f2) {
-        double z1 = f1.calculateAverageZValue(this.pts);
-        double z2 = f2.calculateAverageZValue(this.pts);
+        double z1, z2;
+        if (this.coords != null) {
+            z1 = f1.calculateAverageZValue(this.coords);
+            z2 = f2.calculateAverageZValue(this.coords);
+        } else {
+            z1 = f1.calculateAverageZValue(this.pts);
+            z2 = f2.calculateAverageZValue(this.pts);
+        }
         if (z1 > z2) {
             return 1;
         }
@@ -46,6 +46,7 @@ import com.orsoncharts.android.axis.Axis3DChangeListener;
 import com.orsoncharts.android.axis.CategoryAxis3D;
 import com.orsoncharts.android.axis.ValueAxis3D;
 import com.orsoncharts.android.data.Dataset3DChangeEvent;
+import com.orsoncharts.android.data.KeyedValues3DItemKey;
 import com.orsoncharts.android.data.category.CategoryDataset3D;
 import com.orsoncharts.android.graphics3d.Dimension3D;
 import com.orsoncharts.android.graphics3d.World;
@@ -563,8 +564,15 @@ public class CategoryPlot3D extends AbstractPlot3D
             for (int row = 0; row < this.dataset.getRowCount(); row++) {
                 for (int column = 0; column < this.dataset.getColumnCount(); 
                         column++) {
+                    int firstFace = world.getFaceCount();
                     this.renderer.composeItem(this.dataset, series, row, column,
                             world, getDimensions(), xOffset, yOffset, zOffset);
+                    if (world.getFaceCount() > firstFace) {
+                        world.setItemKey(firstFace, new KeyedValues3DItemKey(
+                                this.dataset.getSeriesKey(series), 
+                                this.dataset.getRowKey(row), 
+                                this.dataset.getColumnKey(column)));
+                    }
                 }
             }
         }
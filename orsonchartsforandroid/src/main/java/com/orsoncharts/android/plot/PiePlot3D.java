@@ -43,9 +43,12 @@ import com.orsoncharts.android.Chart3D;
 import com.orsoncharts.android.Chart3DFactory;
 import com.orsoncharts.android.TextStyle;
 import com.orsoncharts.android.data.DataUtils;
+import com.orsoncharts.android.data.Dataset3DChangeEvent;
+import com.orsoncharts.android.data.KeyedValuesItemKey;
 import com.orsoncharts.android.data.PieDataset3D;
 import com.orsoncharts.android.graphics3d.Dimension3D;
 import com.orsoncharts.android.graphics3d.Dot3D;
+import com.orsoncharts.android.graphics3d.Face;
 import com.orsoncharts.android.graphics3d.Object3D;
 import com.orsoncharts.android.graphics3d.World;
 import com.orsoncharts.android.label.PieLabelGenerator;
@@ -106,6 +109,12 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
      * number will give better output but slower performance.
      */
     private int segments = 40;
+
+    /** 
+     * The cached pie geometry and label anchors (built on demand and 
+     * cleared whenever the dataset, radius, depth or segment count changes).
+     */
+    private transient Tessellation tessellation;
   
     /**
      * Creates a new pie plot in 3D.
@@ -147,6 +156,7 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
         this.dataset.removeChangeListener(this);
         this.dataset = dataset;
         this.dataset.addChangeListener(this);
+        this.tessellation = null;
         fireChangeEvent();
     }
 
@@ -167,6 +177,7 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
      */
     public void setRadius(double radius) {
         this.radius = radius;
+        this.tessellation = null;
         fireChangeEvent();
     }
   
@@ -187,6 +198,7 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
      */
     public void setDepth(double depth) {
         this.depth = depth;
+        this.tessellation = null;
         fireChangeEvent();
     }
     
@@ -345,6 +357,7 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
      */
     public void setSegmentCount(int count) {
         this.segments = count;
+        this.tessellation = null;
         fireChangeEvent();
     }
     
@@ -382,19 +395,16 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
     @Override
     public void compose(World world, double xOffset, double yOffset, 
             double zOffset) {
-        double total = DataUtils.total(this.dataset);
-        double r = 0.0;
-        int count = this.dataset.getItemCount();
-        for (int i = 0; i < count; i++) {
-            Number n = this.dataset.getValue(i);
-            if (n != null) {
-                double angle = Math.PI * 2 * (n.doubleValue() / total);
-                int c = this.sectionColorSource.getColor(
-                        this.dataset.getKey(i));
-                world.add(Object3D.createPieSegment(this.radius, 0.0, yOffset, 
-                        this.depth, r, r + angle, Math.PI / this.segments, c));
-                r = r + angle;
+        Tessellation t = getTessellation(yOffset);
+        for (int i = 0; i < t.getSectionCount(); i++) {
+            if (t.isEmpty(i)) {
+                continue;
             }
+            Comparable<?> key = this.dataset.getKey(i);
+            int c = this.sectionColorSource.getColor(key);
+            int firstFace = world.getFaceCount();
+            world.add(t.createSegment(i, c));
+            world.setItemKey(firstFace, new KeyedValuesItemKey(key));
         }
     }
   
@@ -414,25 +424,50 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
      */
     public List<Object3D> getLabelFaces(double xOffset, double yOffset, 
             double zOffset) {
-        double total = DataUtils.total(this.dataset);
+        Tessellation t = getTessellation(yOffset);
         List<Object3D> result = new ArrayList<Object3D>();
         // this adds the centre points
         result.add(new Dot3D(0.0f, 0.0f, 0.0f, Color.RED));
         result.add(new Dot3D(0.0f, (float) yOffset, 0.0f, Color.RED));
-        double r = 0.0;
-        int count = this.dataset.getItemCount();
-        for (int i = 0; i < count; i++) {
-            Number n = this.dataset.getValue(i);
-            if (n != null) {
-                double angle = Math.PI * 2 * (n.doubleValue() / total);
-                result.addAll(Object3D.createPieLabelMarkers(this.radius * 1.2,
-                        0.0, yOffset - this.depth * 0.05, this.depth * 1.1, r, 
-                        r + angle));
-                r = r + angle;
+        for (int i = 0; i < t.getSectionCount(); i++) {
+            if (!t.isEmpty(i)) {
+                result.add(t.createLabelMarker(i, false));
+                result.add(t.createLabelMarker(i, true));
             }
         }
         return result;
     }
+
+    /**
+     * Returns the tessellation of the pie for the specified base, reusing 
+     * the cached one when possible.
+     * 
+     * @param base  the y-coordinate for the base of the pie.
+     * 
+     * @return The tessellation (never {@code null}). 
+     */
+    private Tessellation getTessellation(double base) {
+        Tessellation t = this.tessellation;
+        if (t == null || t.base != base) {
+            t = new Tessellation(this.dataset, this.radius, this.depth, 
+                    this.segments, base);
+            this.tessellation = t;
+        }
+        return t;
+    }
+
+    /**
+     * Receives notification that the plot's dataset has changed, discards 
+     * the cached pie geometry and passes on a {@link Plot3DChangeEvent} to 
+     * the plot's registered listeners.
+     * 
+     * @param event  the event. 
+     */
+    @Override
+    public void datasetChanged(Dataset3DChangeEvent event) {
+        this.tessellation = null;
+        super.datasetChanged(event);
+    }
   
     /**
      * Tests this plot for equality with an arbitrary object.  Note that the
@@ -494,4 +529,197 @@ public class PiePlot3D extends AbstractPlot3D implements Serializable {
         return hash;
     }
 
+
+    /**
+     * The pie geometry (vertices and faces for each section) and the label 
+     * anchor points, computed once for a given dataset, radius, depth and 
+     * segment count.  The rim vertices lie on a fixed grid of 
+     * {@code 2 * segments} angles (plus the section boundaries), so a single
+     * sin/cos table is shared by all the sections.  New {@link Object3D} 
+     * instances are created from the cached data for each world, since the
+     * faces are updated with a vertex offset when they are added to a world.
+     */
+    static final class Tessellation {
+        
+        /** The y-coordinate for the base of the pie. */
+        final double base;
+        
+        /** The vertex coordinates for each section (null if empty). */
+        private final double[][] coords;
+        
+        /** The face vertex indices for each section (null if empty). */
+        private final int[][][] faces;
+        
+        /** The label anchor points (bottom then top) for each section. */
+        private final double[][] anchors;
+        
+        /**
+         * Creates the tessellation for a pie.
+         * 
+         * @param dataset  the dataset.
+         * @param radius  the pie radius.
+         * @param depth  the pie depth.
+         * @param segments  the number of segments for 180 degrees.
+         * @param base  the y-coordinate for the base of the pie.
+         */
+        Tessellation(PieDataset3D dataset, double radius, double depth, 
+                int segments, double base) {
+            this.base = base;
+            int n = 2 * segments;
+            double inc = Math.PI / segments;
+            double[] cos = new double[n + 1];
+            double[] sin = new double[n + 1];
+            for (int j = 0; j <= n; j++) {
+                cos[j] = Math.cos(j * inc);
+                sin[j] = Math.sin(j * inc);
+            }
+            // skip grid angles this close to a boundary to avoid slivers
+            double eps = inc * 0.001;
+            
+            int count = dataset.getItemCount();
+            this.coords = new double[count][];
+            this.faces = new int[count][][];
+            this.anchors = new double[count][];
+            double total = DataUtils.total(dataset);
+            double top = base + depth;
+            double labelR = radius * 1.2 * 0.9;
+            double labelBase = base - depth * 0.05;
+            double labelTop = labelBase + depth * 1.1;
+            double r = 0.0;
+            for (int i = 0; i < count; i++) {
+                Number value = dataset.getValue(i);
+                if (value == null) {
+                    continue;
+                }
+                double angle1 = r;
+                double angle2 = r + Math.PI * 2 * (value.doubleValue() / total);
+                r = angle2;
+                
+                // the rim angles: the section boundaries and the grid angles 
+                // in between
+                int j0 = (int) Math.floor((angle1 + eps) / inc) + 1;
+                int j1 = Math.min((int) Math.ceil((angle2 - eps) / inc) - 1, n);
+                int rim = 2 + Math.max(j1 - j0 + 1, 0);
+                double[] c = new double[(2 + rim * 2) * 3];
+                c[1] = base;
+                c[4] = top;
+                int v = 2;
+                v = addRimVertices(c, v, radius * Math.cos(angle1), 
+                        radius * Math.sin(angle1), base, top);
+                for (int j = j0; j <= j1; j++) {
+                    v = addRimVertices(c, v, radius * cos[j], radius * sin[j], 
+                            base, top);
+                }
+                addRimVertices(c, v, radius * Math.cos(angle2), 
+                        radius * Math.sin(angle2), base, top);
+                this.coords[i] = c;
+                
+                // the faces follow Object3D.createPieSegment()
+                int[][] f = new int[3 * rim - 1][];
+                f[0] = new int[] {1, 3, 2, 0};
+                int k = 1;
+                for (int vc = 6; vc <= 2 + rim * 2; vc += 2) {
+                    f[k++] = new int[] {vc - 2, vc - 4, vc - 3, vc - 1};
+                    f[k++] = new int[] {0, vc - 4, vc - 2, 0};
+                    f[k++] = new int[] {1, vc - 1, vc - 3, 1};
+                }
+                int last = rim * 2;
+                f[k] = new int[] {1, 0, last, last + 1};
+                this.faces[i] = f;
+                
+                // the label anchors follow Object3D.createPieLabelMarkers()
+                double mid = (angle1 + angle2) / 2.0;
+                double ax = labelR * Math.cos(mid);
+                double az = labelR * Math.sin(mid);
+                this.anchors[i] = new double[] {ax, labelBase, az, ax, 
+                        labelTop, az};
+            }
+        }
+        
+        /**
+         * Writes the bottom and top vertices for one point on the rim.
+         * 
+         * @param c  the coordinate array.
+         * @param v  the index of the next vertex.
+         * @param x  the x-coordinate.
+         * @param z  the z-coordinate.
+         * @param base  the y-coordinate for the bottom vertex.
+         * @param top  the y-coordinate for the top vertex.
+         * 
+         * @return The index of the next vertex.
+         */
+        private static int addRimVertices(double[] c, int v, double x, 
+                double z, double base, double top) {
+            int i = v * 3;
+            c[i] = x;
+            c[i + 1] = base;
+            c[i + 2] = z;
+            c[i + 3] = x;
+            c[i + 4] = top;
+            c[i + 5] = z;
+            return v + 2;
+        }
+        
+        /**
+         * Returns the number of sections (including empty ones).
+         * 
+         * @return The section count.
+         */
+        int getSectionCount() {
+            return this.coords.length;
+        }
+        
+        /**
+         * Returns {@code true} if the section has no value (and therefore no
+         * geometry).
+         * 
+         * @param section  the section index.
+         * 
+         * @return A boolean.
+         */
+        boolean isEmpty(int section) {
+            return this.coords[section] == null;
+        }
+        
+        /**
+         * Creates a new 3D object for one section of the pie.
+         * 
+         * @param section  the section index.
+         * @param color  the color.
+         * 
+         * @return The pie segment. 
+         */
+        Object3D createSegment(int section, int color) {
+            Object3D segment = new Object3D();
+            double[] c = this.coords[section];
+            for (int i = 0; i < c.length; i += 3) {
+                segment.addVertex(c[i], c[i + 1], c[i + 2]);
+            }
+            int[][] f = this.faces[section];
+            for (int i = 0; i < f.length; i++) {
+                // the two flat sides are not outlined
+                boolean outline = i > 0 && i < f.length - 1;
+                segment.addFace(new Face(f[i], color, outline));
+            }
+            return segment;
+        }
+        
+        /**
+         * Creates a label marker (a small sheet in the y-plane) for one 
+         * section of the pie.
+         * 
+         * @param section  the section index.
+         * @param top  {@code true} for the marker on the top face, 
+         *     {@code false} for the marker on the bottom face.
+         * 
+         * @return The label marker.
+         */
+        Object3D createLabelMarker(int section, boolean top) {
+            double[] a = this.anchors[section];
+            int i = top ? 3 : 0;
+            return Object3D.createYSheet(2.0, a[i], a[i + 1], a[i + 2], 
+                    top ? Color.BLUE : Color.RED, top);
+        }
+    }
+
 }
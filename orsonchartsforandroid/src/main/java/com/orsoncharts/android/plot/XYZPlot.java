@@ -40,21 +40,28 @@ import android.graphics.Color;
 import android.graphics.Paint;
 
 import com.orsoncharts.android.LineStyle;
+import com.orsoncharts.android.Range;
 import com.orsoncharts.android.axis.Axis3DChangeEvent;
 import com.orsoncharts.android.axis.Axis3DChangeListener;
+import com.orsoncharts.android.axis.NumberAxis3D;
 import com.orsoncharts.android.axis.ValueAxis3D;
 import com.orsoncharts.android.data.Dataset3DChangeEvent;
 import com.orsoncharts.android.data.Dataset3DChangeListener;
 import com.orsoncharts.android.data.xyz.XYZDataset;
+import com.orsoncharts.android.data.xyz.XYZItemKey;
+import com.orsoncharts.android.data.xyz.XYZSpatialIndex;
 import com.orsoncharts.android.graphics3d.Dimension3D;
 import com.orsoncharts.android.graphics3d.World;
 import com.orsoncharts.android.label.StandardXYZLabelGenerator;
 import com.orsoncharts.android.label.XYZLabelGenerator;
 import com.orsoncharts.android.legend.LegendItemInfo;
 import com.orsoncharts.android.legend.StandardLegendItemInfo;
+import com.orsoncharts.android.renderer.ColorScale;
 import com.orsoncharts.android.renderer.ComposeType;
+import com.orsoncharts.android.renderer.GradientColorScale;
 import com.orsoncharts.android.renderer.Renderer3DChangeEvent;
 import com.orsoncharts.android.renderer.Renderer3DChangeListener;
+import com.orsoncharts.android.renderer.xyz.AbstractXYZRenderer;
 import com.orsoncharts.android.renderer.xyz.XYZRenderer;
 import com.orsoncharts.android.util.ArgChecks;
 
@@ -113,6 +120,38 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
     /** The legend label generator. */
     private XYZLabelGenerator legendLabelGenerator;
     
+    /** 
+     * The size (in pixels) of the screen-space bins used to aggregate data
+     * items drawn as glyphs (zero or less to draw every item).
+     * 
+     * @since 1.2
+     */
+    private double densityBinSize;
+    
+    /** 
+     * The color scale used to color each bin according to the number of
+     * items it contains.
+     * 
+     * @since 1.2
+     */
+    private ColorScale densityColorScale;
+    
+    /** 
+     * A flag that controls whether a spatial index is maintained for the
+     * dataset.
+     * 
+     * @since 1.2
+     */
+    private boolean spatialIndexEnabled;
+    
+    /** 
+     * The spatial index for the current dataset ({@code null} if it has not
+     * been built yet, or is out of date).  This is volatile because it is
+     * cleared on the thread that changes the dataset and read on the 
+     * thread that composes the world.
+     */
+    private transient volatile XYZSpatialIndex spatialIndex;
+    
     /**
      * Creates a new plot with the specified axes.
      * 
@@ -154,6 +193,9 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
         this.gridlinePaintZ = Color.WHITE;
         this.gridlineStrokeZ = DEFAULT_GRIDLINE_STROKE;
         this.legendLabelGenerator = new StandardXYZLabelGenerator();
+        this.densityBinSize = 0.0;
+        this.densityColorScale = new GradientColorScale(new Range(1.0, 100.0),
+                Color.rgb(198, 219, 239), Color.rgb(8, 48, 107));
     }
   
     /**
@@ -187,6 +229,7 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
         ArgChecks.nullNotPermitted(dataset, "dataset");
         this.dataset.removeChangeListener(this);
         this.dataset = dataset;
+        this.spatialIndex = null;
         this.dataset.addChangeListener(this);
         fireChangeEvent();
     }
@@ -496,6 +539,201 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
         fireChangeEvent();
     }
     
+    /**
+     * Returns the size (in pixels) of the screen-space bins used to aggregate
+     * the data items drawn as glyphs.  When this is greater than zero, the 
+     * projected glyphs are counted into a grid of square bins covering the 
+     * chart area and one mark is drawn for each occupied bin, colored 
+     * according to the number of items in the bin (see 
+     * {@link #getDensityColorScale()}), so the drawing cost is limited by the
+     * size of the chart rather than the size of the dataset.  The default 
+     * value is <code>0.0</code> (every item is drawn).
+     * <br><br>
+     * A {@link com.orsoncharts.android.renderer.xyz.ScatterXYZRenderer} 
+     * draws its items as glyphs when binning is enabled, even if no glyph
+     * shape has been set.
+     * 
+     * @return The bin size (in pixels).
+     * 
+     * @since 1.2
+     */
+    public double getDensityBinSize() {
+        return this.densityBinSize;
+    }
+    
+    /**
+     * Sets the size (in pixels) of the screen-space bins used to aggregate
+     * the data items drawn as glyphs, and sends a {@link Plot3DChangeEvent} 
+     * to all registered listeners.  Set this to zero to draw every item.
+     * 
+     * @param size  the bin size (in pixels).
+     * 
+     * @since 1.2
+     */
+    public void setDensityBinSize(double size) {
+        this.densityBinSize = size;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the color scale used to color the screen-space bins according
+     * to the number of data items they contain (this is only used when the
+     * density bin size is greater than zero).  The default scale runs from
+     * light blue for one item to dark blue for 100 or more items.
+     * 
+     * @return The color scale (never {@code null}).
+     * 
+     * @since 1.2
+     */
+    public ColorScale getDensityColorScale() {
+        return this.densityColorScale;
+    }
+    
+    /**
+     * Sets the color scale used to color the screen-space bins according to
+     * the number of data items they contain, and sends a 
+     * {@link Plot3DChangeEvent} to all registered listeners.
+     * 
+     * @param scale  the color scale ({@code null} not permitted).
+     * 
+     * @since 1.2
+     */
+    public void setDensityColorScale(ColorScale scale) {
+        ArgChecks.nullNotPermitted(scale, "scale");
+        this.densityColorScale = scale;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the flag that controls whether the plot maintains a spatial 
+     * index for its dataset.  The index is used to skip the items that 
+     * cannot be visible within the current axis ranges when composing the 
+     * chart (which helps when the axes have been zoomed in on a large 
+     * dataset), and can also be used to find the item nearest to a point.  
+     * The index is rebuilt after each change to the dataset, so it is best
+     * suited to data that does not change often.  The default value is 
+     * <code>false</code>.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.2
+     */
+    public boolean isSpatialIndexEnabled() {
+        return this.spatialIndexEnabled;
+    }
+    
+    /**
+     * Sets the flag that controls whether the plot maintains a spatial index
+     * for its dataset, and sends a {@link Plot3DChangeEvent} to all 
+     * registered listeners.
+     * 
+     * @param enabled  the new flag value.
+     * 
+     * @since 1.2
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+        this.spatialIndexEnabled = enabled;
+        this.spatialIndex = null;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the spatial index for the plot's dataset, building it if 
+     * necessary, or {@code null} if the spatial index is not enabled.
+     * 
+     * @return The spatial index (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public XYZSpatialIndex getSpatialIndex() {
+        if (!this.spatialIndexEnabled) {
+            return null;
+        }
+        XYZSpatialIndex index = this.spatialIndex;
+        if (index == null) {
+            index = new XYZSpatialIndex(this.dataset);
+            this.spatialIndex = index;
+        }
+        return index;
+    }
+    
+    /**
+     * Returns <code>true</code> if the plot's renderer composes simpler 
+     * objects when the world requests a reduced level of detail (see 
+     * {@link AbstractXYZRenderer#isLevelOfDetailSupported()}), and 
+     * <code>false</code> otherwise.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.2
+     */
+    public boolean isLevelOfDetailSupported() {
+        return this.renderer instanceof AbstractXYZRenderer 
+                && ((AbstractXYZRenderer) this.renderer)
+                .isLevelOfDetailSupported();
+    }
+    
+    /**
+     * Returns the positions (in the supplied spatial index) of the items 
+     * that may be visible within the current axis ranges, in dataset order,
+     * or {@code null} if the items cannot be selected this way.  That is the
+     * case if {@code index} is {@code null} (the spatial index is not 
+     * enabled), if an axis is not a {@link NumberAxis3D}, or if the renderer
+     * does not report a limit on the extent of each item (see 
+     * {@link AbstractXYZRenderer#getItemExtent()}).  
+     * <br><br>
+     * The index is passed in rather than fetched here because it can be 
+     * discarded on another thread when the dataset changes, so callers 
+     * should take one reference from {@link #getSpatialIndex()} and use it
+     * both for this query and for decoding the positions.
+     * 
+     * @param index  the spatial index ({@code null} permitted).
+     * 
+     * @return The positions of the items (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public int[] findVisibleItems(XYZSpatialIndex index) {
+        if (index == null) {
+            return null;
+        }
+        if (!(this.renderer instanceof AbstractXYZRenderer)
+                || !(this.xAxis instanceof NumberAxis3D) 
+                || !(this.yAxis instanceof NumberAxis3D) 
+                || !(this.zAxis instanceof NumberAxis3D)) {
+            return null;
+        }
+        double extent = ((AbstractXYZRenderer) this.renderer).getItemExtent();
+        if (extent < 0.0) {
+            return null;
+        }
+        return index.findItems(
+                expandRange(this.xAxis.getRange(), extent, 
+                        this.dimensions.getWidth()), 
+                expandRange(this.yAxis.getRange(), extent, 
+                        this.dimensions.getHeight()), 
+                expandRange(this.zAxis.getRange(), extent, 
+                        this.dimensions.getDepth()));
+    }
+    
+    /**
+     * Returns an axis range expanded by the data values corresponding to
+     * the specified extent in world units (with a small allowance for 
+     * rounding, since the renderer makes the final decision about whether
+     * an item is visible).
+     * 
+     * @param range  the axis range.
+     * @param extent  the extent (in world units).
+     * @param length  the length of the axis (in world units).
+     * 
+     * @return The expanded range. 
+     */
+    private static Range expandRange(Range range, double extent, 
+            double length) {
+        double margin = (extent / length + 1E-9) * range.getLength();
+        return new Range(range.getMin() - margin, range.getMax() + margin);
+    }
+    
     /**
      * Returns a list containing legend item info, typically one item for
      * each series in the chart.  This is intended for use in the construction
@@ -538,12 +776,22 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
             // for each data point in the dataset figure out if the composed 
             // shape intersects with the visible 
             // subset of the world, and if so add the object
+            XYZSpatialIndex index = getSpatialIndex();
+            int[] visible = findVisibleItems(index);
+            if (visible != null) {
+                for (int position : visible) {
+                    composeItem(world, index.getSeries(position), 
+                            index.getItem(position), xOffset, yOffset, 
+                            zOffset);
+                }
+                return;
+            }
             int seriesCount = this.dataset.getSeriesCount();
             for (int series = 0; series < seriesCount; series++) {
                 int itemCount = this.dataset.getItemCount(series);
                 for (int item = 0; item < itemCount; item++) {
-                    this.renderer.composeItem(this.dataset, series, item, world, 
-                    this.dimensions, xOffset, yOffset, zOffset);
+                    composeItem(world, series, item, xOffset, yOffset, 
+                            zOffset);
                 }
             }
         } else {
@@ -553,6 +801,50 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
         }
     }
 
+    /**
+     * Asks the renderer to compose one data item, then tags the faces that 
+     * were added to the world with the series and item indices (the item 
+     * key is only created if the item is looked up, see 
+     * {@link #createItemKey(int, int)}).
+     * 
+     * @param world  the world.
+     * @param series  the series index.
+     * @param item  the item index.
+     * @param xOffset  the x-offset.
+     * @param yOffset  the y-offset.
+     * @param zOffset  the z-offset.
+     */
+    private void composeItem(World world, int series, int item, 
+            double xOffset, double yOffset, double zOffset) {
+        int firstFace = world.getFaceCount();
+        this.renderer.composeItem(this.dataset, series, item, world, 
+                this.dimensions, xOffset, yOffset, zOffset);
+        world.setItem(firstFace, series, item);
+    }
+
+    /**
+     * Creates the key for a data item in the plot's dataset, or returns 
+     * {@code null} if the series index is no longer valid.  The faces 
+     * composed for an item record only its series and item indices (see 
+     * {@link com.orsoncharts.android.graphics3d.Face#setItem(int, int)}),
+     * and the key is created from them when it is needed.  The indices are 
+     * resolved against the current dataset.
+     * 
+     * @param series  the series index.
+     * @param item  the item index.
+     * 
+     * @return The item key (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public XYZItemKey createItemKey(int series, int item) {
+        XYZDataset ds = this.dataset;
+        if (series < 0 || series >= ds.getSeriesCount()) {
+            return null;
+        }
+        return new XYZItemKey(ds.getSeriesKeys().get(series), item);
+    }
+
     /**
      * Tests this plot instance for equality with an arbitrary object.
      * 
@@ -602,6 +894,15 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
         if (!this.legendLabelGenerator.equals(that.legendLabelGenerator)) {
             return false;
         }
+        if (this.spatialIndexEnabled != that.spatialIndexEnabled) {
+            return false;
+        }
+        if (this.densityBinSize != that.densityBinSize) {
+            return false;
+        }
+        if (!this.densityColorScale.equals(that.densityColorScale)) {
+            return false;
+        }
         return super.equals(obj);
     }
 
@@ -642,6 +943,7 @@ public class XYZPlot extends AbstractPlot3D implements Dataset3DChangeListener,
      */
     @Override
     public void datasetChanged(Dataset3DChangeEvent event) {
+        this.spatialIndex = null;
         this.xAxis.configureAsXAxis(this);
         this.yAxis.configureAsYAxis(this);
         this.zAxis.configureAsZAxis(this);
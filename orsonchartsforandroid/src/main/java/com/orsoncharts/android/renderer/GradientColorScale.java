@@ -111,7 +111,8 @@ public class GradientColorScale extends AbstractColorScale
             return valueToColor(r.getMax());
         }
         double fraction = getRange().percent(value);
-        int i = (int) (fraction * this.colors.length);
+        int i = Math.min((int) (fraction * this.colors.length), 
+                this.colors.length - 1);
         if (this.colors[i] == 0) {
             float p = (float) fraction;
             int alpha = (int) (Color.alpha(this.lowColor) * (1 - p) + Color.alpha(this.highColor) * p);
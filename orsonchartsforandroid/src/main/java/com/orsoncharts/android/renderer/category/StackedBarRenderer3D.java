@@ -34,7 +34,9 @@ package com.orsoncharts.android.renderer.category;
 
 import com.orsoncharts.android.Range;
 import com.orsoncharts.android.data.category.CategoryDataset3D;
+import com.orsoncharts.android.data.AbstractDataset3D;
 import com.orsoncharts.android.data.DataUtils;
+import com.orsoncharts.android.data.StackedValuesTable;
 import com.orsoncharts.android.data.Values3D;
 import com.orsoncharts.android.graphics3d.Dimension3D;
 import com.orsoncharts.android.graphics3d.World;
@@ -58,6 +60,18 @@ import com.orsoncharts.android.Chart3DFactory;
  */
 public class StackedBarRenderer3D extends BarRenderer3D {
 
+    /** 
+     * The stacked subtotals for the most recently rendered dataset (this is
+     * reused until the dataset version changes).
+     */
+    private transient StackedValuesTable stackTable;
+
+    /** The dataset that the stack table was computed from. */
+    private transient Values3D<?> stackTableData;
+
+    /** The version of the dataset that the stack table was computed from. */
+    private transient int stackTableVersion;
+
     /**
      * Creates a default constructor.
      */
@@ -77,7 +91,11 @@ public class StackedBarRenderer3D extends BarRenderer3D {
      */
     @Override
     public Range findValueRange(Values3D<? extends Number> data) {
-        return DataUtils.findStackedValueRange(data);
+        StackedValuesTable table = findStackTable(data);
+        if (table == null) {
+            return DataUtils.findStackedValueRange(data);
+        }
+        return table.findRange(0.0);
     }
     
     /**
@@ -104,11 +122,23 @@ public class StackedBarRenderer3D extends BarRenderer3D {
         if (Double.isNaN(value)) {
             return;
         }        
-        double[] stack = DataUtils.stackSubTotal(dataset, getBase(), series,
-                row, column);
-        double lower = stack[1];
-        if (value < 0.0) {
-            lower = stack[0];
+        double lower;
+        StackedValuesTable table = findStackTable(dataset);
+        if (table != null) {
+            if (value < 0.0) {
+                lower = getBase() 
+                        + table.getNegativeSubTotal(series, row, column);
+            } else {
+                lower = getBase() 
+                        + table.getPositiveSubTotal(series, row, column);
+            }
+        } else {
+            double[] stack = DataUtils.stackSubTotal(dataset, getBase(), 
+                    series, row, column);
+            lower = stack[1];
+            if (value < 0.0) {
+                lower = stack[0];
+            }
         }
         double upper = lower + value;
         composeItem(upper, lower, dataset, series, row, column, world, 
@@ -116,6 +146,31 @@ public class StackedBarRenderer3D extends BarRenderer3D {
         
     }
     
+    /**
+     * Returns the table of stacked subtotals for the specified data, reusing
+     * the previous table if the data is the same dataset and its version has
+     * not changed.  The table can only be cached for datasets that track 
+     * their version (subclasses of {@link AbstractDataset3D}), for other 
+     * data sources this method returns {@code null}.
+     * 
+     * @param data  the data ({@code null} not permitted).
+     * 
+     * @return The table (possibly {@code null}). 
+     */
+    private StackedValuesTable findStackTable(Values3D<? extends Number> data) {
+        if (!(data instanceof AbstractDataset3D)) {
+            return null;
+        }
+        int version = ((AbstractDataset3D) data).getVersion();
+        if (this.stackTable == null || this.stackTableData != data 
+                || this.stackTableVersion != version) {
+            this.stackTable = new StackedValuesTable(data);
+            this.stackTableData = data;
+            this.stackTableVersion = version;
+        }
+        return this.stackTable;
+    }
+
     /**
      * Tests this renderer for equality with an arbitrary object.
      * 
@@ -113,6 +113,39 @@ public class AbstractXYZRenderer extends AbstractRenderer3D {
         throw new UnsupportedOperationException();
     }
     
+    /**
+     * Returns the distance (in world units) by which the representation of a
+     * data item can extend beyond the item's position along each axis, or a
+     * negative value if there is no such limit.  When the plot has a spatial
+     * index (see {@link XYZPlot#setSpatialIndexEnabled(boolean)}) it uses 
+     * this to skip the items that cannot be visible within the current axis
+     * ranges.  The default implementation returns <code>-1.0</code>, so 
+     * that no items are skipped.
+     * 
+     * @return The extent (in world units).
+     * 
+     * @since 1.2
+     */
+    public double getItemExtent() {
+        return -1.0;
+    }
+    
+    /**
+     * Returns <code>true</code> if this renderer composes simpler objects 
+     * when the world requests a reduced level of detail (see 
+     * {@link World#getLevelOfDetail()}), and <code>false</code> otherwise.
+     * The chart only composes a separate draft world for renderers that 
+     * return <code>true</code> here.  The default implementation returns
+     * <code>false</code>.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.2
+     */
+    public boolean isLevelOfDetailSupported() {
+        return false;
+    }
+    
     /**
      * Returns the object that provides the color instances for items drawn
      * by the renderer.
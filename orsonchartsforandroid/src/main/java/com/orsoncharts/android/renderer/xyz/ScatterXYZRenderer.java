@@ -37,10 +37,15 @@ import java.io.Serializable;
 import com.orsoncharts.android.Chart3DFactory;
 import com.orsoncharts.android.axis.Axis3D;
 import com.orsoncharts.android.data.xyz.XYZDataset;
+import com.orsoncharts.android.data.xyz.XYZSpatialIndex;
 import com.orsoncharts.android.graphics3d.Dimension3D;
+import com.orsoncharts.android.graphics3d.Face;
+import com.orsoncharts.android.graphics3d.GlyphFace;
+import com.orsoncharts.android.graphics3d.GlyphShape;
 import com.orsoncharts.android.graphics3d.Object3D;
 import com.orsoncharts.android.graphics3d.World;
 import com.orsoncharts.android.plot.XYZPlot;
+import com.orsoncharts.android.renderer.ComposeType;
 import com.orsoncharts.android.renderer.Renderer3DChangeEvent;
 import com.orsoncharts.android.util.ArgChecks;
 
@@ -57,6 +62,14 @@ import com.orsoncharts.android.util.ArgChecks;
  * TIP: to create a chart using this renderer, you can use the
  * {@link Chart3DFactory#createScatterChart(String, String, XYZDataset, String, String, String)}
  * method.
+ * <br><br>
+ * By default each data item is drawn as a small cube.  For large datasets 
+ * you can set a glyph shape (see {@link #setGlyphShape(GlyphShape)}) so 
+ * that each item is added to the world as a single vertex and drawn as a 
+ * flat circle or square at its projected position, which reduces the 
+ * number of vertices to project and faces to sort by a large factor.  The
+ * items are also drawn as glyphs when the plot aggregates them into 
+ * screen-space bins (see {@link XYZPlot#setDensityBinSize(double)}).
  */
 public class ScatterXYZRenderer extends AbstractXYZRenderer 
         implements XYZRenderer, Serializable {
@@ -64,12 +77,39 @@ public class ScatterXYZRenderer extends AbstractXYZRenderer
     /** The size of the cubes to render for each data point (in world units). */
     private double size;
     
+    /** 
+     * The shape of the glyphs used to display each data point, or 
+     * {@code null} to display cubes.
+     * 
+     * @since 1.2
+     */
+    private GlyphShape glyphShape;
+    
+    /** 
+     * A flag that controls whether the glyphs are sized in world units (using
+     * the <code>size</code> attribute) and scaled by the projection, or sized
+     * in pixels (using the <code>glyphSize</code> attribute).
+     * 
+     * @since 1.2
+     */
+    private boolean scaleGlyphs;
+    
+    /** 
+     * The size of the glyphs (in pixels) when they are not scaled.
+     * 
+     * @since 1.2
+     */
+    private double glyphSize;
+    
     /**
      * Creates a new instance with default attribute values.
      */
     public ScatterXYZRenderer() {
         super();
         this.size = 0.10;
+        this.glyphShape = null;
+        this.scaleGlyphs = true;
+        this.glyphSize = 6.0;
     }
 
     /**
@@ -95,6 +135,234 @@ public class ScatterXYZRenderer extends AbstractXYZRenderer
         fireChangeEvent();
     }
     
+    /**
+     * Returns the shape of the glyphs used to display each data item, or 
+     * {@code null} if the items are displayed as cubes.  The default value
+     * is {@code null}.
+     * 
+     * @return The glyph shape (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public GlyphShape getGlyphShape() {
+        return this.glyphShape;
+    }
+    
+    /**
+     * Sets the shape of the glyphs used to display each data item and sends 
+     * a {@link Renderer3DChangeEvent} to all registered listeners.  If the
+     * shape is {@code null}, the items are displayed as cubes.
+     * 
+     * @param shape  the glyph shape ({@code null} permitted).
+     * 
+     * @since 1.2
+     */
+    public void setGlyphShape(GlyphShape shape) {
+        this.glyphShape = shape;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the flag that controls whether the glyphs are sized in world 
+     * units (see {@link #getSize()}) and scaled by the projection, so that 
+     * nearer items appear larger.  If <code>false</code>, the glyphs are 
+     * sized in pixels (see {@link #getGlyphSize()}).  The default value is
+     * <code>true</code>.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.2
+     */
+    public boolean getScaleGlyphs() {
+        return this.scaleGlyphs;
+    }
+    
+    /**
+     * Sets the flag that controls whether the glyphs are sized in world units
+     * and scaled by the projection, and sends a 
+     * {@link Renderer3DChangeEvent} to all registered listeners.
+     * 
+     * @param scale  the new flag value.
+     * 
+     * @since 1.2
+     */
+    public void setScaleGlyphs(boolean scale) {
+        this.scaleGlyphs = scale;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the size (in pixels) of the glyphs used to display each data
+     * item when the glyphs are not scaled.  The default value is 
+     * <code>6.0</code>.
+     * 
+     * @return The size (in pixels).
+     * 
+     * @since 1.2
+     */
+    public double getGlyphSize() {
+        return this.glyphSize;
+    }
+    
+    /**
+     * Sets the size (in pixels) of the glyphs used to display each data item
+     * when the glyphs are not scaled, and sends a 
+     * {@link Renderer3DChangeEvent} to all registered listeners.
+     * 
+     * @param size  the size (in pixels, must be positive).
+     * 
+     * @since 1.2
+     */
+    public void setGlyphSize(double size) {
+        ArgChecks.positiveRequired(size, "size");
+        this.glyphSize = size;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the type of composition performed by this renderer.  When the
+     * items are drawn as glyphs, this is {@link ComposeType#ALL} so that all 
+     * the items can be added to the world as a single object, otherwise it 
+     * is {@link ComposeType#PER_ITEM}.
+     * 
+     * @return The compose type (never {@code null}).
+     */
+    @Override
+    public ComposeType getComposeType() {
+        return glyphShapeToUse() != null ? ComposeType.ALL 
+                : ComposeType.PER_ITEM;
+    }
+    
+    /**
+     * Returns the distance (in world units) by which the representation of a
+     * data item can extend beyond the item's position:  half the cube size,
+     * or zero when the items are drawn as glyphs (since a glyph is only 
+     * drawn when its data point lies within the plot).
+     * 
+     * @return The extent (in world units).
+     * 
+     * @since 1.2
+     */
+    @Override
+    public double getItemExtent() {
+        return glyphShapeToUse() != null ? 0.0 : this.size / 2.0;
+    }
+    
+    /**
+     * Adds all the items in the plot's dataset to the world as glyphs, using
+     * a single object with one vertex and one {@link GlyphFace} per item.  
+     * The plot calls this method when a glyph shape is set (in other words, 
+     * you don't need to call this method directly).
+     * 
+     * @param plot  the plot ({@code null} not permitted).
+     * @param world  the world ({@code null} not permitted).
+     * @param dimensions  the dimensions ({@code null} not permitted).
+     * @param xOffset  the x-offset.
+     * @param yOffset  the y-offset.
+     * @param zOffset  the z-offset.
+     * 
+     * @since 1.2
+     */
+    @Override
+    public void composeAll(XYZPlot plot, World world, Dimension3D dimensions, 
+            double xOffset, double yOffset, double zOffset) {
+        if (glyphShapeToUse() == null) {
+            super.composeAll(plot, world, dimensions, xOffset, yOffset, 
+                    zOffset);
+            return;
+        }
+        XYZDataset dataset = plot.getDataset();
+        Object3D glyphs = new Object3D();
+        XYZSpatialIndex index = plot.getSpatialIndex();
+        int[] visible = plot.findVisibleItems(index);
+        if (visible != null) {
+            for (int position : visible) {
+                int series = index.getSeries(position);
+                int item = index.getItem(position);
+                Face f = addGlyph(glyphs, dataset, series, item, xOffset, 
+                        yOffset, zOffset);
+                if (f != null) {
+                    f.setItem(series, item);
+                }
+            }
+        } else {
+            int seriesCount = dataset.getSeriesCount();
+            for (int series = 0; series < seriesCount; series++) {
+                int itemCount = dataset.getItemCount(series);
+                for (int item = 0; item < itemCount; item++) {
+                    Face f = addGlyph(glyphs, dataset, series, item, xOffset, 
+                            yOffset, zOffset);
+                    if (f != null) {
+                        f.setItem(series, item);
+                    }
+                }
+            }
+        }
+        if (glyphs.getVertexCount() > 0) {
+            world.add(glyphs);
+        }
+    }
+    
+    /**
+     * Adds a vertex and a {@link GlyphFace} for one data item to the 
+     * specified object, provided the item lies within the plot dimensions.
+     * 
+     * @param obj  the object.
+     * @param dataset  the dataset.
+     * @param series  the series index.
+     * @param item  the item index.
+     * @param xOffset  the x-offset.
+     * @param yOffset  the y-offset.
+     * @param zOffset  the z-offset.
+     * 
+     * @return The face that was added, or {@code null} if the item lies 
+     *     outside the plot dimensions.
+     */
+    private Face addGlyph(Object3D obj, XYZDataset dataset, int series, 
+            int item, double xOffset, double yOffset, double zOffset) {
+        XYZPlot plot = getPlot();
+        Dimension3D dim = plot.getDimensions();
+        double xx = plot.getXAxis().translateToWorld(
+                dataset.getX(series, item), dim.getWidth());
+        double yy = plot.getYAxis().translateToWorld(
+                dataset.getY(series, item), dim.getHeight());
+        double zz = plot.getZAxis().translateToWorld(
+                dataset.getZ(series, item), dim.getDepth());
+        if (!(xx >= 0.0 && xx <= dim.getWidth() && yy >= 0.0 
+                && yy <= dim.getHeight() && zz >= 0.0 
+                && zz <= dim.getDepth())) {
+            return null;
+        }
+        int color = getColorSource().getColor(series, item);
+        int vertex = obj.getVertexCount();
+        obj.addVertex(xx + xOffset, yy + yOffset, zz + zOffset);
+        double glyphSize = this.scaleGlyphs ? this.size : this.glyphSize;
+        Face face = new GlyphFace(vertex, color, glyphShapeToUse(), 
+                glyphSize, this.scaleGlyphs);
+        obj.addFace(face);
+        return face;
+    }
+    
+    /**
+     * Returns the glyph shape to use for the data items, or {@code null} if
+     * the items should be drawn as cubes.  This is the glyph shape for the 
+     * renderer if one is set, otherwise it is a square if the plot 
+     * aggregates glyphs into screen-space bins (since drawing cubes would 
+     * bypass the aggregation).
+     * 
+     * @return The glyph shape (possibly {@code null}). 
+     */
+    private GlyphShape glyphShapeToUse() {
+        if (this.glyphShape != null) {
+            return this.glyphShape;
+        }
+        XYZPlot plot = getPlot();
+        if (plot != null && plot.getDensityBinSize() > 0.0) {
+            return GlyphShape.SQUARE;
+        }
+        return null;
+    }
+    
     /**
      * Constructs and places one item from the specified dataset into the given 
      * world.  The {@link XYZPlot} class will iterate over its dataset and
@@ -115,6 +383,14 @@ public class ScatterXYZRenderer extends AbstractXYZRenderer
         World world, Dimension3D dimensions, double xOffset, double yOffset, 
         double zOffset) {
     
+        if (glyphShapeToUse() != null) {
+            Object3D glyph = new Object3D();
+            addGlyph(glyph, dataset, series, item, xOffset, yOffset, zOffset);
+            if (glyph.getVertexCount() > 0) {
+                world.add(glyph);
+            }
+            return;
+        }
         double x = dataset.getX(series, item);
         double y = dataset.getY(series, item);
         double z = dataset.getZ(series, item);
@@ -165,6 +441,15 @@ public class ScatterXYZRenderer extends AbstractXYZRenderer
         if (this.size != that.size) {
             return false;
         }
+        if (this.glyphShape != that.glyphShape) {
+            return false;
+        }
+        if (this.scaleGlyphs != that.scaleGlyphs) {
+            return false;
+        }
+        if (this.glyphSize != that.glyphSize) {
+            return false;
+        }
         return super.equals(obj);
     }
 }
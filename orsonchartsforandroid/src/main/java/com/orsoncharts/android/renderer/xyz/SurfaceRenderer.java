@@ -33,8 +33,8 @@
 package com.orsoncharts.android.renderer.xyz;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import android.graphics.Color;
 
@@ -45,7 +45,6 @@ import com.orsoncharts.android.data.function.Function3DUtils;
 import com.orsoncharts.android.data.xyz.XYZDataset;
 import com.orsoncharts.android.graphics3d.Dimension3D;
 import com.orsoncharts.android.graphics3d.Object3D;
-import com.orsoncharts.android.graphics3d.Point3D;
 import com.orsoncharts.android.graphics3d.World;
 import com.orsoncharts.android.plot.XYZPlot;
 import com.orsoncharts.android.renderer.ColorScale;
@@ -58,6 +57,13 @@ import com.orsoncharts.android.util.ArgChecks;
 /**
  * A renderer that plots a surface based on a function (any implementation
  * of {@link Function3D}.
+ * <br><br>
+ * The function values are sampled over a grid and cached until the axis 
+ * ranges or sample counts change, so the function must always return the
+ * same value for the same inputs.  If the function does change, send a 
+ * {@link Renderer3DChangeEvent} (for example, with 
+ * {@link #notifyListeners(Renderer3DChangeEvent)}) to discard the cached 
+ * values; any change event from this renderer does this.
  * 
  * @since 1.1
  */
@@ -83,11 +89,31 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
      * is slower.
      */
     private boolean drawFaceOutlines;
+
+    /** 
+     * The executor used to sample the function in parallel ({@code null}
+     * to sample on the rendering thread).
+     */
+    private transient Executor executor;
+
+    /** 
+     * The most recently used grid of function values (recreated when the 
+     * axis ranges or sample counts change).
+     */
+    private transient SampleGrid grid;
+
+    /** 
+     * The grid used before the current one (kept so that alternating 
+     * between draft and full detail does not resample the function).
+     */
+    private transient SampleGrid previousGrid;
     
     /**
      * Creates a new renderer for the specified function.  By default, the 
      * renderer will take 30 samples along the x-axis and 30 samples along the 
-     * z-axis (this is configurable).
+     * z-axis (this is configurable).  The function values are cached, so 
+     * the function should not change afterwards (see the class description 
+     * for how to force the renderer to resample it).
      * 
      * @param function  the function ({@code null} not permitted).
      */
@@ -150,6 +176,37 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
      */
     public void setZSamples(int count) {
         this.zSamples = count;
+        fireChangeEvent();
+    }
+    
+    /**
+     * Returns the executor that is used to sample the function in parallel,
+     * or {@code null} if the function is sampled serially (the default).
+     * 
+     * @return The executor (possibly {@code null}).
+     * 
+     * @since 1.2
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the executor that is used to sample the function.  If this is not
+     * {@code null}, the sampling grid is split into tiles that are evaluated
+     * concurrently by the executor (which can be, for example, a thread pool
+     * or, from API level 21, a <code>ForkJoinPool</code>).  This is useful 
+     * for functions that are expensive to evaluate, but the function must 
+     * then be safe to call from multiple threads.  The sampled values, and 
+     * therefore the chart, are the same either way, so no change event is 
+     * sent.  The executor is not serialized.
+     * 
+     * @param executor  the executor ({@code null} permitted).
+     * 
+     * @since 1.2
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
     
     /**
@@ -166,6 +223,19 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
         return ComposeType.ALL;
     }
     
+    /**
+     * Returns <code>true</code>, since this renderer samples the function
+     * over a coarser grid when the world requests a reduced level of detail.
+     * 
+     * @return <code>true</code>.
+     * 
+     * @since 1.2
+     */
+    @Override
+    public boolean isLevelOfDetailSupported() {
+        return true;
+    }
+    
     /**
      * Returns the color scale.  This determines the color of the surface
      * according to the y-value.
@@ -240,244 +310,91 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
         double ylen = dim.getHeight();
         double zlen = dim.getDepth();
         Range yRange = new Range(yOffset, -yOffset);
-        for (int xIndex = 0; xIndex < this.xSamples; xIndex++) {
-            double xfrac0 = xIndex / (double) this.xSamples;
-            double xfrac1 = (xIndex + 1) / (double) this.xSamples;
-            for (int zIndex = 0; zIndex < this.zSamples; zIndex++) {
-                double zfrac0 = zIndex / (double) this.zSamples;
-                double zfrac1 = (zIndex + 1) / (double) this.zSamples;
-                
-                double x0 = xAxis.getRange().value(xfrac0);
-                double x1 = xAxis.getRange().value(xfrac1);
-                double xm = x0 / 2.0 + x1 / 2.0;
-                double z0 = zAxis.getRange().value(zfrac0);
-                double z1 = zAxis.getRange().value(zfrac1);
-                double zm = z0 / 2.0 + z1 / 2.0;
-                double y00 = this.function.getValue(x0, z0);
-                double y01 = this.function.getValue(x0, z1);
-                double y10 = this.function.getValue(x1, z0);
-                double y11 = this.function.getValue(x1, z1);
-                double ymm = this.function.getValue(xm, zm);
-                
-                double wx0 = xAxis.translateToWorld(x0, xlen) + xOffset;
-                double wx1 = xAxis.translateToWorld(x1, xlen) + xOffset;
-                double wy00 = yAxis.translateToWorld(y00, ylen) + yOffset;
-                double wy01 = yAxis.translateToWorld(y01, ylen) + yOffset;
-                double wy10 = yAxis.translateToWorld(y10, ylen) + yOffset;
-                double wy11 = yAxis.translateToWorld(y11, ylen) + yOffset;
-                double wz0 = zAxis.translateToWorld(z0, zlen) + zOffset;
-                double wz1 = zAxis.translateToWorld(z1, zlen) + zOffset;
-
-                int color = this.colorScale.valueToColor(ymm);
-                Object3D obj = new Object3D();
-                List<Point3D> pts1 = facePoints1(wx0, wx1, wz0, wz1, wy00, wy01, 
-                        wy11, yRange);
-                int count1 = pts1.size();
-                for (Point3D pt : pts1) {
-                    obj.addVertex(pt);
-                }
-                if (count1 == 3) {
-                    obj.addDoubleSidedFace(new int[] {0, 1, 2}, color, 
-                            this.drawFaceOutlines);
-                } else if (count1 == 4) {
-                    obj.addDoubleSidedFace(new int[] {0, 1, 2, 3}, color, 
-                            this.drawFaceOutlines);
-                } else if (count1 == 5) {
-                    obj.addDoubleSidedFace(new int[] {0, 1, 2, 3, 4}, color, 
-                            this.drawFaceOutlines);
-                }
-                List<Point3D> pts2 = facePoints2(wx0, wx1, wz0, wz1, wy00, wy11,
-                        wy10, yRange);
-                int count2 = pts2.size();
-                for (Point3D pt : pts2) {
-                    obj.addVertex(pt);
-                }
-                if (count2 == 3) {
-                    obj.addDoubleSidedFace(new int[] {count1, count1 + 1, 
-                        count1 + 2}, color, this.drawFaceOutlines);
-                } else if (count2 == 4) {
-                    obj.addDoubleSidedFace(new int[] {count1, count1 + 1, 
-                        count1 + 2, count1 + 3}, color, this.drawFaceOutlines);
-                } else if (count2 == 5) {
-                    obj.addDoubleSidedFace(new int[] {count1, count1 + 1, 
-                        count1 + 2, count1 + 3, count1 + 4}, color, 
-                        this.drawFaceOutlines);                    
-                }
-                world.add(obj);
-            }
-            
-        }        
-    }
-    
-    private Point3D intersectPoint(double x0, double y0, double z0, double x1, 
-                double y1, double z1, double yy) {
-        double p = (yy - y0) / (y1 - y0);
-        double x = x0 + p * (x1 - x0);
-        double y = y0 + p * (y1 - y0);
-        double z = z0 + p * (z1 - z0);
-        return new Point3D(x, y, z);
-    }
-    
-    private List<Point3D> facePoints1(double x0, double x1, double z0, 
-            double z1, double y00, double y01, double y11, Range yRange) {
+        // use fewer samples if the world requests a lower level of detail
+        double lod = world.getLevelOfDetail();
+        int xSamples = Math.max(Math.min(2, this.xSamples), 
+                (int) Math.ceil(this.xSamples * lod));
+        int zSamples = Math.max(Math.min(2, this.zSamples), 
+                (int) Math.ceil(this.zSamples * lod));
+        SampleGrid g = sampleGrid(xAxis.getRange(), zAxis.getRange(), 
+                xSamples, zSamples);
         
-        List<Point3D> pts = new ArrayList<Point3D>(4);
-        double ymin = yRange.getMin();
-        double ymax = yRange.getMax();
-        
-        // handle y00
-        if (y00 > yRange.getMax()) {
-            if (yRange.contains(y01)) {
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymax));
-            } else if (y01 < yRange.getMin()) {
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymax));
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymin));
-            }
-        } else if (yRange.contains(y00)) {
-            pts.add(new Point3D(x0, y00, z0));
-            if (y01 > yRange.getMax()) {
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymax));
-            } else if (y01 < yRange.getMin()) {
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymin));
-            }
-        } else { // below the range
-            if (yRange.contains(y01)) {
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymin));
-            } else if (y01 > yRange.getMax()) {
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymin));
-                pts.add(intersectPoint(x0, y00, z0, x0, y01, z1, ymax));
-            }
+        // each grid corner is translated to world coordinates once, and is 
+        // shared by all the faces that meet at that corner
+        double[] wx = new double[xSamples + 1];
+        for (int xIndex = 0; xIndex <= xSamples; xIndex++) {
+            wx[xIndex] = xAxis.translateToWorld(g.xValues[xIndex], xlen) 
+                    + xOffset;
         }
-        
-        // handle y01
-        if (y01 > yRange.getMax()) {
-            if (yRange.contains(y11)) {
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymax));
-            } else if (y11 < yRange.getMin()) {
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymax));
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymin));
-            }
-        } else if (yRange.contains(y01)) {
-            pts.add(new Point3D(x0, y01, z1));
-            if (y11 > yRange.getMax()) {
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymax));                
-            } else if (y11 < yRange.getMin()) {
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymin));         
-            }
-        } else {
-            if (y11 > yRange.getMax()) {
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymin));
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymax));
-            } else if (yRange.contains(y11)) {
-                pts.add(intersectPoint(x0, y01, z1, x1, y11, z1, ymin));                
-            }
+        double[] wz = new double[zSamples + 1];
+        for (int zIndex = 0; zIndex <= zSamples; zIndex++) {
+            wz[zIndex] = zAxis.translateToWorld(g.zValues[zIndex], zlen) 
+                    + zOffset;
         }
-        
-        // handle y11
-        if (y11 > yRange.getMax()) {
-            if (yRange.contains(y00)) {
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymax));                
-            } else if (y00 < yRange.getMin()) {
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymax));                
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymin));
-            }
-        } else if (yRange.contains(y11)) {
-            pts.add(new Point3D(x1, y11, z1));
-            if (y00 > yRange.getMax()) {
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymax));                
-            } else if (y00 < yRange.getMin()) {
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymin));                
-            }
-        } else {
-            if (y00 > yRange.getMax()) {
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymin));                
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymax));                
-            } else if (yRange.contains(y00)) {
-                pts.add(intersectPoint(x1, y11, z1, x0, y00, z0, ymin));                
+        double[] wy = new double[g.values.length];
+        for (int i = 0; i < wy.length; i++) {
+            wy[i] = yAxis.translateToWorld(g.values[i], ylen) + yOffset;
+        }
+        SurfaceMesh mesh = new SurfaceMesh(wx, wy, wz, yRange, 
+                this.drawFaceOutlines);
+        int zCount = zSamples + 1;
+        for (int xIndex = 0; xIndex < xSamples; xIndex++) {
+            for (int zIndex = 0; zIndex < zSamples; zIndex++) {
+                int i00 = xIndex * zCount + zIndex;
+                int i01 = i00 + 1;
+                int i10 = i00 + zCount;
+                int i11 = i10 + 1;
+                double ymm = g.getMidValue(xIndex, zIndex);
+                int color = this.colorScale.valueToColor(ymm);
+                mesh.addTriangle(i00, i01, i11, color);
+                mesh.addTriangle(i00, i11, i10, color);
             }
         }
-        return pts;
+        world.add(mesh.getObject());
     }
     
-    private List<Point3D> facePoints2(double x0, double x1, double z0, 
-            double z1, double y00, double y11, double y10, Range yRange) {
-        
-        List<Point3D> pts = new ArrayList<Point3D>(4);
-        double ymin = yRange.getMin();
-        double ymax = yRange.getMax();        
-        // handle y00
-        if (y00 > yRange.getMax()) {
-            if (yRange.contains(y11)) {
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymax));
-            } else if (y11 < yRange.getMin()) {
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymax));
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymin));
-            }
-        } else if (yRange.contains(y00)) {
-            pts.add(new Point3D(x0, y00, z0));
-            if (y11 > yRange.getMax()) {
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymax));
-            } else if (y11 < yRange.getMin()) {
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymin));
-            }
-        } else { // below the range
-            if (yRange.contains(y11)) {
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymin));
-            } else if (y11 > yRange.getMax()) {
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymin));
-                pts.add(intersectPoint(x0, y00, z0, x1, y11, z1, ymax));
-            }
+    /**
+     * Returns a grid of function values for the specified ranges and sample 
+     * counts, reusing a previously computed grid where possible.
+     * 
+     * @param xRange  the x-range.
+     * @param zRange  the z-range.
+     * @param xCount  the number of samples along the x-axis.
+     * @param zCount  the number of samples along the z-axis.
+     * 
+     * @return The grid (never {@code null}). 
+     */
+    private synchronized SampleGrid sampleGrid(Range xRange, Range zRange, 
+            int xCount, int zCount) {
+        if (this.grid != null 
+                && this.grid.matches(xRange, zRange, xCount, zCount)) {
+            return this.grid;
         }
-        
-        // handle y11
-        if (y11 > yRange.getMax()) {
-            if (yRange.contains(y10)) {
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymax));
-            } else if (y10 < yRange.getMin()) {
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymax));
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymin));
-            }
-        } else if (yRange.contains(y11)) {
-            pts.add(new Point3D(x1, y11, z1));
-            if (y10 > yRange.getMax()) {
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymax));                
-            } else if (y10 < yRange.getMin()) {
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymin));         
-            }
-        } else {
-            if (y10 > yRange.getMax()) {
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymin));
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymax));
-            } else if (yRange.contains(y10)) {
-                pts.add(intersectPoint(x1, y11, z1, x1, y10, z0, ymin));                
-            }
+        SampleGrid g = this.previousGrid;
+        if (g == null || !g.matches(xRange, zRange, xCount, zCount)) {
+            g = new SampleGrid(this.function, xRange, zRange, xCount, zCount, 
+                    this.executor);
         }
-        
-        // handle y10
-        if (y10 > yRange.getMax()) {
-            if (yRange.contains(y00)) {
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymax));                
-            } else if (y00 < yRange.getMin()) {
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymax));                
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymin));
-            }
-        } else if (yRange.contains(y10)) {
-            pts.add(new Point3D(x1, y10, z0));
-            if (y00 > yRange.getMax()) {
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymax));                
-            } else if (y00 < yRange.getMin()) {
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymin));                
-            }
-        } else {
-            if (y00 > yRange.getMax()) {
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymin));                
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymax));                
-            } else if (yRange.contains(y00)) {
-                pts.add(intersectPoint(x1, y10, z0, x0, y00, z0, ymin));                
-            }
+        this.previousGrid = this.grid;
+        this.grid = g;
+        return g;
+    }
+
+    /**
+     * Discards the cached function values, then notifies all registered 
+     * listeners that the renderer has been modified.  Since every change 
+     * event passes through here, the function is resampled on the next 
+     * draw after any change event.
+     * 
+     * @param event  information about the change event.
+     */
+    @Override
+    public void notifyListeners(Renderer3DChangeEvent event) {
+        synchronized (this) {
+            this.grid = null;
+            this.previousGrid = null;
         }
-        
-        return pts;
+        super.notifyListeners(event);
     }
 
     /**
@@ -517,7 +434,9 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
 
     /**
      * Returns the range that the renderer requires on the y-axis to display
-     * all the data in the function.
+     * all the data in the function.  This is found from the same grid of
+     * function values that is used to draw the surface, so the function is 
+     * not sampled a second time.
      * 
      * @param dataset  the dataset (ignored).
      * 
@@ -525,10 +444,9 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
      */
     @Override
     public Range findYRange(XYZDataset dataset) {
-        return Function3DUtils.findYRange(this.function, 
-                getPlot().getXAxis().getRange(), 
-                getPlot().getZAxis().getRange(), 
-                this.xSamples, this.zSamples, true);
+        return sampleGrid(getPlot().getXAxis().getRange(), 
+                getPlot().getZAxis().getRange(), this.xSamples, 
+                this.zSamples).findYRange();
     }
 
     /**
@@ -578,4 +496,317 @@ public class SurfaceRenderer extends AbstractXYZRenderer implements XYZRenderer,
         }
         return super.equals(obj);
     }
+
+    /**
+     * Builds the surface as a single {@link Object3D} with shared vertices.
+     * Each triangle of the grid is clipped to the y-range of the plot; the 
+     * grid corners that lie within the range are added to the object the 
+     * first time they are used and referenced by index after that, while
+     * the points where an edge crosses the top or bottom of the range are
+     * added for each face.
+     */
+    private static final class SurfaceMesh {
+
+        /** The object that holds the vertices and faces. */
+        private Object3D object;
+
+        /** The world x-coordinates for the grid lines. */
+        private double[] wx;
+
+        /** The world y-coordinates for the grid corners (x then z). */
+        private double[] wy;
+
+        /** The world z-coordinates for the grid lines. */
+        private double[] wz;
+
+        /** 
+         * The object vertex index for each grid corner, or <code>-1</code>
+         * if the corner has not been added yet. 
+         */
+        private int[] vertexIndices;
+
+        /** The y-range (in world coordinates) for clipping. */
+        private Range yRange;
+
+        /** Draw face outlines? */
+        private boolean outline;
+
+        /** Vertex indices for the face under construction. */
+        private int[] face;
+
+        /** The number of vertices in the face under construction. */
+        private int count;
+
+        /**
+         * Creates a new mesh for the specified grid.
+         * 
+         * @param wx  the world x-coordinates for the grid lines.
+         * @param wy  the world y-coordinates for the grid corners.
+         * @param wz  the world z-coordinates for the grid lines.
+         * @param yRange  the y-range for clipping.
+         * @param outline  draw face outlines?
+         */
+        SurfaceMesh(double[] wx, double[] wy, double[] wz, Range yRange, 
+                boolean outline) {
+            this.object = new Object3D();
+            this.wx = wx;
+            this.wy = wy;
+            this.wz = wz;
+            this.vertexIndices = new int[wy.length];
+            Arrays.fill(this.vertexIndices, -1);
+            this.yRange = yRange;
+            this.outline = outline;
+            this.face = new int[6];
+        }
+
+        /**
+         * Returns the object containing the mesh.
+         * 
+         * @return The object (never {@code null}).
+         */
+        Object3D getObject() {
+            return this.object;
+        }
+
+        /**
+         * Adds the part of a triangle that lies within the y-range as a 
+         * double-sided face.  If no part of the triangle lies within the 
+         * range, no face is added.
+         * 
+         * @param a  the grid index of the first corner.
+         * @param b  the grid index of the second corner.
+         * @param c  the grid index of the third corner.
+         * @param color  the face color.
+         */
+        void addTriangle(int a, int b, int c, int color) {
+            this.count = 0;
+            clipEdge(a, b);
+            clipEdge(b, c);
+            clipEdge(c, a);
+            if (this.count >= 3) {
+                this.object.addDoubleSidedFace(Arrays.copyOf(this.face, 
+                        this.count), color, this.outline);
+            }
+        }
+
+        /**
+         * Appends the vertices contributed by the edge from corner 
+         * <code>a</code> to corner <code>b</code> to the current face:  the 
+         * start point (if it is within the range) followed by any points 
+         * where the edge crosses the bounds of the range.
+         * 
+         * @param a  the grid index of the start point.
+         * @param b  the grid index of the end point.
+         */
+        private void clipEdge(int a, int b) {
+            double ya = this.wy[a];
+            double yb = this.wy[b];
+            double ymin = this.yRange.getMin();
+            double ymax = this.yRange.getMax();
+            if (ya > ymax) {
+                if (this.yRange.contains(yb)) {
+                    append(intersect(a, b, ymax));
+                } else if (yb < ymin) {
+                    append(intersect(a, b, ymax));
+                    append(intersect(a, b, ymin));
+                }
+            } else if (this.yRange.contains(ya)) {
+                append(corner(a));
+                if (yb > ymax) {
+                    append(intersect(a, b, ymax));
+                } else if (yb < ymin) {
+                    append(intersect(a, b, ymin));
+                }
+            } else { // below the range
+                if (this.yRange.contains(yb)) {
+                    append(intersect(a, b, ymin));
+                } else if (yb > ymax) {
+                    append(intersect(a, b, ymin));
+                    append(intersect(a, b, ymax));
+                }
+            }
+        }
+
+        private void append(int vertex) {
+            this.face[this.count++] = vertex;
+        }
+
+        /**
+         * Returns the object vertex index for a grid corner, adding the 
+         * vertex to the object if this is the first reference to it.
+         * 
+         * @param i  the grid index.
+         * 
+         * @return The vertex index.
+         */
+        private int corner(int i) {
+            int v = this.vertexIndices[i];
+            if (v < 0) {
+                int zCount = this.wz.length;
+                v = this.object.getVertexCount();
+                this.object.addVertex(this.wx[i / zCount], this.wy[i], 
+                        this.wz[i % zCount]);
+                this.vertexIndices[i] = v;
+            }
+            return v;
+        }
+
+        /**
+         * Adds the point where the edge between two grid corners crosses
+         * the specified y-value, and returns its vertex index.
+         * 
+         * @param a  the grid index of the start point.
+         * @param b  the grid index of the end point.
+         * @param yy  the y-value.
+         * 
+         * @return The vertex index.
+         */
+        private int intersect(int a, int b, double yy) {
+            int zCount = this.wz.length;
+            double x0 = this.wx[a / zCount];
+            double y0 = this.wy[a];
+            double z0 = this.wz[a % zCount];
+            double x1 = this.wx[b / zCount];
+            double y1 = this.wy[b];
+            double z1 = this.wz[b % zCount];
+            double p = (yy - y0) / (y1 - y0);
+            double x = x0 + p * (x1 - x0);
+            double y = y0 + p * (y1 - y0);
+            double z = z0 + p * (z1 - z0);
+            int v = this.object.getVertexCount();
+            this.object.addVertex(x, y, z);
+            return v;
+        }
+    }
+
+    /**
+     * The values of the function sampled over a grid.  The grid divides the 
+     * x-range into <code>xCount</code> intervals and the z-range into 
+     * <code>zCount</code> intervals, and holds the function value at each 
+     * corner (shared by the neighbouring cells) plus the value at the centre 
+     * of each cell (used for the cell color).
+     */
+    private static final class SampleGrid {
+
+        /** The x-range. */
+        private Range xRange;
+
+        /** The z-range. */
+        private Range zRange;
+
+        /** The x-values for the grid lines (<code>xCount + 1</code>). */
+        private double[] xValues;
+
+        /** The z-values for the grid lines (<code>zCount + 1</code>). */
+        private double[] zValues;
+
+        /** The function values at the corners, indexed by x then z. */
+        private double[] values;
+
+        /** The function values at the cell centres, indexed by x then z. */
+        private double[] midValues;
+
+        /**
+         * Samples the function over a grid.
+         * 
+         * @param f  the function.
+         * @param xRange  the x-range.
+         * @param zRange  the z-range.
+         * @param xCount  the number of intervals along the x-axis.
+         * @param zCount  the number of intervals along the z-axis.
+         * @param executor  the executor used to evaluate the function 
+         *     ({@code null} permitted).
+         */
+        SampleGrid(Function3D f, Range xRange, Range zRange, int xCount, 
+                int zCount, Executor executor) {
+            this.xRange = xRange;
+            this.zRange = zRange;
+            this.xValues = new double[xCount + 1];
+            for (int i = 0; i <= xCount; i++) {
+                this.xValues[i] = xRange.value(i / (double) xCount);
+            }
+            this.zValues = new double[zCount + 1];
+            for (int j = 0; j <= zCount; j++) {
+                this.zValues[j] = zRange.value(j / (double) zCount);
+            }
+            double[] xm = new double[xCount];
+            for (int i = 0; i < xCount; i++) {
+                xm[i] = this.xValues[i] / 2.0 + this.xValues[i + 1] / 2.0;
+            }
+            double[] zm = new double[zCount];
+            for (int j = 0; j < zCount; j++) {
+                zm[j] = this.zValues[j] / 2.0 + this.zValues[j + 1] / 2.0;
+            }
+            this.values = Function3DUtils.sample(f, this.xValues, 
+                    this.zValues, null, executor);
+            this.midValues = Function3DUtils.sample(f, xm, zm, null, executor);
+        }
+
+        /**
+         * Returns <code>true</code> if this grid was sampled with the 
+         * specified ranges and counts.
+         * 
+         * @param xRange  the x-range.
+         * @param zRange  the z-range.
+         * @param xCount  the number of intervals along the x-axis.
+         * @param zCount  the number of intervals along the z-axis.
+         * 
+         * @return A boolean.
+         */
+        boolean matches(Range xRange, Range zRange, int xCount, int zCount) {
+            return this.xValues.length == xCount + 1 
+                    && this.zValues.length == zCount + 1
+                    && this.xRange.equals(xRange) 
+                    && this.zRange.equals(zRange);
+        }
+
+        /**
+         * Returns the function value at a grid corner.
+         * 
+         * @param xIndex  the x-index (<code>0</code> to <code>xCount</code>).
+         * @param zIndex  the z-index (<code>0</code> to <code>zCount</code>).
+         * 
+         * @return The function value.
+         */
+        double getValue(int xIndex, int zIndex) {
+            return this.values[xIndex * this.zValues.length + zIndex];
+        }
+
+        /**
+         * Returns the function value at the centre of a grid cell.
+         * 
+         * @param xIndex  the x-index (<code>0</code> to 
+         *     <code>xCount - 1</code>).
+         * @param zIndex  the z-index (<code>0</code> to 
+         *     <code>zCount - 1</code>).
+         * 
+         * @return The function value.
+         */
+        double getMidValue(int xIndex, int zIndex) {
+            return this.midValues[xIndex * (this.zValues.length - 1) + zIndex];
+        }
+
+        /**
+         * Returns the range of the function values at the grid corners, 
+         * ignoring <code>Double.NaN</code> values.
+         * 
+         * @return The range (<code>null</code> if there are no valid values).
+         */
+        Range findYRange() {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (double y : this.values) {
+                if (!Double.isNaN(y)) {
+                    min = Math.min(y, min);
+                    max = Math.max(y, max);
+                }
+            }
+            if (min <= max) {
+                return new Range(min, max);
+            }
+            return null;
+        }
+
+    }
+
 }
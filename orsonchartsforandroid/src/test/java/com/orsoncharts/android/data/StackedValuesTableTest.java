@@ -0,0 +1,151 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.data.category.StandardCategoryDataset3D;
+
+/**
+ * Tests for the {@link StackedValuesTable} class.
+ */
+public class StackedValuesTableTest {
+
+    /**
+     * Creates a dataset with three series, one row and two columns:
+     * <pre>
+     *       C1    C2
+     * S1   2.0  -1.0
+     * S2  -3.0  null
+     * S3   4.0   5.0
+     * </pre>
+     */
+    private static StandardCategoryDataset3D createDataset() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(2.0, "S1", "R1", "C1");
+        dataset.addValue(-1.0, "S1", "R1", "C2");
+        dataset.addValue(-3.0, "S2", "R1", "C1");
+        dataset.addValue(null, "S2", "R1", "C2");
+        dataset.addValue(4.0, "S3", "R1", "C1");
+        dataset.addValue(5.0, "S3", "R1", "C2");
+        return dataset;
+    }
+
+    @Test
+    public void testSubTotals() {
+        StackedValuesTable table = new StackedValuesTable(createDataset());
+        assertEquals(3, table.getSeriesCount());
+        assertEquals(1, table.getRowCount());
+        assertEquals(2, table.getColumnCount());
+        double[] neg1 = {0.0, 0.0, -3.0, -3.0};
+        double[] pos1 = {0.0, 2.0, 2.0, 6.0};
+        double[] neg2 = {0.0, -1.0, -1.0, -1.0};
+        double[] pos2 = {0.0, 0.0, 0.0, 5.0};
+        // series indices run to the series count, which gives the totals
+        for (int s = 0; s <= 3; s++) {
+            assertEquals(neg1[s], table.getNegativeSubTotal(s, 0, 0), 0.0);
+            assertEquals(pos1[s], table.getPositiveSubTotal(s, 0, 0), 0.0);
+            assertEquals(neg2[s], table.getNegativeSubTotal(s, 0, 1), 0.0);
+            assertEquals(pos2[s], table.getPositiveSubTotal(s, 0, 1), 0.0);
+        }
+    }
+
+    /**
+     * The subtotals match those from {@link DataUtils#stackSubTotal(
+     * Values3D, double, int, int, int)}.
+     */
+    @Test
+    public void testSubTotalsMatchDataUtils() {
+        StandardCategoryDataset3D dataset = createDataset();
+        StackedValuesTable table = new StackedValuesTable(dataset);
+        for (int s = 0; s <= 3; s++) {
+            for (int c = 0; c < 2; c++) {
+                double[] expected = DataUtils.stackSubTotal(dataset, 0.0, s, 
+                        0, c);
+                assertEquals(expected[0], table.getNegativeSubTotal(s, 0, c),
+                        0.0);
+                assertEquals(expected[1], table.getPositiveSubTotal(s, 0, c),
+                        0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testFindRange() {
+        StackedValuesTable table = new StackedValuesTable(createDataset());
+        assertEquals(new Range(-3.0, 6.0), table.findRange(0.0));
+        assertEquals(new Range(7.0, 16.0), table.findRange(10.0));
+    }
+
+    /**
+     * The range always includes the base value.
+     */
+    @Test
+    public void testFindRangeIncludesBase() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(2.0, "S1", "R1", "C1");
+        dataset.addValue(3.0, "S2", "R1", "C1");
+        StackedValuesTable table = new StackedValuesTable(dataset);
+        assertEquals(new Range(1.0, 6.0), table.findRange(1.0));
+    }
+
+    /**
+     * An empty dataset gives a zero length range at the base value.
+     */
+    @Test
+    public void testEmpty() {
+        StackedValuesTable table = new StackedValuesTable(
+                new StandardCategoryDataset3D());
+        assertEquals(new Range(1.0, 1.0), table.findRange(1.0));
+    }
+
+    /**
+     * A <code>NaN</code> base value gives a <code>null</code> range.
+     */
+    @Test
+    public void testFindRangeNaN() {
+        StackedValuesTable table = new StackedValuesTable(createDataset());
+        assertNull(table.findRange(Double.NaN));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidSeries() {
+        StackedValuesTable table = new StackedValuesTable(createDataset());
+        table.getPositiveSubTotal(4, 0, 0);
+    }
+
+}
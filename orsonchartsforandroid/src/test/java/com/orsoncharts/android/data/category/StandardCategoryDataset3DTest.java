@@ -0,0 +1,168 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.orsoncharts.android.Range;
+
+/**
+ * Tests for the value range tracking in the 
+ * {@link StandardCategoryDataset3D} class.
+ */
+public class StandardCategoryDataset3DTest {
+
+    @Test
+    public void testValueRangeEmpty() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        assertNull(dataset.getValueRange());
+        dataset.addValue(null, "S1", "R1", "C1");
+        assertNull(dataset.getValueRange());
+    }
+
+    @Test
+    public void testValueRangeExtended() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(3.0, "S1", "R1", "C1");
+        assertEquals(new Range(3.0, 3.0), dataset.getValueRange());
+        dataset.addValue(5.0, "S1", "R1", "C2");
+        dataset.addValue(-1.0, "S2", "R2", "C1");
+        assertEquals(new Range(-1.0, 5.0), dataset.getValueRange());
+    }
+
+    /**
+     * Overwriting the maximum or minimum with a value inside the range 
+     * shrinks the range.
+     */
+    @Test
+    public void testValueRangeOverwriteEnds() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(1.0, "S1", "R1", "C1");
+        dataset.addValue(5.0, "S1", "R1", "C2");
+        dataset.addValue(3.0, "S1", "R1", "C3");
+        dataset.setValue(2.0, "S1", "R1", "C2");
+        assertEquals(new Range(1.0, 3.0), dataset.getValueRange());
+        dataset.setValue(2.5, "S1", "R1", "C1");
+        assertEquals(new Range(2.0, 3.0), dataset.getValueRange());
+    }
+
+    /**
+     * Values written while the range is stale (before the next call to 
+     * getValueRange()) are included when it is recalculated.
+     */
+    @Test
+    public void testValueRangeWritesWhileStale() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(1.0, "S1", "R1", "C1");
+        dataset.addValue(5.0, "S1", "R1", "C2");
+        dataset.setValue(2.0, "S1", "R1", "C2");
+        dataset.addValue(9.0, "S1", "R1", "C3");
+        dataset.addValue(-4.0, "S1", "R2", "C1");
+        dataset.setValue(0.0, "S1", "R2", "C1");
+        assertEquals(new Range(0.0, 9.0), dataset.getValueRange());
+    }
+
+    /**
+     * Overwriting a value inside the range does not change the range, 
+     * unless the new value is outside it.
+     */
+    @Test
+    public void testValueRangeOverwriteInterior() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(1.0, "S1", "R1", "C1");
+        dataset.addValue(3.0, "S1", "R1", "C2");
+        dataset.addValue(5.0, "S1", "R1", "C3");
+        dataset.setValue(4.0, "S1", "R1", "C2");
+        assertEquals(new Range(1.0, 5.0), dataset.getValueRange());
+        dataset.setValue(null, "S1", "R1", "C2");
+        assertEquals(new Range(1.0, 5.0), dataset.getValueRange());
+        dataset.setValue(7.0, "S1", "R1", "C2");
+        assertEquals(new Range(1.0, 7.0), dataset.getValueRange());
+    }
+
+    /**
+     * When the maximum occurs more than once, overwriting one of them keeps
+     * the maximum.
+     */
+    @Test
+    public void testValueRangeDuplicateEnds() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(5.0, "S1", "R1", "C1");
+        dataset.addValue(5.0, "S1", "R1", "C2");
+        dataset.addValue(1.0, "S1", "R1", "C3");
+        dataset.setValue(2.0, "S1", "R1", "C1");
+        assertEquals(new Range(1.0, 5.0), dataset.getValueRange());
+    }
+
+    /**
+     * Removing every value (by setting it to <code>null</code>) gives a 
+     * <code>null</code> range.
+     */
+    @Test
+    public void testValueRangeAllRemoved() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.addValue(1.0, "S1", "R1", "C1");
+        dataset.addValue(2.0, "S1", "R1", "C2");
+        assertEquals(new Range(1.0, 2.0), dataset.getValueRange());
+        dataset.setValue(null, "S1", "R1", "C1");
+        dataset.setValue(null, "S1", "R1", "C2");
+        assertNull(dataset.getValueRange());
+        dataset.setValue(4.0, "S1", "R1", "C2");
+        assertEquals(new Range(4.0, 4.0), dataset.getValueRange());
+    }
+
+    /**
+     * The bulk loading methods update the range in the same way, with 
+     * <code>NaN</code> as a missing value.
+     */
+    @Test
+    public void testValueRangeBulkLoading() {
+        StandardCategoryDataset3D dataset = new StandardCategoryDataset3D();
+        dataset.setValues("S1", Arrays.asList("R1", "R2"), 
+                Arrays.asList("C1", "C2"), 
+                new double[][] {{1.0, Double.NaN}, {8.0, 2.0}});
+        assertEquals(new Range(1.0, 8.0), dataset.getValueRange());
+        dataset.setRowValues("S1", "R2", Arrays.asList("C1", "C2"), 
+                new double[] {Double.NaN, 3.0});
+        assertEquals(new Range(1.0, 3.0), dataset.getValueRange());
+        dataset.setColumnValues("S2", Arrays.asList("R1", "R2"), "C1", 
+                new double[] {-2.0, 0.5});
+        assertEquals(new Range(-2.0, 3.0), dataset.getValueRange());
+    }
+
+}
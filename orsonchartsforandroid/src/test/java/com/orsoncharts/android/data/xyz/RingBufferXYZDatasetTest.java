@@ -0,0 +1,219 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.xyz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.orsoncharts.android.Range;
+import com.orsoncharts.android.data.Dataset3DChangeEvent;
+import com.orsoncharts.android.data.Dataset3DChangeListener;
+
+/**
+ * Tests for the {@link RingBufferXYZDataset} class.  The items and ranges
+ * are checked against a brute force model of the window for each series.
+ * The notify interval is set to zero so that events are sent immediately.
+ */
+public class RingBufferXYZDatasetTest {
+
+    /**
+     * Returns the range of the values in the model (ignoring 
+     * <code>NaN</code>), or <code>null</code>.
+     */
+    private static Range range(List<List<double[]>> model, int axis) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (List<double[]> items : model) {
+            for (double[] item : items) {
+                if (!Double.isNaN(item[axis])) {
+                    min = Math.min(min, item[axis]);
+                    max = Math.max(max, item[axis]);
+                }
+            }
+        }
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    /**
+     * Checks the items and ranges in the dataset against the model.
+     */
+    private static void check(RingBufferXYZDataset dataset, 
+            List<List<double[]>> model) {
+        for (int s = 0; s < model.size(); s++) {
+            List<double[]> items = model.get(s);
+            assertEquals(items.size(), dataset.getItemCount(s));
+            for (int i = 0; i < items.size(); i++) {
+                double[] item = items.get(i);
+                assertEquals(item[0], dataset.getX(s, i), 0.0);
+                assertEquals(item[1], dataset.getY(s, i), 0.0);
+                assertEquals(item[2], dataset.getZ(s, i), 0.0);
+            }
+        }
+        assertEquals(range(model, 0), dataset.getXRange());
+        assertEquals(range(model, 1), dataset.getYRange());
+        assertEquals(range(model, 2), dataset.getZRange());
+    }
+
+    /**
+     * Returns a random value from a small set (so that there are many 
+     * equal values), or occasionally <code>NaN</code>.
+     */
+    private static double value(Random random) {
+        if (random.nextInt(20) == 0) {
+            return Double.NaN;
+        }
+        return random.nextInt(10) - 5.0;
+    }
+
+    @Test
+    public void testAddAgainstModel() {
+        Random random = new Random(1);
+        int capacity = 37;
+        RingBufferXYZDataset dataset = new RingBufferXYZDataset(
+                Arrays.asList("S1", "S2"), capacity);
+        dataset.setNotifyInterval(0L);
+        List<List<double[]>> model = new ArrayList<List<double[]>>();
+        model.add(new ArrayList<double[]>());
+        model.add(new ArrayList<double[]>());
+        check(dataset, model);
+        for (int n = 0; n < 2000; n++) {
+            int s = random.nextInt(3) == 0 ? 1 : 0;
+            double[] item = new double[] {value(random), value(random), 
+                value(random)};
+            // a trending x-value, like time in a stream of readings
+            if (s == 0) {
+                item[0] = n;
+            }
+            dataset.add(s, item[0], item[1], item[2]);
+            List<double[]> items = model.get(s);
+            items.add(item);
+            if (items.size() > capacity) {
+                items.remove(0);
+            }
+            check(dataset, model);
+            if (n == 1000) {
+                dataset.clear();
+                model.get(0).clear();
+                model.get(1).clear();
+                check(dataset, model);
+            }
+        }
+    }
+
+    @Test
+    public void testAddAll() {
+        Random random = new Random(2);
+        RingBufferXYZDataset dataset = new RingBufferXYZDataset("S1", 10);
+        dataset.setNotifyInterval(0L);
+        List<List<double[]>> model = new ArrayList<List<double[]>>();
+        model.add(new ArrayList<double[]>());
+        for (int block = 0; block < 20; block++) {
+            int n = random.nextInt(25);
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] z = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = value(random);
+                y[i] = value(random);
+                z[i] = value(random);
+                model.get(0).add(new double[] {x[i], y[i], z[i]});
+                if (model.get(0).size() > 10) {
+                    model.get(0).remove(0);
+                }
+            }
+            dataset.addAll(0, x, y, z);
+            check(dataset, model);
+        }
+    }
+
+    /**
+     * A block of items is reported with a single change event.
+     */
+    @Test
+    public void testAddAllEvent() {
+        RingBufferXYZDataset dataset = new RingBufferXYZDataset("S1", 10);
+        dataset.setNotifyInterval(0L);
+        final int[] events = new int[1];
+        dataset.addChangeListener(new Dataset3DChangeListener() {
+            @Override
+            public void datasetChanged(Dataset3DChangeEvent event) {
+                events[0]++;
+            }
+        });
+        dataset.addAll(0, new double[] {1.0, 2.0, 3.0}, 
+                new double[] {4.0, 5.0, 6.0}, new double[] {7.0, 8.0, 9.0});
+        assertEquals(1, events[0]);
+        dataset.add(0, 1.0, 1.0, 1.0);
+        assertEquals(2, events[0]);
+    }
+
+    /**
+     * If all the values for an axis are <code>NaN</code> the range is 
+     * <code>null</code>.
+     */
+    @Test
+    public void testRangesNaN() {
+        RingBufferXYZDataset dataset = new RingBufferXYZDataset("S1", 2);
+        dataset.setNotifyInterval(0L);
+        dataset.add(0, 1.0, Double.NaN, 3.0);
+        assertEquals(new Range(1.0, 1.0), dataset.getXRange());
+        assertNull(dataset.getYRange());
+        assertEquals(new Range(3.0, 3.0), dataset.getZRange());
+        dataset.add(0, 2.0, 5.0, 3.0);
+        dataset.add(0, 4.0, Double.NaN, 3.0);
+        assertEquals(new Range(2.0, 4.0), dataset.getXRange());
+        assertEquals(new Range(5.0, 5.0), dataset.getYRange());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetXOutOfRange() {
+        RingBufferXYZDataset dataset = new RingBufferXYZDataset("S1", 2);
+        dataset.setNotifyInterval(0L);
+        dataset.add(0, 1.0, 2.0, 3.0);
+        dataset.getX(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddAllMismatchedLengths() {
+        RingBufferXYZDataset dataset = new RingBufferXYZDataset("S1", 2);
+        dataset.addAll(0, new double[2], new double[2], new double[1]);
+    }
+
+}
@@ -0,0 +1,215 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.data.xyz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.orsoncharts.android.Range;
+
+/**
+ * Tests for the {@link XYZSpatialIndex} class.  Query results are checked
+ * against a brute force search over the dataset.
+ */
+public class XYZSpatialIndexTest {
+
+    /**
+     * Creates a dataset with three series of random values.  Some items 
+     * have a <code>NaN</code> y-value, and some share the same coordinates.
+     */
+    private static XYZSeriesCollection createDataset(Random random) {
+        XYZSeriesCollection dataset = new XYZSeriesCollection();
+        for (int s = 0; s < 3; s++) {
+            XYZSeries series = new XYZSeries("S" + s);
+            for (int i = 0; i < 2000 + s * 500; i++) {
+                double x = random.nextGaussian();
+                double y = random.nextInt(40) == 0 ? Double.NaN 
+                        : random.nextGaussian() * 2.0;
+                double z = random.nextGaussian() * 0.5;
+                if (i % 100 == 1) {
+                    series.add(1.0, 1.0, 1.0);
+                } else {
+                    series.add(x, y, z);
+                }
+            }
+            dataset.add(series);
+        }
+        return dataset;
+    }
+
+    /**
+     * Returns the positions in the index as (series, item) pairs.
+     */
+    private static List<String> decode(XYZSpatialIndex index, 
+            int[] positions) {
+        List<String> result = new ArrayList<String>();
+        for (int p : positions) {
+            result.add(index.getSeries(p) + "/" + index.getItem(p));
+        }
+        return result;
+    }
+
+    /**
+     * The item count includes items with a <code>NaN</code> coordinate.
+     */
+    @Test
+    public void testItemCount() {
+        XYZSeriesCollection dataset = createDataset(new Random(1));
+        XYZSpatialIndex index = new XYZSpatialIndex(dataset);
+        assertEquals(dataset.getItemCount(0) + dataset.getItemCount(1) 
+                + dataset.getItemCount(2), index.getItemCount());
+    }
+
+    @Test
+    public void testFindItems() {
+        Random random = new Random(2);
+        XYZSeriesCollection dataset = createDataset(random);
+        XYZSpatialIndex index = new XYZSpatialIndex(dataset);
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextGaussian();
+            double y = random.nextGaussian() * 2.0;
+            double z = random.nextGaussian() * 0.5;
+            double size = random.nextDouble() * (q % 10 == 0 ? 10.0 : 1.0);
+            Range xRange = new Range(x - size, x + size);
+            Range yRange = new Range(y - size, y + size * 2.0);
+            Range zRange = new Range(z - size * 0.5, z + size);
+            List<String> expected = new ArrayList<String>();
+            for (int s = 0; s < dataset.getSeriesCount(); s++) {
+                for (int i = 0; i < dataset.getItemCount(s); i++) {
+                    if (xRange.contains(dataset.getX(s, i)) 
+                            && yRange.contains(dataset.getY(s, i))
+                            && zRange.contains(dataset.getZ(s, i))) {
+                        expected.add(s + "/" + i);
+                    }
+                }
+            }
+            int[] positions = index.findItems(xRange, yRange, zRange);
+            assertEquals(expected, decode(index, positions));
+        }
+    }
+
+    /**
+     * The bounds of the ranges are inclusive, and items with the same
+     * coordinates are all found.
+     */
+    @Test
+    public void testFindItemsInclusive() {
+        XYZSeriesCollection dataset = createDataset(new Random(3));
+        XYZSpatialIndex index = new XYZSpatialIndex(dataset);
+        Range r = new Range(1.0, 1.0);
+        int[] positions = index.findItems(r, r, r);
+        int expected = 0;
+        for (int s = 0; s < dataset.getSeriesCount(); s++) {
+            expected += (dataset.getItemCount(s) + 98) / 100;
+        }
+        assertEquals(expected, positions.length);
+    }
+
+    @Test
+    public void testFindNearest() {
+        Random random = new Random(4);
+        XYZSeriesCollection dataset = createDataset(random);
+        XYZSpatialIndex index = new XYZSpatialIndex(dataset);
+        for (int q = 0; q < 500; q++) {
+            double x = random.nextGaussian() * 2.0;
+            double y = random.nextGaussian() * 3.0;
+            double z = random.nextGaussian();
+            double xScale = 1.0;
+            double yScale = q % 2 == 0 ? 1.0 : 3.0;
+            double zScale = q % 3 == 0 ? 1.0 : 0.25;
+            double best = Double.POSITIVE_INFINITY;
+            for (int s = 0; s < dataset.getSeriesCount(); s++) {
+                for (int i = 0; i < dataset.getItemCount(s); i++) {
+                    double d = distance(dataset, s, i, x, y, z, xScale, 
+                            yScale, zScale);
+                    if (d < best) {
+                        best = d;
+                    }
+                }
+            }
+            int p = index.findNearest(x, y, z, xScale, yScale, zScale);
+            assertTrue(p >= 0);
+            // ties may be broken either way, so compare the distances
+            assertEquals(best, distance(dataset, index.getSeries(p), 
+                    index.getItem(p), x, y, z, xScale, yScale, zScale), 
+                    best * 1e-12);
+        }
+    }
+
+    /**
+     * Returns the squared, scaled distance from an item to a point 
+     * (infinite for an item with a <code>NaN</code> value).
+     */
+    private static double distance(XYZDataset dataset, int s, int i, 
+            double x, double y, double z, double xScale, double yScale, 
+            double zScale) {
+        double dx = (dataset.getX(s, i) - x) * xScale;
+        double dy = (dataset.getY(s, i) - y) * yScale;
+        double dz = (dataset.getZ(s, i) - z) * zScale;
+        double d = dx * dx + dy * dy + dz * dz;
+        return Double.isNaN(d) ? Double.POSITIVE_INFINITY : d;
+    }
+
+    @Test
+    public void testEmpty() {
+        XYZSpatialIndex index = new XYZSpatialIndex(new XYZSeriesCollection());
+        assertEquals(0, index.getItemCount());
+        assertEquals(-1, index.findNearest(0.0, 0.0, 0.0, 1.0, 1.0, 1.0));
+        Range r = new Range(-1.0, 1.0);
+        assertArrayEquals(new int[0], index.findItems(r, r, r));
+    }
+
+    @Test
+    public void testSingleItem() {
+        XYZSeriesCollection dataset = new XYZSeriesCollection();
+        XYZSeries series = new XYZSeries("S1");
+        series.add(1.0, 2.0, 3.0);
+        dataset.add(series);
+        XYZSpatialIndex index = new XYZSpatialIndex(dataset);
+        int p = index.findNearest(10.0, 10.0, 10.0, 1.0, 1.0, 1.0);
+        assertEquals(0, index.getSeries(p));
+        assertEquals(0, index.getItem(p));
+        assertEquals(1, index.findItems(new Range(0.0, 1.0), 
+                new Range(2.0, 3.0), new Range(3.0, 3.0)).length);
+        assertEquals(0, index.findItems(new Range(0.0, 0.5), 
+                new Range(2.0, 3.0), new Range(3.0, 3.0)).length);
+    }
+
+}
@@ -0,0 +1,230 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link FaceSorter} class.  The paint order is checked 
+ * against a sort of the same faces with a {@link ZOrderComparator}.
+ */
+public class FaceSorterTest {
+
+    /**
+     * Creates random eye coordinates for the specified number of vertices.
+     */
+    private static double[] createCoords(Random random, int vertexCount) {
+        double[] coords = new double[vertexCount * 3];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = random.nextDouble() * 20.0 - 10.0;
+        }
+        for (int i = 2; i < coords.length; i += 3) {
+            coords[i] = coords[i] - 30.0;  // in front of the viewer
+        }
+        return coords;
+    }
+
+    /**
+     * Creates random triangles and quadrilaterals over the vertices.
+     */
+    private static List<Face> createFaces(Random random, int faceCount, 
+            int vertexCount) {
+        List<Face> faces = new ArrayList<Face>();
+        for (int f = 0; f < faceCount; f++) {
+            int[] vertices = new int[3 + random.nextInt(2)];
+            for (int v = 0; v < vertices.length; v++) {
+                vertices[v] = random.nextInt(vertexCount);
+            }
+            faces.add(new Face(vertices, 0xFF000000, false));
+        }
+        return faces;
+    }
+
+    /**
+     * Moves every vertex by a small amount (as a small rotation of the view
+     * point would).
+     */
+    private static void perturb(Random random, double[] coords, 
+            double amount) {
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] += (random.nextDouble() - 0.5) * amount;
+        }
+    }
+
+    /**
+     * Checks that the first <code>count</code> entries in the paint order 
+     * are the candidate faces, in the same order as a comparator sort.
+     */
+    private static void checkOrder(List<Face> faces, int[] candidates, 
+            int count, double[] coords, int[] order) {
+        List<Face> expected = new ArrayList<Face>();
+        boolean[] seen = new boolean[faces.size()];
+        for (int i = 0; i < count; i++) {
+            int f = candidates != null ? candidates[i] : i;
+            expected.add(faces.get(f));
+            seen[f] = true;
+        }
+        ZOrderComparator comparator = new ZOrderComparator(coords);
+        Collections.sort(expected, comparator);
+        for (int i = 0; i < count; i++) {
+            int f = order[i];
+            assertTrue("Face " + f + " not expected.", seen[f]);
+            seen[f] = false;
+            // faces with equal depths may be painted in either order
+            assertEquals(0, comparator.compare(expected.get(i), 
+                    faces.get(f)));
+        }
+    }
+
+    @Test
+    public void testSortAll() {
+        Random random = new Random(1);
+        double[] coords = createCoords(random, 500);
+        List<Face> faces = createFaces(random, 2000, 500);
+        FaceSorter sorter = new FaceSorter();
+        int[] order = sorter.sort(faces, coords);
+        checkOrder(faces, null, faces.size(), coords, order);
+    }
+
+    @Test
+    public void testSortEmpty() {
+        FaceSorter sorter = new FaceSorter();
+        sorter.sort(new ArrayList<Face>(), new double[0]);
+    }
+
+    @Test
+    public void testSortEqualDepths() {
+        Random random = new Random(2);
+        double[] coords = new double[300];
+        for (int i = 2; i < coords.length; i += 3) {
+            coords[i] = -5.0;
+        }
+        List<Face> faces = createFaces(random, 400, 100);
+        FaceSorter sorter = new FaceSorter();
+        int[] order = sorter.sort(faces, coords);
+        checkOrder(faces, null, faces.size(), coords, order);
+    }
+
+    /**
+     * Sorts the same faces over a sequence of frames with small changes 
+     * (which exercises the incremental re-sort) and occasional large jumps
+     * (which exercise the fallback to a full sort and the backoff).
+     */
+    @Test
+    public void testResortCoherentFrames() {
+        Random random = new Random(3);
+        double[] coords = createCoords(random, 1000);
+        List<Face> faces = createFaces(random, 3000, 1000);
+        FaceSorter sorter = new FaceSorter();
+        for (int frame = 0; frame < 100; frame++) {
+            if (frame % 25 == 24) {
+                coords = createCoords(random, 1000);
+            } else if (frame % 10 > 6) {
+                perturb(random, coords, 5.0);
+            } else {
+                perturb(random, coords, 0.05);
+            }
+            int[] order = sorter.sort(faces, coords);
+            checkOrder(faces, null, faces.size(), coords, order);
+        }
+    }
+
+    /**
+     * Sorts changing subsets of the same faces (as back-face culling 
+     * produces while a chart is rotated).
+     */
+    @Test
+    public void testResortSubsets() {
+        Random random = new Random(4);
+        double[] coords = createCoords(random, 800);
+        List<Face> faces = createFaces(random, 2000, 800);
+        FaceSorter sorter = new FaceSorter();
+        int[] candidates = new int[faces.size()];
+        for (int frame = 0; frame < 60; frame++) {
+            perturb(random, coords, frame % 20 == 19 ? 10.0 : 0.05);
+            int count = 0;
+            int skipped = frame % 7;
+            for (int f = 0; f < faces.size(); f++) {
+                if ((f + frame) % 5 != skipped % 5 || random.nextInt(50) == 0) {
+                    candidates[count++] = f;
+                }
+            }
+            int[] order = sorter.sort(faces, candidates, count, coords);
+            checkOrder(faces, candidates, count, coords, order);
+        }
+    }
+
+    /**
+     * A different face list must not be sorted from the previous order.
+     */
+    @Test
+    public void testSortDifferentFaceLists() {
+        Random random = new Random(5);
+        double[] coords = createCoords(random, 300);
+        FaceSorter sorter = new FaceSorter();
+        for (int i = 0; i < 10; i++) {
+            List<Face> faces = createFaces(random, 500 + i * 10, 300);
+            int[] order = sorter.sort(faces, coords);
+            checkOrder(faces, null, faces.size(), coords, order);
+        }
+    }
+
+    @Test
+    public void testReset() {
+        Random random = new Random(6);
+        double[] coords = createCoords(random, 300);
+        List<Face> faces = createFaces(random, 1000, 300);
+        FaceSorter sorter = new FaceSorter();
+        sorter.sort(faces, coords);
+        perturb(random, coords, 0.1);
+        sorter.reset();
+        int[] order = sorter.sort(faces, coords);
+        checkOrder(faces, null, faces.size(), coords, order);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSortInvalidCount() {
+        FaceSorter sorter = new FaceSorter();
+        List<Face> faces = createFaces(new Random(7), 10, 5);
+        sorter.sort(faces, new int[5], 6, new double[15]);
+    }
+
+}
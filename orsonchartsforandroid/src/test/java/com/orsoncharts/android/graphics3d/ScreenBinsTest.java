@@ -0,0 +1,163 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ScreenBins} class.  Bin counts are checked against
+ * a brute force count over the points.
+ */
+public class ScreenBinsTest {
+
+    @Test
+    public void testGridSize() {
+        ScreenBins bins = new ScreenBins();
+        bins.reset(10f, 20f, 100f, 50f, 4f);
+        assertEquals(25, bins.getColumnCount());
+        assertEquals(13, bins.getRowCount());
+        assertEquals(4f, bins.getBinSize(), 0f);
+        assertEquals(0, bins.getOccupiedCount());
+        assertEquals(0, bins.getMaxCount());
+    }
+
+    @Test
+    public void testAdd() {
+        ScreenBins bins = new ScreenBins();
+        bins.reset(10f, 20f, 100f, 50f, 4f);
+        bins.add(10f, 20f);
+        bins.add(13.5f, 23.5f);
+        bins.add(14f, 20f);
+        bins.add(109f, 69f);
+        assertEquals(3, bins.getOccupiedCount());
+        assertEquals(0, bins.getOccupiedBin(0));
+        assertEquals(1, bins.getOccupiedBin(1));
+        assertEquals(12 * 25 + 24, bins.getOccupiedBin(2));
+        assertEquals(2, bins.getCount(0));
+        assertEquals(1, bins.getCount(1));
+        assertEquals(2, bins.getMaxCount());
+        assertEquals(14f, bins.getBinX(1), 0f);
+        assertEquals(20f, bins.getBinY(1), 0f);
+        assertEquals(106f, bins.getBinX(12 * 25 + 24), 0f);
+        assertEquals(68f, bins.getBinY(12 * 25 + 24), 0f);
+    }
+
+    /**
+     * Points outside the grid and points with <code>NaN</code> coordinates
+     * are ignored.
+     */
+    @Test
+    public void testAddOutside() {
+        ScreenBins bins = new ScreenBins();
+        bins.reset(0f, 0f, 10f, 10f, 5f);
+        bins.add(-0.01f, 1f);
+        bins.add(1f, -0.01f);
+        bins.add(10f, 1f);
+        bins.add(1f, 10f);
+        bins.add(Float.NaN, 1f);
+        bins.add(1f, Float.NaN);
+        assertEquals(0, bins.getOccupiedCount());
+        assertEquals(0, bins.getMaxCount());
+    }
+
+    /**
+     * Adds random points to grids of different sizes (reusing the same 
+     * instance) and checks the counts against a brute force count.
+     */
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(1);
+        ScreenBins bins = new ScreenBins();
+        for (int frame = 0; frame < 50; frame++) {
+            float x = random.nextInt(50) - 25f;
+            float y = random.nextInt(50) - 25f;
+            float w = 10f + random.nextInt(300);
+            float h = 10f + random.nextInt(300);
+            float binSize = 1f + random.nextInt(8);
+            bins.reset(x, y, w, h, binSize);
+            int columns = bins.getColumnCount();
+            int rows = bins.getRowCount();
+            int[] expected = new int[columns * rows];
+            int n = random.nextInt(5000);
+            for (int i = 0; i < n; i++) {
+                float px = x - 20f + random.nextFloat() * (w + 40f);
+                float py = y - 20f + random.nextFloat() * (h + 40f);
+                bins.add(px, py);
+                int c = (int) Math.floor((px - x) / binSize);
+                int r = (int) Math.floor((py - y) / binSize);
+                if (c >= 0 && c < columns && r >= 0 && r < rows) {
+                    expected[r * columns + c]++;
+                }
+            }
+            int occupied = 0;
+            int max = 0;
+            for (int bin = 0; bin < expected.length; bin++) {
+                assertEquals(expected[bin], bins.getCount(bin));
+                if (expected[bin] > 0) {
+                    occupied++;
+                }
+                max = Math.max(max, expected[bin]);
+            }
+            assertEquals(occupied, bins.getOccupiedCount());
+            assertEquals(max, bins.getMaxCount());
+            Set<Integer> seen = new HashSet<Integer>();
+            for (int k = 0; k < bins.getOccupiedCount(); k++) {
+                int bin = bins.getOccupiedBin(k);
+                assertTrue(expected[bin] > 0);
+                assertTrue(seen.add(bin));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOccupiedBinOutOfRange() {
+        ScreenBins bins = new ScreenBins();
+        bins.reset(0f, 0f, 10f, 10f, 5f);
+        bins.add(1f, 1f);
+        bins.getOccupiedBin(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResetInvalidBinSize() {
+        ScreenBins bins = new ScreenBins();
+        bins.reset(0f, 0f, 10f, 10f, 0f);
+    }
+
+}
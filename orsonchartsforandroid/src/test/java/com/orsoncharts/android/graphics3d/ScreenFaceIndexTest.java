@@ -0,0 +1,161 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.graphics3d;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.orsoncharts.android.data.xyz.XYZItemKey;
+
+/**
+ * Tests for the {@link ScreenFaceIndex} class.  The faces are rectangles
+ * with integer coordinates, and the queries are checked against a brute 
+ * force search in reverse paint order.
+ */
+public class ScreenFaceIndexTest {
+
+    /** The faces. */
+    private List<Face> faces;
+
+    /** The projected points for the faces, as (x, y) pairs. */
+    private float[] screenCoords;
+
+    /**
+     * Creates rectangular faces with random sizes and positions (most of
+     * them with an item key).
+     */
+    private void createFaces(Random random, int count) {
+        this.faces = new ArrayList<Face>();
+        this.screenCoords = new float[count * 8];
+        for (int i = 0; i < count; i++) {
+            float x0 = random.nextInt(400) - 50;
+            float y0 = random.nextInt(300) - 50;
+            float x1 = x0 + 1 + random.nextInt(i % 10 == 0 ? 200 : 20);
+            float y1 = y0 + 1 + random.nextInt(i % 10 == 0 ? 200 : 20);
+            float[] pts = new float[] {x0, y0, x1, y0, x1, y1, x0, y1};
+            System.arraycopy(pts, 0, this.screenCoords, i * 8, 8);
+            Face f = new Face(new int[] {i * 4, i * 4 + 1, i * 4 + 2, 
+                i * 4 + 3}, 0xFF000000, false);
+            if (random.nextInt(5) != 0) {
+                f.setItemKey(new XYZItemKey("S1", i));
+            }
+            this.faces.add(f);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a rectangular face contains a point.
+     */
+    private boolean contains(Face f, float x, float y) {
+        float x0 = this.screenCoords[f.getVertexIndex(0) * 2];
+        float y0 = this.screenCoords[f.getVertexIndex(0) * 2 + 1];
+        float x1 = this.screenCoords[f.getVertexIndex(2) * 2];
+        float y1 = this.screenCoords[f.getVertexIndex(2) * 2 + 1];
+        return x >= x0 && x <= x1 && y >= y0 && y <= y1;
+    }
+
+    /**
+     * Returns a random permutation of the face indices.
+     */
+    private static int[] shuffle(Random random, int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 10; trial++) {
+            createFaces(random, 50 + random.nextInt(500));
+            int[] order = shuffle(random, this.faces.size());
+            // only some of the faces are painted
+            int count = this.faces.size() - random.nextInt(20);
+            ScreenFaceIndex index = new ScreenFaceIndex(this.faces, order, 
+                    count, this.screenCoords, 
+                    new double[this.faces.size() * 12], 1000f);
+            for (int q = 0; q < 1000; q++) {
+                // the queries are never on the edge of a face
+                float x = random.nextInt(500) - 75 + 0.5f;
+                float y = random.nextInt(400) - 75 + 0.5f;
+                int expected = -1;
+                for (int e = count - 1; e >= 0; e--) {
+                    Face f = this.faces.get(order[e]);
+                    if (f.getItemKey() != null && contains(f, x, y)) {
+                        expected = order[e];
+                        break;
+                    }
+                }
+                assertEquals(expected, index.findFaceAt(x, y));
+            }
+        }
+    }
+
+    /**
+     * Faces with non-finite screen coordinates are not indexed.
+     */
+    @Test
+    public void testNaNCoordinates() {
+        createFaces(new Random(2), 2);
+        this.faces.get(0).setItemKey(new XYZItemKey("S1", 0));
+        this.faces.get(1).setItemKey(new XYZItemKey("S1", 1));
+        this.screenCoords[0] = Float.NaN;
+        ScreenFaceIndex index = new ScreenFaceIndex(this.faces, 
+                new int[] {0, 1}, 2, this.screenCoords, new double[24], 1000f);
+        float x = this.screenCoords[8] + 0.5f;
+        float y = this.screenCoords[9] + 0.5f;
+        assertEquals(1, index.findFaceAt(x, y));
+        assertEquals(-1, index.findFaceAt(-1000f, -1000f));
+    }
+
+    @Test
+    public void testEmpty() {
+        ScreenFaceIndex index = new ScreenFaceIndex(new ArrayList<Face>(), 
+                new int[0], 0, new float[0], new double[0], 1000f);
+        assertEquals(-1, index.findFaceAt(0f, 0f));
+    }
+
+}
@@ -0,0 +1,262 @@
+/* ========================
+ * Orson Charts for Android
+ * ========================
+ *
+ * (C)opyright 2013-2019, by Object Refinery Limited.  All rights reserved.
+ *
+ * https://github.com/jfree/orson-charts-android
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates.
+ * Other names may be trademarks of their respective owners.]
+ *
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson Charts for Android home page:
+ *
+ * https://www.object-refinery.com/orsoncharts/android/index.html
+ *
+ */
+
+package com.orsoncharts.android.plot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.orsoncharts.android.data.StandardPieDataset3D;
+import com.orsoncharts.android.graphics3d.Face;
+import com.orsoncharts.android.graphics3d.Object3D;
+import com.orsoncharts.android.graphics3d.Point3D;
+
+/**
+ * Tests for the cached tessellation in the {@link PiePlot3D} class, which 
+ * should produce the same sections as 
+ * {@link Object3D#createPieSegment(double, double, double, double, double, 
+ * double, double, int)} apart from the placement of the rim vertices.
+ */
+public class PiePlot3DTest {
+
+    private static final double EPSILON = 1e-12;
+
+    private static final double RADIUS = 4.0;
+
+    private static final double DEPTH = 0.5;
+
+    private static final int COLOR = 0xFF336699;
+
+    /**
+     * Creates a dataset with a tiny section, a missing value, and a section
+     * boundary just past a right angle (so it is very close to the rim 
+     * vertex grid for all the segment counts used in the tests).
+     */
+    private static StandardPieDataset3D createDataset() {
+        StandardPieDataset3D dataset = new StandardPieDataset3D();
+        dataset.add("A", 25.0001);
+        dataset.add("B", 0.01);
+        dataset.add("C", null);
+        dataset.add("D", 30.4899);
+        dataset.add("E", 7.0);
+        dataset.add("F", 37.5);
+        return dataset;
+    }
+
+    /**
+     * Returns the start and end angles of each section, computed in the 
+     * same way as the original (uncached) pie plot code.
+     */
+    private static double[][] sectionAngles(StandardPieDataset3D dataset) {
+        double total = 0.0;
+        for (int i = 0; i < dataset.getItemCount(); i++) {
+            Number n = dataset.getValue(i);
+            if (n != null) {
+                total += n.doubleValue();
+            }
+        }
+        double[][] result = new double[dataset.getItemCount()][];
+        double r = 0.0;
+        for (int i = 0; i < dataset.getItemCount(); i++) {
+            Number n = dataset.getValue(i);
+            if (n != null) {
+                double angle = Math.PI * 2 * (n.doubleValue() / total);
+                result[i] = new double[] {r, r + angle};
+                r = r + angle;
+            }
+        }
+        return result;
+    }
+
+    private static void assertPointEquals(Point3D expected, Point3D actual) {
+        assertEquals(expected.x, actual.x, EPSILON);
+        assertEquals(expected.y, actual.y, EPSILON);
+        assertEquals(expected.z, actual.z, EPSILON);
+    }
+
+    private static int[] vertices(Face f) {
+        int[] result = new int[f.getVertexCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = f.getVertexIndex(i);
+        }
+        return result;
+    }
+
+    /**
+     * Checks one section against the segment created by the original code.
+     */
+    private static void checkSection(Object3D expected, Object3D actual, 
+            double angle1, double angle2, double base, int segments) {
+        double inc = Math.PI / segments;
+        int n = actual.getVertexCount();
+        int m = expected.getVertexCount();
+        // at most one rim point (two vertices) more or less
+        assertTrue(Math.abs(n - m) <= 2);
+        
+        // the centre vertices and the section boundaries are the same
+        assertPointEquals(expected.getVertex(0), actual.getVertex(0));
+        assertPointEquals(expected.getVertex(1), actual.getVertex(1));
+        assertPointEquals(expected.getVertex(2), actual.getVertex(2));
+        assertPointEquals(expected.getVertex(3), actual.getVertex(3));
+        assertPointEquals(expected.getVertex(m - 2), actual.getVertex(n - 2));
+        assertPointEquals(expected.getVertex(m - 1), actual.getVertex(n - 1));
+        
+        // the rim points are on the circle, in order, and the interior ones 
+        // are on the shared grid.  They are no further apart than in the 
+        // original, except that a grid angle very close to a boundary is 
+        // skipped (so there are no almost coincident points)
+        double maxGap = inc * 1.001 + 1e-6;
+        double minGap = inc * 0.0005;
+        double previous = angle1;
+        for (int v = 2; v < n; v += 2) {
+            Point3D p0 = actual.getVertex(v);
+            Point3D p1 = actual.getVertex(v + 1);
+            assertEquals(base, p0.y, EPSILON);
+            assertEquals(base + DEPTH, p1.y, EPSILON);
+            assertEquals(p0.x, p1.x, 0.0);
+            assertEquals(p0.z, p1.z, 0.0);
+            assertEquals(RADIUS, Math.hypot(p0.x, p0.z), 1e-6);
+            if (v == 2 || v == n - 2) {
+                continue;
+            }
+            double theta = Math.atan2(p0.z, p0.x);
+            if (theta < 0.0) {
+                theta += Math.PI * 2;
+            }
+            assertEquals(Math.rint(theta / inc) * inc, theta, 1e-6);
+            assertTrue(theta > previous && theta < angle2);
+            assertTrue(theta - previous <= maxGap);
+            assertTrue(theta - previous >= minGap);
+            previous = theta;
+        }
+        assertTrue(angle2 - previous <= maxGap);
+        assertTrue(angle2 - previous >= minGap);
+        
+        // the faces have the same layout and outline flags, apart from the
+        // number of rim faces
+        List<Face> ef = expected.getFaces();
+        List<Face> af = actual.getFaces();
+        assertEquals(3 * (n / 2 - 1) - 1, af.size());
+        for (int i = 0; i < Math.min(ef.size(), af.size()) - 1; i++) {
+            assertArrayEquals(vertices(ef.get(i)), vertices(af.get(i)));
+            assertEquals(ef.get(i).getOutline(), af.get(i).getOutline());
+        }
+        Face closing = af.get(af.size() - 1);
+        assertArrayEquals(new int[] {1, 0, n - 2, n - 1}, vertices(closing));
+        assertFalse(closing.getOutline());
+        for (Face f : af) {
+            assertEquals(COLOR, f.getColor());
+        }
+    }
+
+    @Test
+    public void testSegmentsMatchCreatePieSegment() {
+        StandardPieDataset3D dataset = createDataset();
+        double[][] angles = sectionAngles(dataset);
+        int[] segmentCounts = new int[] {3, 16, 40, 120};
+        for (int segments : segmentCounts) {
+            double base = segments % 2 == 0 ? 0.0 : -0.25;
+            PiePlot3D.Tessellation t = new PiePlot3D.Tessellation(dataset, 
+                    RADIUS, DEPTH, segments, base);
+            assertEquals(dataset.getItemCount(), t.getSectionCount());
+            for (int i = 0; i < t.getSectionCount(); i++) {
+                if (angles[i] == null) {
+                    assertTrue(t.isEmpty(i));
+                    continue;
+                }
+                assertFalse(t.isEmpty(i));
+                Object3D expected = Object3D.createPieSegment(RADIUS, 0.0, 
+                        base, DEPTH, angles[i][0], angles[i][1], 
+                        Math.PI / segments, COLOR);
+                checkSection(expected, t.createSegment(i, COLOR), 
+                        angles[i][0], angles[i][1], base, segments);
+            }
+        }
+    }
+
+    /**
+     * A pie with a single section is a full cylinder that starts and ends
+     * at angle zero.
+     */
+    @Test
+    public void testSingleSection() {
+        StandardPieDataset3D dataset = new StandardPieDataset3D();
+        dataset.add("A", 5.0);
+        PiePlot3D.Tessellation t = new PiePlot3D.Tessellation(dataset, 
+                RADIUS, DEPTH, 40, 0.0);
+        Object3D expected = Object3D.createPieSegment(RADIUS, 0.0, 0.0, 
+                DEPTH, 0.0, Math.PI * 2, Math.PI / 40, COLOR);
+        Object3D actual = t.createSegment(0, COLOR);
+        checkSection(expected, actual, 0.0, Math.PI * 2, 0.0, 40);
+        // one rim point for each grid angle, plus the two boundaries
+        assertEquals(2 + 2 * 81, actual.getVertexCount());
+    }
+
+    @Test
+    public void testLabelMarkersMatchCreatePieLabelMarkers() {
+        StandardPieDataset3D dataset = createDataset();
+        double[][] angles = sectionAngles(dataset);
+        double base = 0.75;
+        PiePlot3D.Tessellation t = new PiePlot3D.Tessellation(dataset, 
+                RADIUS, DEPTH, 40, base);
+        for (int i = 0; i < t.getSectionCount(); i++) {
+            if (angles[i] == null) {
+                continue;
+            }
+            List<Object3D> expected = Object3D.createPieLabelMarkers(
+                    RADIUS * 1.2, 0.0, base - DEPTH * 0.05, DEPTH * 1.1, 
+                    angles[i][0], angles[i][1]);
+            for (int k = 0; k < 2; k++) {
+                Object3D e = expected.get(k);
+                Object3D a = t.createLabelMarker(i, k == 1);
+                assertEquals(e.getVertexCount(), a.getVertexCount());
+                for (int v = 0; v < e.getVertexCount(); v++) {
+                    // the original rounds the centre to float precision
+                    Point3D ep = e.getVertex(v);
+                    Point3D ap = a.getVertex(v);
+                    assertEquals(ep.x, ap.x, 1e-6);
+                    assertEquals(ep.y, ap.y, EPSILON);
+                    assertEquals(ep.z, ap.z, 1e-6);
+                }
+                assertEquals(e.getFaces().get(0).getColor(), 
+                        a.getFaces().get(0).getColor());
+            }
+        }
+    }
+
+}